@@ -0,0 +1,24 @@
+package com.fooapi.benchmark;
+
+import com.fooapi.support.FooApiTestApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Démarre l'application complète sur H2 (profil test) pour les benchmarks qui traversent les couches Spring.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * @param properties propriétés "--clé=valeur", prioritaires sur application*.properties
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(FooApiTestApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.main.banner-mode=off")
+                .run(properties);
+    }
+}
@@ -0,0 +1,60 @@
+package com.fooapi.benchmark;
+
+import dto.FooBatchResponseDTO;
+import dto.FooRequestDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import service.FooService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Débit d'insertion (lignes/s) : createFoo ligne à ligne contre createFoos en batch JDBC, sur H2 en mémoire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FooBatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private FooService fooService;
+    private List<FooRequestDTO> requests;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        fooService = context.getBean(FooService.class);
+        requests = IntStream.range(0, ROWS)
+                .mapToObj(i -> new FooRequestDTO("Batch Foo " + i))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int singleRowInserts() {
+        int created = 0;
+        for (FooRequestDTO request : requests) {
+            fooService.createFoo(request);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public FooBatchResponseDTO batchInsert() {
+        return fooService.createFoos(requests);
+    }
+}
@@ -0,0 +1,74 @@
+package com.fooapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Aller-retour complet MockMvc : filtres de sécurité, FooController, service, H2 et sérialisation JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FooControllerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private RequestPostProcessor authenticatedUser;
+    private String existingFooUrl;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkContexts.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        authenticatedUser = user("benchmark").roles("USER");
+        MvcResult created = mockMvc.perform(post("/api/v1/foos").with(authenticatedUser)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Existing Foo\"}"))
+                .andReturn();
+        existingFooUrl = "/api/v1/foos/" + created.getResponse().getContentAsString().replaceAll("\\D*\"id\":(\\d+).*", "$1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getFooById() throws Exception {
+        return mockMvc.perform(get(existingFooUrl).with(authenticatedUser))
+                .andReturn().getResponse().getStatus();
+    }
+
+    // 404 répété (robots, clients obsolètes) : id connu comme absent, servi par le cache négatif
+    @Benchmark
+    public int getMissingFoo() throws Exception {
+        return mockMvc.perform(get("/api/v1/foos/{id}", Long.MAX_VALUE).with(authenticatedUser))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int createFoo() throws Exception {
+        return mockMvc.perform(post("/api/v1/foos").with(authenticatedUser)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Benchmark Foo\"}"))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,69 @@
+package com.fooapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import dto.FooResponseDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût CPU de sérialisation par format (JSON, CBOR, Smile), brut et compressé gzip, pour 1, 100 et 10 000 Foos.
+ * La taille sur le réseau de chaque combinaison est affichée au démarrage de l'essai ("wire bytes").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FooFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"1", "100", "10000"})
+    public int foos;
+
+    private ObjectWriter writer;
+    private Object payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> JsonMapper.builder().findAndAddModules().build();
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        List<FooResponseDTO> list = LongStream.rangeClosed(1, foos)
+                .mapToObj(id -> new FooResponseDTO(id, "Benchmark Foo " + id, id % 7))
+                .toList();
+        // Un seul Foo : réponse de GET /{id} ; sinon une liste, comme une page ou un multi-get
+        payload = foos == 1 ? list.get(0) : list;
+        writer = mapper.writer();
+        System.out.printf("wire bytes (%s, %d Foos): raw=%d gzip=%d%n", format, foos, serialize().length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writer.writeValue(gzip, payload);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,32 @@
+package com.fooapi.benchmark;
+
+import dto.FooRequestDTO;
+import dto.FooResponseDTO;
+import entity.Foo;
+import mapper.FooMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FooMapperBenchmark {
+
+    private final FooMapper fooMapper = FooMapper.INSTANCE;
+    private final FooRequestDTO request = new FooRequestDTO("Benchmark Foo");
+    private final Foo foo = new Foo(42L, "Benchmark Foo");
+
+    @Benchmark
+    public Foo toEntity() {
+        return fooMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public FooResponseDTO toResponseDTO() {
+        return fooMapper.toResponseDTO(foo);
+    }
+}
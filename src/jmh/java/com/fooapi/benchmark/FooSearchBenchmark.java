@@ -0,0 +1,46 @@
+package com.fooapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import service.search.FooNameIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche dans l'index trigrammes : sous-chaîne rare, sous-chaîne fréquente (tous les noms la contiennent)
+ * et nom mal orthographié (similarité seule), sur des noms de deux mots tirés d'un vocabulaire fixe suivis d'un numéro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FooSearchBenchmark {
+
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+            "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa", "quebec", "romeo", "sierra", "tango"};
+
+    @Param({"100000", "1000000"})
+    public int foos;
+
+    @Param({"kilo 4242", "foo", "novmber papa"})
+    public String query;
+
+    private FooNameIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new FooNameIndex();
+        Random random = new Random(42);
+        for (long id = 1; id <= foos; id++) {
+            index.put(id, "Foo " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id);
+        }
+    }
+
+    @Benchmark
+    public List<FooNameIndex.Hit> search() {
+        return index.search(query, 20, 0.3);
+    }
+}
@@ -0,0 +1,50 @@
+package com.fooapi.benchmark;
+
+import dto.FooRequestDTO;
+import dto.FooResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import service.FooService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FooServiceImpl contre H2 en mémoire, avec et sans cache de lecture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FooServiceBenchmark {
+
+    @Param({"caffeine", "none"})
+    private String cacheType;
+
+    private ConfigurableApplicationContext context;
+    private FooService fooService;
+    private Long existingId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start("--foo.cache.type=" + cacheType);
+        fooService = context.getBean(FooService.class);
+        existingId = fooService.createFoo(new FooRequestDTO("Existing Foo")).id();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FooResponseDTO createFoo() {
+        return fooService.createFoo(new FooRequestDTO("Benchmark Foo"));
+    }
+
+    @Benchmark
+    public FooResponseDTO getFooById() {
+        return fooService.getFooById(existingId);
+    }
+}
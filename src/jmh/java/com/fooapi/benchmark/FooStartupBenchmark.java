@@ -0,0 +1,168 @@
+package com.fooapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Temps entre le lancement d'une JVM et la première réponse 200 de GET /api/v1/foos/{id}, par mode de démarrage :
+ * <ul>
+ *     <li>default : configuration standard ;</li>
+ *     <li>fast-start : profil fast-start (initialisation paresseuse) ;</li>
+ *     <li>fast-start-aot : profil fast-start et cache de classes produit par une exécution d'entraînement
+ *     (cache AOT sur JDK 24+, archive CDS dynamique sur les JDK antérieurs).</li>
+ * </ul>
+ * Chaque mesure démarre un nouveau processus (StartupProbe) : mode SingleShotTime, sans échauffement utile côté JMH.
+ * Les répertoires de classes du classpath sont empaquetés en jars, pour tous les modes : les caches de classes
+ * refusent les répertoires non vides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FooStartupBenchmark {
+
+    private static final boolean JEP_483_AOT_CACHE = Runtime.version().feature() >= 24;
+
+    @Param({"default", "fast-start", "fast-start-aot"})
+    private String mode;
+
+    private Path workDirectory;
+    private String classpath;
+    private List<String> jvmOptions;
+    private List<String> applicationArguments;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        workDirectory = Files.createTempDirectory("foo-startup");
+        classpath = jarredClasspath();
+        jvmOptions = new ArrayList<>();
+        applicationArguments = new ArrayList<>();
+        // Journal des créations asynchrones propre à chaque processus
+        applicationArguments.add("--foo.async.log-dir=" + workDirectory.resolve("async-create"));
+        if (mode.startsWith("fast-start")) {
+            applicationArguments.add("--spring.profiles.active=fast-start");
+        }
+        if (mode.endsWith("-aot")) {
+            train();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopProcess() throws InterruptedException {
+        if (process != null) {
+            process.destroyForcibly().waitFor();
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public long timeToFirstSuccessfulGet() throws IOException, InterruptedException {
+        process = launch(jvmOptions);
+        return awaitFirstSuccess(process);
+    }
+
+    // Exécution d'entraînement : même classpath et mêmes options que les exécutions mesurées
+    private void train() throws IOException, InterruptedException {
+        if (JEP_483_AOT_CACHE) {
+            Path configuration = workDirectory.resolve("app.aotconf");
+            Path cache = workDirectory.resolve("app.aot");
+            runToCompletion(List.of("-XX:AOTMode=record", "-XX:AOTConfiguration=" + configuration));
+            runToCompletion(List.of("-XX:AOTMode=create", "-XX:AOTConfiguration=" + configuration, "-XX:AOTCache=" + cache));
+            jvmOptions.add("-XX:AOTCache=" + cache);
+        } else {
+            Path archive = workDirectory.resolve("app.jsa");
+            runToCompletion(List.of("-XX:ArchiveClassesAtExit=" + archive));
+            jvmOptions.add("-XX:SharedArchiveFile=" + archive);
+        }
+    }
+
+    private void runToCompletion(List<String> options) throws IOException, InterruptedException {
+        Process training = launch(options);
+        training.getInputStream().transferTo(OutputStream.nullOutputStream());
+        if (training.waitFor() != 0) {
+            throw new IllegalStateException("Training run failed with exit code " + training.exitValue());
+        }
+    }
+
+    private Process launch(List<String> options) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(StartupProbe.class.getName());
+        command.addAll(applicationArguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    private String jarredClasspath() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (Files.isDirectory(path)) {
+                Path jar = workDirectory.resolve("classpath-" + entries.size() + ".jar");
+                jar(path, jar);
+                entries.add(jar.toString());
+            } else {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void jar(Path directory, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(directory)) {
+            // Les entrées de répertoire sont nécessaires au scan de composants Spring (classpath*:repository/**)
+            for (Path file : (Iterable<Path>) files.filter(file -> !file.equals(directory))::iterator) {
+                String name = directory.relativize(file).toString().replace(File.separatorChar, '/');
+                if (Files.isDirectory(file)) {
+                    out.putNextEntry(new JarEntry(name + "/"));
+                } else {
+                    out.putNextEntry(new JarEntry(name));
+                    Files.copy(file, out);
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static long awaitFirstSuccess(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(StartupProbe.FIRST_SUCCESS)) {
+                return Long.parseLong(line.substring(StartupProbe.FIRST_SUCCESS.length()).trim());
+            }
+        }
+        throw new IllegalStateException("Probe exited before its first successful GET");
+    }
+}
@@ -0,0 +1,99 @@
+package com.fooapi.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Coût de l'authentification JWT sur GET /api/v1/foos/{id} : jeton RS256 vérifié une fois puis servi par le cache
+ * (cached) ou vérifié à chaque requête (uncached, foo.security.jwt.cache-maximum-size=0).
+ * withoutToken donne la référence : même requête avec un utilisateur injecté par spring-security-test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    @Param({"cached", "uncached"})
+    public String verification;
+
+    private Path jwksFile;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String bearerToken;
+    private String existingFooUrl;
+
+    @Setup
+    public void setUp() throws Exception {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        jwksFile = Files.createTempFile("jwks", ".json");
+        Files.writeString(jwksFile, new JWKSet(signingKey.toPublicJWK()).toString());
+        context = BenchmarkContexts.start(
+                "--foo.security.jwt.jwk-set-uri=" + jwksFile.toUri(),
+                "--foo.security.jwt.cache-maximum-size=" + (verification.equals("cached") ? 10_000 : 0));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("benchmark")
+                        .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                        .claim("roles", List.of("USER"))
+                        .build());
+        jwt.sign(new RSASSASigner(signingKey));
+        bearerToken = "Bearer " + jwt.serialize();
+
+        MvcResult created = mockMvc.perform(post("/api/v1/foos").header(HttpHeaders.AUTHORIZATION, bearerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Existing Foo\"}"))
+                .andReturn();
+        existingFooUrl = "/api/v1/foos/" + created.getResponse().getContentAsString().replaceAll("\\D*\"id\":(\\d+).*", "$1");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        Files.deleteIfExists(jwksFile);
+    }
+
+    @Benchmark
+    public int getFooByIdWithBearerToken() throws Exception {
+        return mockMvc.perform(get(existingFooUrl).header(HttpHeaders.AUTHORIZATION, bearerToken))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getFooByIdWithoutToken() throws Exception {
+        return mockMvc.perform(get(existingFooUrl).with(user("benchmark").roles("USER")))
+                .andReturn().getResponse().getStatus();
+    }
+}
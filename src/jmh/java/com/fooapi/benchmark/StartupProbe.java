@@ -0,0 +1,78 @@
+package com.fooapi.benchmark;
+
+import com.fooapi.support.FooApiTestApplication;
+import entity.Foo;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import repository.FooRepository;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Processus lancé par FooStartupBenchmark : démarre l'application (H2, profil test + arguments reçus),
+ * crée un Foo puis appelle GET /api/v1/foos/{id} en HTTP jusqu'à obtenir un 200.
+ * Écrit alors "FIRST_SUCCESS &lt;ms depuis le démarrage de la JVM&gt;" sur la sortie standard et s'arrête.
+ */
+public final class StartupProbe {
+
+    static final String FIRST_SUCCESS = "FIRST_SUCCESS";
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) {
+        // DevTools relancerait l'application dans un autre classloader, dont les classes ne sont pas archivables
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try {
+            long uptime = startAndAwaitFirstSuccess(args);
+            System.out.println(FIRST_SUCCESS + " " + uptime);
+            System.out.flush();
+            // System.exit (et non halt) : l'archive CDS dynamique est écrite à l'arrêt de la JVM
+            System.exit(0);
+        } catch (Exception ex) {
+            // Les threads Tomcat garderaient la JVM en vie : le benchmark attendrait indéfiniment
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static long startAndAwaitFirstSuccess(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FooApiTestApplication.class, AnonymousReadsConfig.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.main.banner-mode=off")
+                .run(args);
+        Long id = context.getBean(FooRepository.class).save(new Foo(null, "Startup probe")).getId();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/foos/" + id)).build();
+        while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            Thread.sleep(10);
+        }
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    // La mesure porte sur le démarrage, pas sur l'authentification : lectures anonymes autorisées
+    @Configuration
+    static class AnonymousReadsConfig {
+
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain anonymousReads(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/api/v1/foos/*")
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+    }
+}
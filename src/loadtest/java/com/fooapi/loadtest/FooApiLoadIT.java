@@ -0,0 +1,136 @@
+package com.fooapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooapi.support.FooApiTestApplication;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tir de charge de l'API Foo : l'application complète démarre sur H2 (profil test) derrière un vrai port HTTP,
+ * reçoit un mélange create/get/list en modèle ouvert pendant loadtest.warmup (ignoré) puis loadtest.duration
+ * (mesuré), et le tir échoue si un seuil de SloGate est dépassé. Lancé par ./mvnw -Ploadtest verify ;
+ * résultats dans target/loadtest (results.json, distributions .hgrm par opération). Sans référence
+ * (loadtest.baseline), le tir l'enregistre : les suivants sont comparés à lui.
+ */
+class FooApiLoadIT {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static Path jwksFile;
+    private static ConfigurableApplicationContext context;
+    private static HttpClient client;
+    private static URI apiUri;
+    private static String authorization;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        jwksFile = Files.createTempFile("jwks", ".json");
+        Files.writeString(jwksFile, new JWKSet(signingKey.toPublicJWK()).toString());
+        context = new SpringApplicationBuilder(FooApiTestApplication.class)
+                .profiles("test")
+                .properties("spring.main.banner-mode=off")
+                .run("--server.port=0", "--foo.security.jwt.jwk-set-uri=" + jwksFile.toUri());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        apiUri = URI.create("http://localhost:" + port + "/api/v1/");
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("loadtest")
+                        .expirationTime(Date.from(Instant.now().plusSeconds(24 * 3600)))
+                        .claim("roles", List.of("USER"))
+                        .build());
+        jwt.sign(new RSASSASigner(signingKey));
+        authorization = "Bearer " + jwt.serialize();
+        // HTTP/1.1 : une connexion par requête simultanée, comme la plupart des clients de l'API
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    static void stopApplication() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (jwksFile != null) {
+            Files.deleteIfExists(jwksFile);
+        }
+    }
+
+    @Test
+    void fooApiMeetsItsServiceLevelObjectives() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        FooWorkload workload = new FooWorkload(apiUri, authorization, settings, seedFoos(settings.seedFoos()));
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(client, workload, settings);
+
+        generator.run(settings.warmup());
+        OpenModelLoadGenerator.Phase measured = generator.run(settings.duration());
+
+        LoadTestReport report = LoadTestReport.of(settings, measured);
+        report.print(System.out);
+        report.write(settings.outputDirectory().resolve("results.json"));
+        LoadTestReport.writeDistributions(measured, settings.outputDirectory());
+
+        LoadTestReport baseline = null;
+        if (settings.updateBaseline()) {
+            report.write(settings.baseline());
+            System.out.println("Baseline updated: " + settings.baseline().toAbsolutePath());
+        } else if (Files.exists(settings.baseline())) {
+            baseline = LoadTestReport.read(settings.baseline());
+        } else {
+            // Premier tir sur cette machine : il devient la référence des suivants, à conserver (ou committer)
+            report.write(settings.baseline());
+            System.out.println("No baseline found, this run was recorded as the baseline for the next ones: "
+                    + settings.baseline().toAbsolutePath());
+        }
+        List<String> violations = SloGate.violations(settings, report, baseline);
+        assertTrue(violations.isEmpty(), "Service level objectives not met:\n  " + String.join("\n  ", violations));
+    }
+
+    // Foos lus par les GET du mélange, créés en une requête /batch
+    private static List<Long> seedFoos(int count) throws Exception {
+        String body = IntStream.range(0, Math.max(count, 1))
+                .mapToObj(i -> "{\"name\":\"seed-" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(apiUri.resolve("foos/batch"))
+                        .header("Authorization", authorization)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode(), () -> "Could not seed Foos: " + response.body());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode result : JSON.readTree(response.body()).path("results")) {
+            ids.add(result.path("foo").path("id").asLong());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,81 @@
+package com.fooapi.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mélange create/get/list sur /api/v1/foos, tiré au sort à chaque arrivée selon les poids de LoadTestSettings.
+ * Les lectures par id portent sur les Foos créés à l'amorçage ; les créations utilisent des noms uniques.
+ */
+final class FooWorkload {
+
+    enum Operation {
+        CREATE(201), GET(200), LIST(200);
+
+        private final int expectedStatus;
+
+        Operation(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+
+        boolean isSuccess(int status) {
+            return status == expectedStatus;
+        }
+    }
+
+    private final URI apiUri;
+    private final String authorization;
+    private final Duration requestTimeout;
+    private final List<Long> seededIds;
+    private final int createWeight;
+    private final int getWeight;
+    private final int totalWeight;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong created = new AtomicLong();
+
+    /** @param apiUri racine de l'API, terminée par /api/v1/ */
+    FooWorkload(URI apiUri, String authorization, LoadTestSettings settings, List<Long> seededIds) {
+        this.apiUri = apiUri;
+        this.authorization = authorization;
+        this.requestTimeout = settings.requestTimeout();
+        this.seededIds = seededIds;
+        this.createWeight = settings.createWeight();
+        this.getWeight = settings.getWeight();
+        this.totalWeight = settings.createWeight() + settings.getWeight() + settings.listWeight();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("loadtest.mix.* weights must not all be zero");
+        }
+    }
+
+    Operation next(Random random) {
+        int draw = random.nextInt(totalWeight);
+        if (draw < createWeight) {
+            return Operation.CREATE;
+        }
+        return draw < createWeight + getWeight ? Operation.GET : Operation.LIST;
+    }
+
+    // Appelé depuis le thread du générateur : le tirage reste déterministe pour une graine donnée
+    HttpRequest request(Operation operation, Random random) {
+        return switch (operation) {
+            case CREATE -> builder(apiUri.resolve("foos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"name\":\"load-" + runId + "-" + created.incrementAndGet() + "\"}"))
+                    .build();
+            case GET -> builder(apiUri.resolve("foos/" + seededIds.get(random.nextInt(seededIds.size())))).GET().build();
+            case LIST -> builder(apiUri.resolve("foos?size=20")).GET().build();
+        };
+    }
+
+    private HttpRequest.Builder builder(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json");
+    }
+}
@@ -0,0 +1,90 @@
+package com.fooapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Résultats d'une phase de mesure : une ligne par opération et une ligne globale, latences en millisecondes
+ * (corrigées de l'omission coordonnée, sauf serviceTimeP99Millis). Enregistrés en JSON pour servir de référence
+ * aux tirs suivants (loadtest.baseline).
+ */
+record LoadTestReport(double targetRate, double durationSeconds, List<Summary> operations, Summary overall) {
+
+    record Summary(String operation, long arrivals, long errors, double throughput,
+                   double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis,
+                   double serviceTimeP99Millis) {
+
+        static Summary of(String operation, long arrivals, long errors, double throughput, Histogram latency, Histogram serviceTime) {
+            return new Summary(operation, arrivals, errors, throughput,
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()),
+                    millis(serviceTime.getValueAtPercentile(99)));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static LoadTestReport of(LoadTestSettings settings, OpenModelLoadGenerator.Phase phase) {
+        double seconds = phase.elapsedNanos() / 1e9;
+        List<Summary> operations = new ArrayList<>();
+        Histogram allLatencies = new Histogram(3);
+        Histogram allServiceTimes = new Histogram(3);
+        for (OperationStats stats : phase.stats().values()) {
+            operations.add(Summary.of(stats.name(), stats.arrivals(), stats.errors(), stats.successes() / seconds,
+                    stats.latency(), stats.serviceTime()));
+            allLatencies.add(stats.latency());
+            allServiceTimes.add(stats.serviceTime());
+        }
+        Summary overall = Summary.of("all", phase.arrivals(), phase.errors(), phase.throughput(), allLatencies, allServiceTimes);
+        return new LoadTestReport(settings.rate(), seconds, operations, overall);
+    }
+
+    static LoadTestReport read(Path file) throws IOException {
+        return JSON.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JSON.writeValue(file.toFile(), this);
+    }
+
+    /** Distribution complète des latences de chaque opération, au format .hgrm (HdrHistogram). */
+    static void writeDistributions(OpenModelLoadGenerator.Phase phase, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (OperationStats stats : phase.stats().values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(stats.name() + ".hgrm")))) {
+                stats.latency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Target rate %.0f/s over %.1f s (latencies in ms, corrected for coordinated omission)%n", targetRate, durationSeconds);
+        out.printf(Locale.ROOT, "%-8s %9s %7s %10s %8s %8s %8s %8s %8s %12s%n",
+                "op", "arrivals", "errors", "ok/s", "p50", "p90", "p99", "p99.9", "max", "service p99");
+        operations.forEach(summary -> print(out, summary));
+        print(out, overall);
+    }
+
+    private static void print(PrintStream out, Summary s) {
+        out.printf(Locale.ROOT, "%-8s %9d %7d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f %12.2f%n",
+                s.operation(), s.arrivals(), s.errors(), s.throughput(),
+                s.p50Millis(), s.p90Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis(), s.serviceTimeP99Millis());
+    }
+}
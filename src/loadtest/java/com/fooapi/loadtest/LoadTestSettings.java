@@ -0,0 +1,74 @@
+package com.fooapi.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Paramètres d'un tir, lus dans les propriétés système loadtest.* (transmises par le profil Maven loadtest,
+ * surchargeables par -Dloadtest.xxx=...). Durées au format des propriétés Spring : 30s, 100ms...
+ *
+ * @param rate               arrivées par seconde (modèle ouvert : indépendant des temps de réponse)
+ * @param poisson            arrivées selon un processus de Poisson (sinon à intervalle constant)
+ * @param createWeight       part relative des créations (POST /api/v1/foos)
+ * @param getWeight          part relative des lectures par id (GET /api/v1/foos/{id})
+ * @param listWeight         part relative des listes (GET /api/v1/foos?size=20)
+ * @param maxInFlight        requêtes simultanées au-delà desquelles une arrivée est comptée en échec (saturation)
+ * @param absoluteSlos       applique les seuils absolus (p99, débit, taux d'erreur) : désactivés par défaut, leurs valeurs
+ *                           supposent une machine de référence multicœur ; sinon seule la régression compte
+ * @param sloP99             p99 maximal, toutes opérations confondues, corrigé de l'omission coordonnée
+ * @param minThroughputRatio débit minimal, en fraction de rate
+ * @param maxErrorRate       taux d'erreur maximal, et hausse maximale du taux d'erreur par rapport à la référence
+ * @param baseline           résultats de référence (absent : le tir y est enregistré et devient la référence)
+ */
+record LoadTestSettings(double rate,
+                        Duration warmup,
+                        Duration duration,
+                        boolean poisson,
+                        int createWeight,
+                        int getWeight,
+                        int listWeight,
+                        int seedFoos,
+                        int maxInFlight,
+                        Duration requestTimeout,
+                        long randomSeed,
+                        boolean absoluteSlos,
+                        Duration sloP99,
+                        double minThroughputRatio,
+                        double maxErrorRate,
+                        Path baseline,
+                        double maxP99Regression,
+                        double maxThroughputRegression,
+                        boolean updateBaseline,
+                        Path outputDirectory) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Double.parseDouble(property("rate", "200")),
+                DurationStyle.detectAndParse(property("warmup", "10s")),
+                DurationStyle.detectAndParse(property("duration", "30s")),
+                Boolean.parseBoolean(property("poisson", "true")),
+                Integer.parseInt(property("mix.create", "20")),
+                Integer.parseInt(property("mix.get", "70")),
+                Integer.parseInt(property("mix.list", "10")),
+                Integer.parseInt(property("seed-foos", "1000")),
+                Integer.parseInt(property("max-in-flight", "512")),
+                DurationStyle.detectAndParse(property("request-timeout", "10s")),
+                Long.parseLong(property("random-seed", "42")),
+                Boolean.parseBoolean(property("slo.enabled", "false")),
+                DurationStyle.detectAndParse(property("slo.p99", "100ms")),
+                Double.parseDouble(property("slo.min-throughput-ratio", "0.95")),
+                Double.parseDouble(property("slo.max-error-rate", "0.001")),
+                Path.of(property("baseline", "src/loadtest/baseline.json")),
+                Double.parseDouble(property("max-p99-regression", "0.25")),
+                Double.parseDouble(property("max-throughput-regression", "0.05")),
+                Boolean.parseBoolean(property("update-baseline", "false")),
+                Path.of(property("output-directory", "target/loadtest")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,97 @@
+package com.fooapi.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur en modèle ouvert : les arrivées suivent un calendrier fixé à l'avance (rate par seconde, Poisson ou
+ * intervalle constant), sans attendre les réponses précédentes. Un serveur qui ralentit voit donc les requêtes
+ * s'accumuler, comme en production, au lieu de ralentir le client (modèle fermé).
+ * <p>
+ * La latence est mesurée depuis l'heure d'arrivée prévue : si le générateur prend du retard, ce retard est compté
+ * (correction de l'omission coordonnée). Au-delà de max-in-flight requêtes en cours, une arrivée est comptée en échec.
+ */
+final class OpenModelLoadGenerator {
+
+    /** Résultat d'une phase : elapsedNanos va de la première arrivée prévue à la dernière réponse. */
+    record Phase(Map<FooWorkload.Operation, OperationStats> stats, long elapsedNanos) {
+
+        long arrivals() {
+            return stats.values().stream().mapToLong(OperationStats::arrivals).sum();
+        }
+
+        long errors() {
+            return stats.values().stream().mapToLong(OperationStats::errors).sum();
+        }
+
+        /** Réponses attendues par seconde. */
+        double throughput() {
+            return stats.values().stream().mapToLong(OperationStats::successes).sum() / (elapsedNanos / 1e9);
+        }
+    }
+
+    private final HttpClient client;
+    private final FooWorkload workload;
+    private final LoadTestSettings settings;
+    private final Random random;
+
+    OpenModelLoadGenerator(HttpClient client, FooWorkload workload, LoadTestSettings settings) {
+        this.client = client;
+        this.workload = workload;
+        this.settings = settings;
+        this.random = new Random(settings.randomSeed());
+    }
+
+    Phase run(Duration duration) throws InterruptedException {
+        Map<FooWorkload.Operation, OperationStats> stats = new EnumMap<>(FooWorkload.Operation.class);
+        for (FooWorkload.Operation operation : FooWorkload.Operation.values()) {
+            stats.put(operation, new OperationStats(operation.name().toLowerCase()));
+        }
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        AtomicLong lastCompletion = new AtomicLong();
+        double meanIntervalNanos = 1e9 / settings.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        while (intended < end) {
+            long now = System.nanoTime();
+            if (intended > now) {
+                LockSupport.parkNanos(intended - now);
+            }
+            FooWorkload.Operation operation = workload.next(random);
+            HttpRequest request = workload.request(operation, random);
+            OperationStats operationStats = stats.get(operation);
+            if (!inFlight.tryAcquire()) {
+                operationStats.recordDropped();
+            } else {
+                long intendedStart = intended;
+                long sent = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                    long completed = System.nanoTime();
+                    operationStats.record(completed - intendedStart, completed - sent,
+                            failure == null && operation.isSuccess(response.statusCode()));
+                    lastCompletion.accumulateAndGet(completed, Math::max);
+                    inFlight.release();
+                });
+            }
+            intended += settings.poisson()
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos)
+                    : (long) meanIntervalNanos;
+        }
+        // Les requêtes en cours sont attendues : leur latence compte, même si elles finissent après la phase
+        long drainTimeout = settings.requestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+        if (!inFlight.tryAcquire(settings.maxInFlight(), drainTimeout, TimeUnit.NANOSECONDS)) {
+            throw new IllegalStateException("Requests still in flight " + Duration.ofNanos(drainTimeout) + " after the end of the run");
+        }
+        return new Phase(stats, Math.max(end, lastCompletion.get()) - start);
+    }
+}
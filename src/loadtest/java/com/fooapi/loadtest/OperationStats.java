@@ -0,0 +1,70 @@
+package com.fooapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences d'une opération, en microsecondes, dans deux histogrammes :
+ * <ul>
+ *   <li>latency : de l'heure d'arrivée prévue à la fin de la réponse. Une requête partie en retard (générateur
+ *   saturé, connexions épuisées) compte son attente : c'est la latence vue par un client réel, corrigée de
+ *   l'omission coordonnée ;</li>
+ *   <li>serviceTime : de l'envoi effectif à la fin de la réponse, pour comparaison. Un écart important entre les
+ *   deux signale que le générateur, et non le serveur, a pris du retard.</li>
+ * </ul>
+ */
+final class OperationStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    // Réponse inattendue ou échec d'envoi (délai dépassé, connexion refusée) : la latence est enregistrée aussi
+    void record(long latencyNanos, long serviceTimeNanos, boolean success) {
+        latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos)));
+        (success ? successes : failures).increment();
+    }
+
+    // Arrivée non envoyée (max-in-flight atteint) : échec, sans latence mesurable
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    Histogram serviceTime() {
+        return serviceTime;
+    }
+
+    long successes() {
+        return successes.sum();
+    }
+
+    /** Réponses inattendues, échecs d'envoi et arrivées non envoyées. */
+    long errors() {
+        return failures.sum() + dropped.sum();
+    }
+
+    long arrivals() {
+        return successes.sum() + errors();
+    }
+}
@@ -0,0 +1,64 @@
+package com.fooapi.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Seuils qui font échouer le tir : seuils absolus (p99, débit, taux d'erreur) si loadtest.slo.enabled=true et
+ * régression maximale du p99, du débit et du taux d'erreur par rapport à la référence. Sans référence, FooApiLoadIT
+ * enregistre le tir comme référence des suivants.
+ */
+final class SloGate {
+
+    private SloGate() {
+    }
+
+    /** @return les seuils dépassés, vide si le tir est conforme */
+    static List<String> violations(LoadTestSettings settings, LoadTestReport report, LoadTestReport baseline) {
+        List<String> violations = new ArrayList<>();
+        LoadTestReport.Summary overall = report.overall();
+        if (settings.absoluteSlos()) {
+            double p99Limit = settings.sloP99().toNanos() / 1e6;
+            if (overall.p99Millis() > p99Limit) {
+                violations.add(format("p99 %.2f ms exceeds the %.2f ms objective", overall.p99Millis(), p99Limit));
+            }
+            double minThroughput = settings.rate() * settings.minThroughputRatio();
+            if (overall.throughput() < minThroughput) {
+                violations.add(format("throughput %.1f/s is below %.1f/s (%.0f%% of the %.0f/s arrival rate)",
+                        overall.throughput(), minThroughput, settings.minThroughputRatio() * 100, settings.rate()));
+            }
+            if (errorRate(overall) > settings.maxErrorRate()) {
+                violations.add(format("error rate %.3f%% exceeds %.3f%%", errorRate(overall) * 100, settings.maxErrorRate() * 100));
+            }
+        }
+        if (baseline != null) {
+            LoadTestReport.Summary reference = baseline.overall();
+            double maxP99 = reference.p99Millis() * (1 + settings.maxP99Regression());
+            if (overall.p99Millis() > maxP99) {
+                violations.add(format("p99 %.2f ms regressed by more than %.0f%% from the baseline %.2f ms",
+                        overall.p99Millis(), settings.maxP99Regression() * 100, reference.p99Millis()));
+            }
+            // Comparaison de débit pertinente seulement à taux d'arrivée égal
+            double minBaselineThroughput = reference.throughput() * (1 - settings.maxThroughputRegression());
+            if (baseline.targetRate() == report.targetRate() && overall.throughput() < minBaselineThroughput) {
+                violations.add(format("throughput %.1f/s regressed by more than %.0f%% from the baseline %.1f/s",
+                        overall.throughput(), settings.maxThroughputRegression() * 100, reference.throughput()));
+            }
+            double maxBaselineErrorRate = errorRate(reference) + settings.maxErrorRate();
+            if (errorRate(overall) > maxBaselineErrorRate) {
+                violations.add(format("error rate %.3f%% exceeds the baseline %.3f%% by more than %.3f%%",
+                        errorRate(overall) * 100, errorRate(reference) * 100, settings.maxErrorRate() * 100));
+            }
+        }
+        return violations;
+    }
+
+    private static double errorRate(LoadTestReport.Summary summary) {
+        return summary.arrivals() == 0 ? 0 : (double) summary.errors() / summary.arrivals();
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.ROOT, format, args);
+    }
+}
@@ -1,7 +1,13 @@
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+// Classe dans le package par défaut : les packages à scanner doivent être listés explicitement,
+// sinon @SpringBootApplication parcourt tout le classpath (y compris les jars Spring)
+@SpringBootApplication(scanBasePackages = {"config", "controller", "diagnostics", "exception", "mapper", "metrics", "service"})
+@EnableJpaRepositories(basePackages = "repository")
+@EntityScan(basePackages = "entity")
 public class FooApiApplication {
     public static void main(String[] args) {
         SpringApplication.run(FooApiApplication.class, args);
@@ -0,0 +1,33 @@
+package config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import service.cache.coherence.FooInvalidationTransport;
+import service.cache.coherence.LoopbackFooInvalidationTransport;
+import service.cache.coherence.MulticastFooInvalidationTransport;
+
+import java.io.IOException;
+
+// Transport des invalidations de cache entre instances (foo.cache.coherence.transport) ; sans transport (none),
+// le cache de chaque instance ne voit que ses propres écritures, dans la limite de foo.cache.ttl
+@Configuration
+public class CacheCoherenceConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.cache.coherence.transport", havingValue = "multicast")
+    public FooInvalidationTransport multicastFooInvalidationTransport(
+            @Value("${foo.cache.coherence.multicast.group:239.255.70.79}") String group,
+            @Value("${foo.cache.coherence.multicast.port:45679}") int port,
+            @Value("${foo.cache.coherence.multicast.interface:}") String networkInterface,
+            @Value("${foo.cache.coherence.multicast.ttl:1}") int timeToLive) throws IOException {
+        return new MulticastFooInvalidationTransport(group, port, networkInterface, timeToLive);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.cache.coherence.transport", havingValue = "loopback")
+    public FooInvalidationTransport loopbackFooInvalidationTransport() {
+        return new LoopbackFooInvalidationTransport(new LoopbackFooInvalidationTransport.Group());
+    }
+}
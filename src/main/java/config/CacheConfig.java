@@ -0,0 +1,43 @@
+package config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import service.cache.CaffeineFooCache;
+import service.cache.FooCache;
+import service.cache.NoOpFooCache;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Value("${foo.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${foo.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${foo.cache.negative-maximum-size:10000}")
+    private long negativeMaximumSize;
+
+    @Value("${foo.cache.negative-ttl:5s}") // Court : un id absent peut être créé à tout moment
+    private Duration negativeTtl;
+
+    @Value("${foo.cache.name-maximum-size:10000}")
+    private long nameMaximumSize;
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public FooCache caffeineFooCache(MeterRegistry meterRegistry) {
+        return new CaffeineFooCache(maximumSize, ttl, negativeMaximumSize, negativeTtl, nameMaximumSize, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.cache.type", havingValue = "none")
+    public FooCache noOpFooCache() {
+        return new NoOpFooCache();
+    }
+}
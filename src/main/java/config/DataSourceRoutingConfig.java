@@ -0,0 +1,69 @@
+package config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import datasource.ReadYourWritesFilter;
+import datasource.ReplicaAwareDataSource;
+import datasource.ReplicaPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Actif uniquement si des réplicas sont déclarés (foo.datasource.replica.urls) ; sinon la DataSource
+// de Spring Boot (spring.datasource.*) reste utilisée telle quelle
+@Configuration
+@ConditionalOnProperty(name = "foo.datasource.replica.urls")
+public class DataSourceRoutingConfig {
+
+    // Primaire et réplicas partagent les réglages Hikari (spring.datasource.hikari.*)
+    @Bean
+    public ReplicaAwareDataSource dataSource(DataSourceProperties properties,
+                                             Environment environment,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${foo.datasource.replica.urls}") List<String> replicaUrls,
+                                             @Value("${foo.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                             @Value("${foo.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                             @Value("${foo.datasource.replica.balancing:round-robin}") ReplicaPool.Balancing balancing,
+                                             @Value("${foo.datasource.replica.max-lag:1s}") Duration maxLag,
+                                             @Value("${foo.datasource.replica.lag-query:}") String lagQuery,
+                                             @Value("${foo.datasource.replica.health-check-interval:2s}") Duration healthCheckInterval) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("foo-primary");
+
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("foo-replica-" + i);
+            replica.setReadOnly(true);
+            // Le primaire est instrumenté par Spring Boot (hikaricp.*) ; les réplicas, absents du contexte, le sont ici
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaAwareDataSource(primary,
+                new ReplicaPool(primary, replicas, balancing, maxLag, lagQuery, healthCheckInterval, meterRegistry));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${foo.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
@@ -0,0 +1,36 @@
+package config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import service.concurrency.DbConcurrencyLimiter;
+
+/**
+ * Applique DbConcurrencyLimiter aux appels de FooService, avant l'ouverture de la transaction
+ * (et donc avant l'emprunt d'une connexion au pool). Les méthodes @LimitsOwnDbAccess (lectures servies par le
+ * cache) prennent elles-mêmes un permis autour de leurs seuls accès base ; les exports ont leur propre budget.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DbConcurrencyLimiterAspect {
+
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    @Around("execution(public * service.FooService+.*(..))"
+            + " && !execution(* service.FooService+.exportFoos(..))"
+            + " && !@annotation(service.concurrency.LimitsOwnDbAccess)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        return dbConcurrencyLimiter.call(joinPoint::proceed);
+    }
+
+    @Around("execution(public * service.FooService+.exportFoos(..))")
+    public Object limitExport(ProceedingJoinPoint joinPoint) throws Throwable {
+        return dbConcurrencyLimiter.callExport(joinPoint::proceed);
+    }
+}
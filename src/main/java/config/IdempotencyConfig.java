@@ -0,0 +1,39 @@
+package config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+import service.idempotency.IdempotencyStore;
+import service.idempotency.InMemoryIdempotencyStore;
+import service.idempotency.JdbcIdempotencyStore;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// Stockage des clés d'idempotence (foo.idempotency.store) : memory pour une instance seule, jdbc (table
+// idempotency_keys) quand plusieurs instances servent les mêmes clients
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${foo.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(MeterRegistry meterRegistry,
+                                                     @Value("${foo.idempotency.memory-maximum-size:64MB}") DataSize maximumSize) {
+        return new InMemoryIdempotencyStore(ttl, maximumSize.toBytes(), meterRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "foo.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                                 @Value("${foo.idempotency.in-flight-lease:1m}") Duration inFlightLease,
+                                                 @Value("${foo.idempotency.purge-interval:10m}") Duration purgeInterval) {
+        return new JdbcIdempotencyStore(jdbcTemplate, ttl, inFlightLease, purgeInterval, Clock.systemUTC());
+    }
+}
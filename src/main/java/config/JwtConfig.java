@@ -0,0 +1,55 @@
+package config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import security.JwkSetSource;
+import security.JwtAuthenticationFilter;
+import security.JwtVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty("foo.security.jwt.jwk-set-uri")
+public class JwtConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public JwkSetSource jwkSetSource(@Value("${foo.security.jwt.jwk-set-uri}") String jwkSetUri,
+                                     @Value("${foo.security.jwt.jwk-refresh-interval:10m}") Duration refreshInterval,
+                                     @Value("${foo.security.jwt.jwk-min-refresh-interval:30s}") Duration minRefreshInterval) {
+        return new JwkSetSource(jwkSetUri, refreshInterval, minRefreshInterval);
+    }
+
+    @Bean
+    public JwtVerifier jwtVerifier(JwkSetSource jwkSetSource,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${foo.security.jwt.issuer:}") String issuer,
+                                   @Value("${foo.security.jwt.audience:}") String audience,
+                                   @Value("${foo.security.jwt.roles-claim:roles}") String rolesClaim,
+                                   @Value("${foo.security.jwt.clock-skew:30s}") Duration clockSkew,
+                                   @Value("${foo.security.jwt.cache-maximum-size:100000}") long cacheMaximumSize) {
+        return new JwtVerifier(jwkSetSource, issuer, audience, rolesClaim, clockSkew, cacheMaximumSize,
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        return new JwtAuthenticationFilter(jwtVerifier, handlerExceptionResolver);
+    }
+
+    // Le filtre s'exécute dans la chaîne Spring Security (SecurityConfig) :
+    // pas d'enregistrement supplémentaire dans le conteneur de servlets
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter jwtAuthenticationFilter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
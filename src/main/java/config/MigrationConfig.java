@@ -0,0 +1,18 @@
+package config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import service.migration.BackfillGatedMigrationStrategy;
+
+import java.util.Map;
+
+// Migrations appliquées seulement après leur rattrapage : V11 (foos.version NOT NULL) après FooVersionBackfill
+@Configuration
+public class MigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return new BackfillGatedMigrationStrategy(Map.of("11", "foos.version"));
+    }
+}
@@ -0,0 +1,33 @@
+package config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import service.outbox.FooChangeSink;
+import service.outbox.InMemoryFooChangeSink;
+import service.outbox.NdjsonFileFooChangeSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Destination des modifications publiées par FooOutboxRelay (foo.outbox.sink) ; sans sink, elles ne sont
+// diffusées que par GET /api/v1/foos/changes
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.outbox.sink", havingValue = "file")
+    public FooChangeSink ndjsonFileFooChangeSink(ObjectMapper objectMapper,
+                                                 @Value("${foo.outbox.sink-file:data/outbox/foo-changes.ndjson}") Path file,
+                                                 @Value("${foo.outbox.sink-fsync:false}") boolean fsync) throws IOException {
+        return new NdjsonFileFooChangeSink(file, objectMapper, fsync);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "foo.outbox.sink", havingValue = "memory")
+    public FooChangeSink inMemoryFooChangeSink(@Value("${foo.outbox.sink-memory-size:10000}") int maximumSize) {
+        return new InMemoryFooChangeSink(maximumSize);
+    }
+}
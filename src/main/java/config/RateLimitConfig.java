@@ -0,0 +1,47 @@
+package config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import ratelimit.AdaptiveConcurrencyLimiter;
+import ratelimit.GcraRateLimiter;
+import ratelimit.RateLimitFilter;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "foo.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(@Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${foo.ratelimit.requests-per-second:50}") double requestsPerSecond,
+                                           @Value("${foo.ratelimit.burst:100}") int burst,
+                                           @Value("${foo.ratelimit.maximum-principals:100000}") long maximumPrincipals,
+                                           @Value("${foo.ratelimit.concurrency.initial-limit:50}") int initialLimit,
+                                           @Value("${foo.ratelimit.concurrency.min-limit:5}") int minLimit,
+                                           @Value("${foo.ratelimit.concurrency.max-limit:500}") int maxLimit,
+                                           @Value("${foo.ratelimit.concurrency.latency-threshold:250ms}") Duration latencyThreshold,
+                                           @Value("${foo.ratelimit.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        return new RateLimitFilter(
+                new GcraRateLimiter(requestsPerSecond, burst, maximumPrincipals),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio),
+                handlerExceptionResolver,
+                meterRegistry);
+    }
+
+    // Le filtre s'exécute dans la chaîne Spring Security (SecurityConfig), après l'authentification :
+    // pas d'enregistrement supplémentaire dans le conteneur de servlets
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
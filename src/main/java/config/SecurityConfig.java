@@ -1,5 +1,6 @@
 package config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,14 +12,16 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ratelimit.RateLimitFilter;
+import security.JwtAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true) // Pour @PreAuthorize, @PostAuthorize
 public class SecurityConfig {
 
-    // @Autowired private JwtAuthenticationFilter jwtAuthenticationFilter; // Injectez votre filtre
-
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -30,7 +33,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectProvider<JwtAuthenticationFilter> jwtAuthenticationFilter,
+                                           ObjectProvider<RateLimitFilter> rateLimitFilter) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // Désactiver CSRF pour les API stateless (JWT)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -40,7 +44,11 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/foos/**").hasAnyRole("USER", "ADMIN") // Exemple de protection
                         .anyRequest().authenticated()
                 );
-        // .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class); // Ajouter votre filtre JWT
+        // Authentification par jeton Bearer (JwtConfig, si foo.security.jwt.jwk-set-uri est défini)
+        jwtAuthenticationFilter.ifAvailable(filter -> http.addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class));
+        // Limites de débit et de concurrence (RateLimitConfig) : après l'autorisation, le principal est connu
+        // et les requêtes refusées par la sécurité ne consomment pas de quota
+        rateLimitFilter.ifAvailable(filter -> http.addFilterAfter(filter, AuthorizationFilter.class));
 
         return http.build();
     }
@@ -0,0 +1,26 @@
+package config;
+
+import diagnostics.VirtualThreadPinningMonitor;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import service.async.FooWriteBehindWriter;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class StartupConfig {
+
+    // Beans toujours créés au démarrage, même avec spring.main.lazy-initialization=true (profil fast-start) :
+    // la connexion base et Hibernate pour ne pas faire payer leur démarrage à la première requête,
+    // le rejeu du journal des créations asynchrones et la surveillance des threads virtuels
+    @Bean
+    static LazyInitializationExcludeFilter eagerInfrastructureBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class,
+                EntityManagerFactory.class,
+                FooWriteBehindWriter.class,
+                VirtualThreadPinningMonitor.class);
+    }
+}
@@ -16,10 +16,10 @@ public class WebConfig {
     @Value("${cors.allowedMethods:GET,POST,PUT,DELETE,OPTIONS,PATCH}")
     private String[] allowedMethods;
 
-    @Value("${cors.allowedHeaders:Origin,Content-Type,Accept,Authorization,X-Requested-With}")
+    @Value("${cors.allowedHeaders:Origin,Content-Type,Accept,Authorization,X-Requested-With,If-Match,If-None-Match,Prefer,Idempotency-Key}")
     private String[] allowedHeaders;
 
-    @Value("${cors.exposedHeaders:Content-Disposition}") // Exemple: si vous exposez des headers spécifiques
+    @Value("${cors.exposedHeaders:Content-Disposition,ETag,Preference-Applied,Idempotent-Replayed}") // Exemple: si vous exposez des headers spécifiques
     private String[] exposedHeaders;
 
     @Value("${cors.allowCredentials:true}")
@@ -1,37 +1,255 @@
 package controller;
 
+import dto.ExportFormat;
+import dto.FooAsyncCreateStatusDTO;
+import dto.FooBatchResponseDTO;
+import dto.FooIdsRequestDTO;
+import dto.FooMultiGetResponseDTO;
+import dto.FooPageResponseDTO;
+import dto.FooPatchRequestDTO;
 import dto.FooRequestDTO;
 import dto.FooResponseDTO;
+import dto.FooSearchHitDTO;
+import exception.BadRequestException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import service.FooAsyncCreateService;
 import service.FooService;
+import service.idempotency.IdempotencyGuard;
+import service.outbox.FooChangeFeed;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/foos")
 @RequiredArgsConstructor
+@Slf4j
 @Tag(name = "Foo Management", description = "APIs for managing Foo resources")
 public class FooController {
 
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
     private final FooService fooService;
+    private final FooAsyncCreateService fooAsyncCreateService;
+    private final FooChangeFeed fooChangeFeed;
+    private final IdempotencyGuard idempotencyGuard;
 
-    @Operation(summary = "Create a new Foo")
+    @Operation(summary = "Create a new Foo", description = "With an Idempotency-Key header, a retried request returns the original response instead of creating another Foo")
     @PostMapping
-    public ResponseEntity<FooResponseDTO> createFoo(@Valid @RequestBody FooRequestDTO fooRequestDTO) {
-        FooResponseDTO createdFoo = fooService.createFoo(fooRequestDTO);
-        return new ResponseEntity<>(createdFoo, HttpStatus.CREATED);
+    public ResponseEntity<FooResponseDTO> createFoo(@Valid @RequestBody FooRequestDTO fooRequestDTO,
+                                                    @RequestHeader(value = IdempotencyGuard.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyGuard.execute(idempotencyKey, "createFoo", fooRequestDTO, FooResponseDTO.class,
+                () -> new ResponseEntity<>(fooService.createFoo(fooRequestDTO), HttpStatus.CREATED));
     }
 
-    @Operation(summary = "Get a Foo by its ID")
+    @Operation(summary = "Create a new Foo asynchronously", description = "Returns 202 with a tracking id once the request is durably logged; the Foo is written to the database in the background")
+    @PostMapping(params = "async=true")
+    public ResponseEntity<FooAsyncCreateStatusDTO> createFooAsync(@Valid @RequestBody FooRequestDTO fooRequestDTO,
+                                                                  @RequestHeader(value = IdempotencyGuard.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // Une répétition rend le même trackingId : le statut courant se lit ensuite sur /async/{trackingId}
+        return idempotencyGuard.execute(idempotencyKey, "createFooAsync", fooRequestDTO, FooAsyncCreateStatusDTO.class, () -> {
+            FooAsyncCreateStatusDTO status = fooAsyncCreateService.submitFoo(fooRequestDTO);
+            URI statusLocation = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .replaceQuery(null)
+                    .path("/async/{trackingId}")
+                    .buildAndExpand(status.trackingId())
+                    .toUri();
+            return ResponseEntity.accepted().location(statusLocation).body(status);
+        });
+    }
+
+    @Operation(summary = "Get the status of an asynchronous Foo creation", description = "PENDING until the Foo is written to the database, then COMMITTED or FAILED")
+    @GetMapping("/async/{trackingId}")
+    public ResponseEntity<FooAsyncCreateStatusDTO> getAsyncCreateStatus(@PathVariable UUID trackingId) {
+        return ResponseEntity.ok(fooAsyncCreateService.getStatus(trackingId));
+    }
+
+    @Operation(summary = "Create Foos in bulk", description = "Each item is validated individually; valid items are inserted in chunked JDBC batches")
+    @PostMapping("/batch")
+    public ResponseEntity<FooBatchResponseDTO> createFoos(@RequestBody List<FooRequestDTO> fooRequestDTOs,
+                                                          @RequestHeader(value = IdempotencyGuard.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotencyGuard.execute(idempotencyKey, "createFoos", fooRequestDTOs, FooBatchResponseDTO.class, () -> {
+            FooBatchResponseDTO result = fooService.createFoos(fooRequestDTOs);
+            // 207 si au moins un élément a échoué, le détail est dans "results"
+            HttpStatus status = result.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+            return new ResponseEntity<>(result, status);
+        });
+    }
+
+    @Operation(summary = "Get a Foo by its ID", description = "Returns a strong ETag per negotiated format (\"<version>\" for JSON, \"<version>-cbor\", \"<version>-smile\"); If-None-Match with the current ETag yields 304 without loading the Foo")
     @GetMapping("/{id}")
-    public ResponseEntity<FooResponseDTO> getFooById(@PathVariable Long id) {
+    public ResponseEntity<FooResponseDTO> getFooById(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                     WebRequest request,
+                                                     HttpServletResponse response) {
+        FooETags.Representation representation = FooETags.negotiate(accept);
+        // Sur la réponse elle-même : elle vaut aussi pour le 304
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // GET conditionnel : seule la version est lue (cache ou colonne version), sans charger ni sérialiser le Foo
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(FooETags.of(fooService.getFooVersion(id), representation))) {
+            return null; // 304 Not Modified, en-tête ETag déjà positionné
+        }
         FooResponseDTO foo = fooService.getFooById(id);
-        return ResponseEntity.ok(foo);
+        return ResponseEntity.ok()
+                .eTag(FooETags.of(foo.version(), representation))
+                .body(foo);
     }
 
-    // ... autres endpoints (getAll, update, delete)
+    @Operation(summary = "Get several Foos by their IDs", description = "Foos are returned in request order; unknown IDs are listed in missingIds instead of failing the request")
+    @GetMapping(params = "ids")
+    public ResponseEntity<FooMultiGetResponseDTO> getFoosByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(fooService.getFoosByIds(ids));
+    }
+
+    @Operation(summary = "Get several Foos by their IDs (request body)", description = "Same as GET ?ids= for ID lists too long for a URL")
+    @PostMapping("/lookup")
+    public ResponseEntity<FooMultiGetResponseDTO> lookupFoosByIds(@Valid @RequestBody FooIdsRequestDTO fooIdsRequestDTO) {
+        return ResponseEntity.ok(fooService.getFoosByIds(fooIdsRequestDTO.ids()));
+    }
+
+    @Operation(summary = "Get a Foo by its name", description = "Exact match by default, ignoreCase=true for a case-insensitive match; the Foo with the lowest ID wins when several share the name")
+    @GetMapping("/by-name/{name}")
+    public ResponseEntity<FooResponseDTO> getFooByName(@PathVariable String name,
+                                                       @RequestParam(defaultValue = "false") boolean ignoreCase) {
+        return ResponseEntity.ok(fooService.getFooByName(name, ignoreCase));
+    }
+
+    @Operation(summary = "Find Foos by name prefix", description = "Case-insensitive prefix match on the indexed name, ordered by name")
+    @GetMapping("/by-name")
+    public ResponseEntity<List<FooResponseDTO>> findFoosByNamePrefix(@RequestParam String prefix,
+                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(fooService.findFoosByNamePrefix(prefix, size));
+    }
+
+    @Operation(summary = "Search Foos by name", description = "Names containing q (case-insensitive, at least 3 characters) first, "
+            + "then names similar to q by trigram similarity; answered from an in-memory index, 503 while it is loading")
+    @GetMapping("/search")
+    public ResponseEntity<List<FooSearchHitDTO>> searchFoos(@RequestParam String q,
+                                                            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(fooService.searchFoos(q, size));
+    }
+
+    @Operation(summary = "Stream Foo changes", description = "Server-Sent Events, one 'foo-change' event per created, updated or deleted Foo, "
+            + "in seq order: changes after since (or Last-Event-ID on reconnection), then new ones as they are committed. "
+            + "Without since, only new changes. 410 if changes after since have already been purged")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFooChanges(@RequestParam(required = false) Long since,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return fooChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @Operation(summary = "List Foos", description = "Keyset pagination ordered by id: pass the returned nextCursor to fetch the next page")
+    @GetMapping
+    public ResponseEntity<FooPageResponseDTO> listFoos(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestParam(required = false) String namePrefix) {
+        return ResponseEntity.ok(fooService.listFoos(cursor, size, namePrefix));
+    }
+
+    @Operation(summary = "Export all Foos", description = "Streams every Foo as NDJSON (default), CSV, CBOR sequence or Smile with constant memory; format=ndjson|csv|cbor|smile, or the Accept header when format is absent")
+    @GetMapping("/export")
+    public void exportFoos(@RequestParam(required = false) String format,
+                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                           HttpServletResponse response) {
+        ExportFormat exportFormat = format != null ? ExportFormat.fromExtension(format) : negotiateExportFormat(accept);
+        if (exportFormat == null) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+        response.setContentType(exportFormat.mediaType());
+        if (exportFormat.isText()) {
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"foos." + exportFormat.extension() + "\"");
+        try {
+            fooService.exportFoos(exportFormat, response.getOutputStream());
+        } catch (IOException ex) {
+            // Le client a fermé la connexion : la requête et le curseur base ont déjà été libérés
+            log.info("Foo export aborted by client: {}", ex.getMessage());
+        }
+    }
+
+    // Premier type de l'en-tête Accept (par qualité décroissante) produit par l'export ; NDJSON par défaut
+    private static ExportFormat negotiateExportFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return ExportFormat.NDJSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            throw new BadRequestException("Invalid Accept header: " + accept, ex);
+        }
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        return mediaTypes.stream()
+                .map(mediaType -> ExportFormat.fromMediaType(mediaType.getType() + "/" + mediaType.getSubtype()))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(ExportFormat.NDJSON);
+    }
+
+    @Operation(summary = "Replace a Foo", description = "Single UPDATE statement, no prior read; If-Match with the current ETag makes it conditional (412 on mismatch). Prefer: return=minimal yields 204 with the new ETag only")
+    @PutMapping("/{id}")
+    public ResponseEntity<FooResponseDTO> updateFoo(@PathVariable Long id,
+                                                    @Valid @RequestBody FooRequestDTO fooRequestDTO,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestHeader(value = PREFER, required = false) String prefer,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return written(fooService.updateFoo(id, fooRequestDTO, FooETags.parseIfMatch(ifMatch)), prefer, accept);
+    }
+
+    @Operation(summary = "Partially update a Foo", description = "Only the fields present in the body are written, in a single UPDATE statement; If-Match and Prefer as for PUT")
+    @PatchMapping("/{id}")
+    public ResponseEntity<FooResponseDTO> patchFoo(@PathVariable Long id,
+                                                   @Valid @RequestBody FooPatchRequestDTO fooPatchRequestDTO,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestHeader(value = PREFER, required = false) String prefer,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return written(fooService.patchFoo(id, fooPatchRequestDTO, FooETags.parseIfMatch(ifMatch)), prefer, accept);
+    }
+
+    @Operation(summary = "Delete a Foo", description = "Single DELETE statement; If-Match with the current ETag makes it conditional (412 on mismatch)")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteFoo(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        fooService.deleteFoo(id, FooETags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
+
+    // Prefer: return=minimal (RFC 7240) : le client n'a besoin que du nouvel ETag, le corps n'est pas sérialisé.
+    // ETag de la représentation que le client accepte, celle qu'il relira par GET
+    private static ResponseEntity<FooResponseDTO> written(FooResponseDTO foo, String prefer, String accept) {
+        String eTag = FooETags.of(foo.version(), FooETags.negotiate(accept));
+        if (prefer != null && prefer.contains(RETURN_MINIMAL)) {
+            return ResponseEntity.noContent()
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(foo);
+    }
 }
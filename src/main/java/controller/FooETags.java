@@ -0,0 +1,91 @@
+package controller;
+
+import exception.BadRequestException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * ETag fort d'une ressource Foo, dérivé de sa colonne @Version : "&lt;version&gt;" en JSON, "&lt;version&gt;-cbor" et
+ * "&lt;version&gt;-smile" pour les représentations binaires (BinaryFormatsConfig). Un ETag fort désigne une suite
+ * d'octets précise : chaque représentation négociée a donc le sien, et les réponses portent Vary: Accept.
+ * Les ids étant issus d'une séquence et jamais réutilisés, la version suffit à identifier le Foo.
+ */
+final class FooETags {
+
+    /** Représentations d'un Foo, dans l'ordre de préférence des convertisseurs (JSON par défaut). */
+    enum Representation {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+        SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+
+        private final MediaType mediaType;
+        private final String suffix;
+
+        Representation(MediaType mediaType, String suffix) {
+            this.mediaType = mediaType;
+            this.suffix = suffix;
+        }
+    }
+
+    private FooETags() {
+    }
+
+    static String of(Long version, Representation representation) {
+        return version == null ? null : "\"" + version + representation.suffix + "\"";
+    }
+
+    /**
+     * Représentation retenue pour un en-tête Accept, comme la négociation de Spring MVC : premier type acceptable
+     * (qualité puis précision décroissantes) qu'un convertisseur produit. JSON si l'en-tête est absent ou illisible.
+     */
+    static Representation negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Representation.JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return Representation.JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType mediaType : acceptable) {
+            for (Representation representation : Representation.values()) {
+                if (mediaType.getQualityValue() > 0 && mediaType.includes(representation.mediaType)) {
+                    return representation;
+                }
+            }
+        }
+        return Representation.JSON;
+    }
+
+    /**
+     * Version attendue par un en-tête If-Match (mises à jour conditionnelles), quelle que soit la représentation
+     * dont l'ETag provient. Retourne null si l'en-tête est absent ou vaut "*" ; les ETags faibles sont refusés
+     * (RFC 9110, comparaison forte).
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || etag.charAt(0) != '"' || etag.charAt(etag.length() - 1) != '"') {
+            throw new BadRequestException("If-Match must be a single strong ETag, got: " + ifMatch);
+        }
+        String value = etag.substring(1, etag.length() - 1);
+        for (Representation representation : Representation.values()) {
+            if (!representation.suffix.isEmpty() && value.endsWith(representation.suffix)) {
+                value = value.substring(0, value.length() - representation.suffix.length());
+                break;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("If-Match must be a single strong ETag, got: " + ifMatch, ex);
+        }
+    }
+}
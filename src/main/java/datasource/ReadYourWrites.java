@@ -0,0 +1,25 @@
+package datasource;
+
+/**
+ * Indique que la requête en cours doit lire sur le primaire : le client vient d'écrire
+ * et un réplica pourrait ne pas encore avoir reçu cette écriture (voir ReadYourWritesFilter).
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,43 @@
+package datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+
+/**
+ * DataSource de l'application lorsque des réplicas sont configurés : la connexion n'est obtenue qu'à la première
+ * instruction SQL, une fois connu le caractère lecture seule de la transaction (@Transactional(readOnly = true),
+ * méthodes de lecture des repositories). Les transactions en lecture seule sont servies par ReplicaPool,
+ * les autres par le primaire.
+ */
+@Slf4j
+public class ReplicaAwareDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final DataSource primary;
+    private final ReplicaPool replicaPool;
+
+    public ReplicaAwareDataSource(DataSource primary, ReplicaPool replicaPool) {
+        super(primary);
+        setReadOnlyDataSource(replicaPool);
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+    }
+
+    public ReplicaPool replicaPool() {
+        return replicaPool;
+    }
+
+    @Override
+    public void close() {
+        replicaPool.close();
+        if (primary instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                log.warn("Failed to close primary DataSource: {}", ex.getMessage());
+            }
+        }
+    }
+}
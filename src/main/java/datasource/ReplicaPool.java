@@ -0,0 +1,223 @@
+package datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source des connexions des transactions en lecture seule (LazyConnectionDataSourceProxy.setReadOnlyDataSource) :
+ * répartit les lectures entre les réplicas sains, à tour de rôle ou vers le plus rapide (latence moyenne mobile
+ * des connexions et des contrôles de santé). Un réplica est écarté tant que son retard dépasse maxLag ou qu'il
+ * ne répond pas, et réintégré dès le contrôle suivant réussi.
+ * Les lectures se font sur le primaire si aucun réplica n'est disponible ou si le client vient d'écrire (ReadYourWrites).
+ * Le retard est mesuré par lagQuery, obligatoire : sans mesure, rien ne borne l'âge d'une lecture (staleReadBound).
+ */
+@Slf4j
+public class ReplicaPool extends AbstractDataSource implements Closeable {
+
+    public enum Balancing { ROUND_ROBIN, LEAST_LATENCY }
+
+    // Poids de la dernière mesure dans la latence moyenne d'un réplica
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+        private volatile double latencyNanos;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        // Mise à jour concurrente sans verrou : une mesure perdue ne fausse pas la moyenne
+        private void recordLatency(long nanos) {
+            latencyNanos = latencyNanos == 0 ? nanos : latencyNanos + LATENCY_WEIGHT * (nanos - latencyNanos);
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Balancing balancing;
+    private final Duration maxLag;
+    private final Duration healthCheckInterval;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaPool(DataSource primary, List<DataSource> replicaDataSources, Balancing balancing,
+                       Duration maxLag, String lagQuery, Duration healthCheckInterval, MeterRegistry meterRegistry) {
+        if (!replicaDataSources.isEmpty() && !StringUtils.hasText(lagQuery)) {
+            throw new IllegalArgumentException("foo.datasource.replica.lag-query is required with read replicas: "
+                    + "without it replication lag is never measured and replica reads have no staleness bound");
+        }
+        this.primary = primary;
+        this.balancing = balancing;
+        this.maxLag = maxLag;
+        this.healthCheckInterval = healthCheckInterval;
+        this.lagQuery = lagQuery;
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            Gauge.builder("foo.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 if the replica receives read-only transactions, 0 if it is ejected")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("foo.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag measured by the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.primaryReads = reads(meterRegistry, "primary");
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("foo-replica-health").daemon().factory());
+        if (!healthCheckInterval.isZero()) {
+            long intervalMillis = healthCheckInterval.toMillis();
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    // Mêmes identifiants transmis au réplica choisi ou, à défaut, au primaire
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /** Contrôle de santé de tous les réplicas, exécuté périodiquement (foo.datasource.replica.health-check-interval). */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            long start = System.nanoTime();
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                double lagSeconds = Double.NaN;
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (resultSet.next()) {
+                        double measured = resultSet.getDouble(1);
+                        lagSeconds = resultSet.wasNull() ? Double.NaN : measured;
+                    }
+                }
+                // Pas de mesure (table de heartbeat vide, réplication arrêtée...) : retard inconnu, réplica écarté
+                if (Double.isNaN(lagSeconds)) {
+                    throw new SQLException("Replication lag query returned no value");
+                }
+                replica.recordLatency(System.nanoTime() - start);
+                replica.lagSeconds = lagSeconds;
+                if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    eject(replica, "replication lag of " + lagSeconds + "s");
+                } else if (!replica.healthy) {
+                    log.info("Replica {} is healthy again, resuming reads", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException | RuntimeException ex) {
+                eject(replica, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Retard maximal d'une lecture sur réplica : un réplica n'est écarté qu'au contrôle de santé
+     * suivant le dépassement de maxLag.
+     */
+    public Duration staleReadBound() {
+        return maxLag.plus(healthCheckInterval);
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close {}: {}", replica.name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private Connection connect(ConnectionOpener opener) throws SQLException {
+        Replica replica = ReadYourWrites.isPrimaryRequired() ? null : choose();
+        if (replica != null) {
+            long start = System.nanoTime();
+            try {
+                Connection connection = opener.open(replica.dataSource);
+                replica.recordLatency(System.nanoTime() - start);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException ex) {
+                eject(replica, ex.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return opener.open(primary);
+    }
+
+    private Replica choose() {
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (balancing == Balancing.LEAST_LATENCY) {
+            Replica fastest = healthy.get(0);
+            for (Replica replica : healthy) {
+                if (replica.latencyNanos < fastest.latencyNanos) {
+                    fastest = replica;
+                }
+            }
+            return fastest;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Ejecting replica {} from read traffic: {}", replica.name, reason);
+            replica.healthy = false;
+        }
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("foo.datasource.reads")
+                .description("Connections obtained for read-only transactions, by target")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compte les épinglages de threads virtuels sur leur carrier (événement JFR jdk.VirtualThreadPinned),
+ * c'est-à-dire les blocages qui immobilisent un thread plateforme. Actif uniquement en mode virtuel.
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private final boolean virtualThreadsEnabled;
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private final AtomicReference<String> lastPinnedFrame = new AtomicReference<>();
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                       @Value("${foo.diagnostics.pinning-threshold:20ms}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder("foo.virtualthreads.pinned")
+                .description("Virtual thread pinning events longer than the configured threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {})", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        pinnedCounter.increment();
+        if (event.getStackTrace() != null) {
+            event.getStackTrace().getFrames().stream()
+                    .filter(RecordedFrame::isJavaFrame)
+                    .filter(frame -> !frame.getMethod().getType().getName().startsWith("java."))
+                    .findFirst()
+                    .ifPresent(frame -> lastPinnedFrame.set(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()));
+        }
+    }
+
+    public boolean isActive() {
+        return recordingStream != null;
+    }
+
+    public long pinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    public Duration pinnedTime() {
+        return Duration.ofNanos(pinnedNanos.get());
+    }
+
+    public String lastPinnedFrame() {
+        return lastPinnedFrame.get();
+    }
+}
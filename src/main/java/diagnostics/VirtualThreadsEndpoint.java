@@ -0,0 +1,46 @@
+package diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import service.concurrency.DbConcurrencyLimiter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/virtualthreads : mode d'exécution, épinglages observés et état du limiteur base de données.
+ */
+@Component
+@Endpoint(id = "virtualthreads")
+@RequiredArgsConstructor
+public class VirtualThreadsEndpoint {
+
+    private final VirtualThreadPinningMonitor pinningMonitor;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @ReadOperation
+    public Map<String, Object> virtualThreads() {
+        Map<String, Object> pinning = new LinkedHashMap<>();
+        pinning.put("monitored", pinningMonitor.isActive());
+        pinning.put("events", pinningMonitor.pinnedEvents());
+        pinning.put("totalMillis", pinningMonitor.pinnedTime().toMillis());
+        pinning.put("lastPinnedFrame", pinningMonitor.lastPinnedFrame());
+
+        Map<String, Object> dbLimiter = new LinkedHashMap<>();
+        dbLimiter.put("maxConcurrency", dbConcurrencyLimiter.maxConcurrency());
+        dbLimiter.put("inFlight", dbConcurrencyLimiter.inFlight());
+        dbLimiter.put("waiting", dbConcurrencyLimiter.waiting());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("mode", virtualThreadsEnabled ? "virtual" : "platform");
+        body.put("pinning", pinning);
+        body.put("dbLimiter", dbLimiter);
+        return body;
+    }
+}
@@ -0,0 +1,50 @@
+package dto;
+
+import java.util.Arrays;
+
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson", true),
+    CSV("csv", "text/csv", true),
+    // Formats binaires Jackson : suite d'objets CBOR (RFC 8742) et flux Smile, plus compacts et plus rapides à produire
+    CBOR("cbor", "application/cbor-seq", false),
+    SMILE("smile", "application/x-jackson-smile", false);
+
+    private final String extension;
+    private final String mediaType;
+    private final boolean text;
+
+    ExportFormat(String extension, String mediaType, boolean text) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+        this.text = text;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /** Format texte (UTF-8), par opposition aux formats binaires sans jeu de caractères. */
+    public boolean isText() {
+        return text;
+    }
+
+    /** Retourne le format correspondant au paramètre de requête (ndjson, csv, cbor, smile), ou null s'il est inconnu. */
+    public static ExportFormat fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** Retourne le format produisant exactement ce type de média (en-tête Accept), ou null. */
+    public static ExportFormat fromMediaType(String mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.equalsIgnoreCase(mediaType))
+                .findFirst()
+                .orElse(null);
+    }
+}
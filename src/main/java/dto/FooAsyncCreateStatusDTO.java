@@ -0,0 +1,35 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+public record FooAsyncCreateStatusDTO(
+
+        @Schema(description = "Identifiant de suivi renvoyé par la création asynchrone", example = "3f1c2a9e-8d4b-4c1e-9a57-0b6f2d3e4a5b")
+        UUID trackingId,
+
+        @Schema(description = "État de la création", example = "PENDING")
+        Status status,
+
+        @Schema(description = "Foo créé, présent uniquement une fois la création écrite en base")
+        FooResponseDTO foo,
+
+        @Schema(description = "Raison de l'échec, présente uniquement si la création a échoué")
+        String error
+
+) {
+    public enum Status { PENDING, COMMITTED, FAILED }
+
+    public static FooAsyncCreateStatusDTO pending(UUID trackingId) {
+        return new FooAsyncCreateStatusDTO(trackingId, Status.PENDING, null, null);
+    }
+
+    public static FooAsyncCreateStatusDTO committed(UUID trackingId, FooResponseDTO foo) {
+        return new FooAsyncCreateStatusDTO(trackingId, Status.COMMITTED, foo, null);
+    }
+
+    public static FooAsyncCreateStatusDTO failed(UUID trackingId, String error) {
+        return new FooAsyncCreateStatusDTO(trackingId, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,33 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record FooBatchItemResultDTO(
+
+        @Schema(description = "Position de l'élément dans la requête", example = "0")
+        int index,
+
+        @Schema(description = "Résultat du traitement de l'élément", example = "CREATED")
+        Status status,
+
+        @Schema(description = "Foo créé, absent si l'élément a échoué")
+        FooResponseDTO foo,
+
+        @Schema(description = "Raison de l'échec, absente si l'élément a été créé")
+        String error
+
+) {
+    public enum Status { CREATED, INVALID, FAILED }
+
+    public static FooBatchItemResultDTO created(int index, FooResponseDTO foo) {
+        return new FooBatchItemResultDTO(index, Status.CREATED, foo, null);
+    }
+
+    public static FooBatchItemResultDTO invalid(int index, String error) {
+        return new FooBatchItemResultDTO(index, Status.INVALID, null, error);
+    }
+
+    public static FooBatchItemResultDTO failed(int index, String error) {
+        return new FooBatchItemResultDTO(index, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record FooBatchResponseDTO(
+
+        @Schema(description = "Nombre d'éléments créés", example = "998")
+        int created,
+
+        @Schema(description = "Nombre d'éléments rejetés (validation ou erreur d'écriture)", example = "2")
+        int failed,
+
+        @Schema(description = "Résultat de chaque élément, dans l'ordre de la requête")
+        List<FooBatchItemResultDTO> results
+
+) {}
@@ -0,0 +1,31 @@
+package dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+public record FooChangeDTO(
+
+        @Schema(description = "Numéro de la modification, croissant et sans trou ; à repasser dans since (ou Last-Event-ID) pour reprendre après", example = "42")
+        long seq,
+
+        @Schema(description = "Identifiant du Foo modifié", example = "1")
+        Long fooId,
+
+        @Schema(description = "Nature de la modification", allowableValues = {"CREATED", "UPDATED", "DELETED"}, example = "CREATED")
+        String type,
+
+        @Schema(description = "Nom après la modification, absent pour une suppression", example = "Mon Super Foo")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String name,
+
+        @Schema(description = "Version du Foo après la modification, absente pour une suppression ; "
+                + "une modification de version inférieure à la dernière appliquée pour ce Foo est plus ancienne et peut être ignorée", example = "3")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long version,
+
+        @Schema(description = "Date de l'écriture")
+        Instant occurredAt
+
+) {}
@@ -0,0 +1,14 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record FooIdsRequestDTO(
+
+        @Schema(description = "Ids des Foos à lire", example = "[1, 2, 3]")
+        @NotNull(message = "Ids cannot be null")
+        List<@NotNull(message = "Ids cannot contain null") Long> ids
+
+) {}
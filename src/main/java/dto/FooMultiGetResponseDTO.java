@@ -0,0 +1,15 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record FooMultiGetResponseDTO(
+
+        @Schema(description = "Foos trouvés, dans l'ordre des ids demandés (doublons ignorés)")
+        List<FooResponseDTO> items,
+
+        @Schema(description = "Ids demandés sans Foo correspondant, dans l'ordre de la requête", example = "[42]")
+        List<Long> missingIds
+
+) {}
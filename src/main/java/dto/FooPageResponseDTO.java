@@ -0,0 +1,18 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record FooPageResponseDTO(
+
+        @Schema(description = "Foos de la page, triés par id croissant")
+        List<FooResponseDTO> items,
+
+        @Schema(description = "Curseur opaque à passer en paramètre 'cursor' pour obtenir la page suivante, absent sur la dernière page")
+        String nextCursor,
+
+        @Schema(description = "Indique s'il reste des Foos après cette page", example = "true")
+        boolean hasMore
+
+) {}
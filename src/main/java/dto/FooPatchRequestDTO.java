@@ -0,0 +1,15 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+// Mise à jour partielle : un champ absent (null) est laissé inchangé
+public record FooPatchRequestDTO(
+
+        @Schema(description = "Nouveau nom de la ressource Foo, absent pour le laisser inchangé", example = "Mon Super Foo")
+        @Pattern(regexp = "(?s).*\\S.*", message = "Name cannot be blank")
+        @Size(min = 2, max = 50, message = "Name must be between 2 and 50 characters")
+        String name
+
+) {}
@@ -1,5 +1,6 @@
 package dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 public record FooResponseDTO(
@@ -8,6 +9,14 @@ public record FooResponseDTO(
         Long id,
 
         @Schema(description = "Nom de la ressource Foo", example = "Mon Super Foo")
-        String name
+        String name,
 
-) {}
+        @Schema(description = "Version de la ressource Foo, également renvoyée dans l'en-tête ETag", example = "0")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long version
+
+) {
+    public FooResponseDTO(Long id, String name) {
+        this(id, name, null);
+    }
+}
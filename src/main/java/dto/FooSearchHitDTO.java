@@ -0,0 +1,17 @@
+package dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record FooSearchHitDTO(
+
+        @Schema(description = "Identifiant unique de la ressource Foo", example = "1")
+        Long id,
+
+        @Schema(description = "Nom de la ressource Foo", example = "Mon Super Foo")
+        String name,
+
+        @Schema(description = "Pertinence : entre 1 et 2 si le nom contient la recherche (2 pour un nom identique), "
+                + "sinon similarité trigrammes entre 0 et 1", example = "1.5")
+        double score
+
+) {}
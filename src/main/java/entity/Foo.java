@@ -5,17 +5,48 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "foos")
+@Table(name = "foos", indexes = @Index(name = "idx_foos_name_key", columnList = "name_key"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Foo {
+    // Séquence "pooled" : Hibernate réserve les ids par blocs de 50 et peut regrouper les INSERT en batch JDBC
+    // (IDENTITY désactive le batching car chaque INSERT doit être exécuté pour connaître l'id)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foos_seq")
+    @SequenceGenerator(name = "foos_seq", sequenceName = "foos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50)
     private String name;
+
+    // Nom normalisé en minuscules, indexé : recherches par nom exactes, insensibles à la casse ou par préfixe
+    // sans dépendre de la collation de la base (la mise en minuscules peut allonger certains caractères)
+    @Column(name = "name_key", nullable = false, length = 100)
+    private String nameKey;
+
+    // Verrouillage optimiste : incrémenté à chaque mise à jour, sert aussi d'ETag (If-None-Match / If-Match)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Foo(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public static String nameKeyOf(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNameKey() {
+        nameKey = nameKeyOf(name);
+    }
+
     // autres champs, createdDate, lastModifiedDate avec @CreatedDate, @LastModifiedDate si audit activé
 }
@@ -0,0 +1,67 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Création asynchrone écrite en base (FooWriteBehindWriter), enregistrée dans la transaction du Foo créé :
+ * le rejeu du journal ne la recrée pas et son état survit à un redémarrage.
+ */
+@Entity
+@Table(name = "foo_async_creations", indexes = @Index(name = "idx_foo_async_creations_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FooAsyncCreation implements Persistable<UUID> {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    @Id
+    @Column(name = "tracking_id")
+    private UUID trackingId;
+
+    // null si la création a échoué
+    @Column(name = "foo_id")
+    private Long fooId;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Identifiant attribué par l'application : sans ce drapeau, save() ferait un SELECT (merge) avant l'INSERT
+    @Transient
+    private boolean inserted;
+
+    public static FooAsyncCreation committed(UUID trackingId, Long fooId, Instant createdAt) {
+        return new FooAsyncCreation(trackingId, fooId, null, createdAt, false);
+    }
+
+    public static FooAsyncCreation failed(UUID trackingId, String error, Instant createdAt) {
+        String truncated = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        return new FooAsyncCreation(trackingId, null, truncated, createdAt, false);
+    }
+
+    @Override
+    public UUID getId() {
+        return trackingId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !inserted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markInserted() {
+        inserted = true;
+    }
+}
@@ -0,0 +1,49 @@
+package entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Modification d'un Foo, enregistrée dans la transaction de l'écriture (outbox transactionnelle) puis publiée
+ * par FooOutboxRelay, qui lui attribue son numéro de publication seq.
+ */
+@Entity
+@Table(name = "foo_outbox", uniqueConstraints = @UniqueConstraint(name = "uk_foo_outbox_seq", columnNames = "seq"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FooOutboxEvent {
+    // Séquence "pooled" comme Foo : les évènements d'une création en masse sont insérés en batch JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foo_outbox_seq")
+    @SequenceGenerator(name = "foo_outbox_seq", sequenceName = "foo_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "foo_id", nullable = false)
+    private Long fooId;
+
+    // CREATED, UPDATED ou DELETED
+    @Column(nullable = false, length = 10)
+    private String type;
+
+    // Nom après l'écriture, null pour une suppression
+    @Column(length = 50)
+    private String name;
+
+    // Version du Foo après l'écriture, null pour une suppression : ordonne les modifications d'un même Foo
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Numéro de publication, sans trou et dans l'ordre des commits tel que vu par le relais ; null = pas encore publié
+    private Long seq;
+
+    public FooOutboxEvent(Long fooId, String type, String name, Long version, Instant createdAt) {
+        this(null, fooId, type, name, version, createdAt, null);
+    }
+}
@@ -0,0 +1,105 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Corps d'erreur au format ErrorResponseDTO, écrit sans Jackson ni DTO intermédiaire : les parties fixes
+ * (statut, libellé) sont précalculées par statut, l'horodatage est reformaté au plus une fois par milliseconde,
+ * seuls le message et le chemin sont échappés à chaque réponse.
+ */
+final class ErrorJsonTemplate {
+
+    private record Timestamp(long epochMilli, String text) {}
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, "");
+
+    private final HttpStatus status;
+    // {"timestamp":"<timestamp>","status":404,"error":"Not Found","message":"<message>","path":"<path>"}
+    private final String afterTimestamp;
+
+    private ErrorJsonTemplate(HttpStatus status, String error) {
+        this.status = status;
+        this.afterTimestamp = "\",\"status\":" + status.value() + ",\"error\":\"" + escape(error) + "\",\"message\":";
+    }
+
+    static ErrorJsonTemplate of(HttpStatus status, String error) {
+        return new ErrorJsonTemplate(status, error);
+    }
+
+    ResponseEntity.BodyBuilder builder() {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+    }
+
+    ResponseEntity<byte[]> render(String message, String path) {
+        return builder().body(body(message, path));
+    }
+
+    byte[] body(String message, String path) {
+        StringBuilder json = new StringBuilder(afterTimestamp.length() + 64
+                + (message != null ? message.length() : 4) + (path != null ? path.length() : 4));
+        json.append("{\"timestamp\":\"").append(timestamp()).append(afterTimestamp);
+        appendString(json, message);
+        json.append(",\"path\":");
+        appendString(json, path);
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Même représentation que LocalDateTime sérialisé par Jackson, à la milliseconde
+    private static String timestamp() {
+        long now = System.currentTimeMillis();
+        Timestamp current = timestamp;
+        if (current.epochMilli() != now) {
+            current = new Timestamp(now, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZONE)));
+            timestamp = current;
+        }
+        return current.text();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        escapeInto(json, value);
+        json.append('"');
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        escapeInto(escaped, value);
+        return escaped.toString();
+    }
+
+    // Le message peut reprendre une saisie du client (nom recherché...) : guillemets, antislash et caractères de contrôle échappés
+    private static void escapeInto(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
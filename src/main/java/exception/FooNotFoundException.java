@@ -0,0 +1,22 @@
+package exception;
+
+/**
+ * Foo absent : cas attendu et fréquent (robots, clients qui gardent des ids supprimés).
+ * Sans pile d'appels, et message construit seulement s'il est lu (réponse 404 ou log échantillonné).
+ */
+public class FooNotFoundException extends ResourceNotFoundException {
+
+    private final String fieldName;
+    private final Object fieldValue;
+
+    public FooNotFoundException(String fieldName, Object fieldValue) {
+        super(null, false);
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Foo not found with " + fieldName + ": " + fieldValue;
+    }
+}
@@ -1,65 +1,159 @@
 package exception;
 
-import dto.ErrorResponseDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Réponses d'erreur au format ErrorResponseDTO, écrites depuis des gabarits JSON précalculés (ErrorJsonTemplate).
+ * Les erreurs attendues et potentiellement massives (404, 400) sont journalisées par échantillonnage
+ * (foo.errors.log-sample-interval) ; les autres détails restent disponibles en debug.
+ */
 @ControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private static final ErrorJsonTemplate NOT_FOUND = ErrorJsonTemplate.of(HttpStatus.NOT_FOUND, "Not Found");
+    private static final ErrorJsonTemplate BAD_REQUEST = ErrorJsonTemplate.of(HttpStatus.BAD_REQUEST, "Bad Request");
+    private static final ErrorJsonTemplate VALIDATION_FAILED = ErrorJsonTemplate.of(HttpStatus.BAD_REQUEST, "Validation Failed");
+    private static final ErrorJsonTemplate NOT_ACCEPTABLE = ErrorJsonTemplate.of(HttpStatus.NOT_ACCEPTABLE, "Not Acceptable");
+    private static final ErrorJsonTemplate PRECONDITION_FAILED = ErrorJsonTemplate.of(HttpStatus.PRECONDITION_FAILED, "Precondition Failed");
+    private static final ErrorJsonTemplate CONFLICT = ErrorJsonTemplate.of(HttpStatus.CONFLICT, "Conflict");
+    private static final ErrorJsonTemplate GONE = ErrorJsonTemplate.of(HttpStatus.GONE, "Gone");
+    private static final ErrorJsonTemplate UNPROCESSABLE_ENTITY = ErrorJsonTemplate.of(HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity");
+    private static final ErrorJsonTemplate UNAUTHORIZED = ErrorJsonTemplate.of(HttpStatus.UNAUTHORIZED, "Unauthorized");
+    private static final ErrorJsonTemplate TOO_MANY_REQUESTS = ErrorJsonTemplate.of(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests");
+    private static final ErrorJsonTemplate SERVICE_UNAVAILABLE = ErrorJsonTemplate.of(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable");
+    private static final ErrorJsonTemplate INTERNAL_SERVER_ERROR = ErrorJsonTemplate.of(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
+
+    private final SampledErrorLog notFoundLog;
+    private final SampledErrorLog badRequestLog;
+
+    public GlobalExceptionHandler(@Value("${foo.errors.log-sample-interval:10s}") Duration logSampleInterval) {
+        this.notFoundLog = new SampledErrorLog(logSampleInterval);
+        this.badRequestLog = new SampledErrorLog(logSampleInterval);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ErrorResponseDTO> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
-        log.warn("Resource not found: {}", ex.getMessage());
-        ErrorResponseDTO errorDetails = new ErrorResponseDTO(
-                LocalDateTime.now(),
-                HttpStatus.NOT_FOUND.value(),
-                "Not Found",
-                ex.getMessage(),
-                request.getDescription(false)
-        );
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
+        long suppressed = notFoundLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Resource not found: {} ({} similar errors not logged)", ex.getMessage(), suppressed);
+        } else {
+            log.debug("Resource not found: {}", ex.getMessage());
+        }
+        return NOT_FOUND.render(ex.getMessage(), request.getDescription(false));
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<byte[]> handleBadRequestException(BadRequestException ex, WebRequest request) {
+        long suppressed = badRequestLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Bad request: {} ({} similar errors not logged)", ex.getMessage(), suppressed);
+        } else {
+            log.debug("Bad request: {}", ex.getMessage());
+        }
+        return BAD_REQUEST.render(ex.getMessage(), request.getDescription(false));
+    }
+
+    // Aucune représentation (JSON, CBOR, Smile) ne correspond à l'en-tête Accept : l'erreur elle-même est écrite en JSON
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<byte[]> handleHttpMediaTypeNotAcceptableException(HttpMediaTypeNotAcceptableException ex, WebRequest request) {
+        log.debug("Not acceptable: {}", ex.getMessage());
+        return NOT_ACCEPTABLE.render("Supported media types: " + ex.getSupportedMediaTypes(), request.getDescription(false));
+    }
+
+    // If-Match périmé : conflit d'écriture attendu entre clients concurrents, pas une erreur serveur
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<byte[]> handlePreconditionFailedException(PreconditionFailedException ex, WebRequest request) {
+        log.debug("Precondition failed: {}", ex.getMessage());
+        return PRECONDITION_FAILED.render(ex.getMessage(), request.getDescription(false));
+    }
+
+    // Doublon d'une requête idempotente toujours en cours : le client réessaie avec la même clé
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<byte[]> handleConflictException(ConflictException ex, WebRequest request) {
+        log.debug("Conflict: {}", ex.getMessage());
+        return CONFLICT.builder()
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(CONFLICT.body(ex.getMessage(), request.getDescription(false)));
+    }
+
+    @ExceptionHandler(UnprocessableEntityException.class)
+    public ResponseEntity<byte[]> handleUnprocessableEntityException(UnprocessableEntityException ex, WebRequest request) {
+        log.debug("Unprocessable entity: {}", ex.getMessage());
+        return UNPROCESSABLE_ENTITY.render(ex.getMessage(), request.getDescription(false));
+    }
+
+    // Modifications demandées déjà purgées de l'outbox : le client doit relire l'état complet avant de reprendre le flux
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<byte[]> handleGoneException(GoneException ex, WebRequest request) {
+        log.debug("Gone: {}", ex.getMessage());
+        return GONE.render(ex.getMessage(), request.getDescription(false));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        return SERVICE_UNAVAILABLE.builder()
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(SERVICE_UNAVAILABLE.body(ex.getMessage(), request.getDescription(false)));
+    }
+
+    // Refus de RateLimitFilter : attendu sous charge, journalisé en debug pour ne pas aggraver la surcharge
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<byte[]> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        log.debug("Too many requests: {}", ex.getMessage());
+        return TOO_MANY_REQUESTS.builder()
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(TOO_MANY_REQUESTS.body(ex.getMessage(), request.getDescription(false)));
+    }
+
+    // Jeton Bearer refusé par JwtAuthenticationFilter (signature, expiration, émetteur...) : détail en debug uniquement
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<byte[]> handleUnauthorizedException(UnauthorizedException ex, WebRequest request) {
+        log.debug("Unauthorized: {}", ex.getMessage());
+        return UNAUTHORIZED.builder()
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"")
+                .body(UNAUTHORIZED.body("Invalid or expired bearer token", request.getDescription(false)));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponseDTO> handleValidationExceptions(MethodArgumentNotValidException ex, WebRequest request) {
+    public ResponseEntity<byte[]> handleValidationExceptions(MethodArgumentNotValidException ex, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach( error -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        log.warn("Validation error: {}", errors);
-        ErrorResponseDTO errorDetails = new ErrorResponseDTO(
-                LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),
-                "Validation Failed",
+        long suppressed = badRequestLog.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Validation error: {} ({} similar errors not logged)", errors, suppressed);
+        } else {
+            log.debug("Validation error: {}", errors);
+        }
+        return VALIDATION_FAILED.render(
                 errors.toString(), // Ou un format plus structuré pour les erreurs de validation
-                request.getDescription(false)
-        );
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+                request.getDescription(false));
     }
 
     @ExceptionHandler(Exception.class) // Gestionnaire générique pour les autres exceptions
-    public ResponseEntity<ErrorResponseDTO> handleGlobalException(Exception ex, WebRequest request) {
+    public ResponseEntity<byte[]> handleGlobalException(Exception ex, WebRequest request) {
         log.error("An unexpected error occurred: ", ex);
-        ErrorResponseDTO errorDetails = new ErrorResponseDTO(
-                LocalDateTime.now(),
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                "Internal Server Error",
+        return INTERNAL_SERVER_ERROR.render(
                 ex.getMessage(), // Attention à ne pas fuiter d'informations sensibles
-                request.getDescription(false)
-        );
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+                request.getDescription(false));
     }
 }
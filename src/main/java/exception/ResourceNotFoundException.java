@@ -14,6 +14,11 @@ public class ResourceNotFoundException extends RuntimeException {
         super(message, cause);
     }
 
+    // writableStackTrace=false pour les absences attendues : remplir la pile coûte plus cher que le reste du 404
+    protected ResourceNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
         super(String.format("%s non trouvé(e) avec %s : '%s'", resourceName, fieldName, fieldValue));
     }
@@ -0,0 +1,33 @@
+package exception;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage des logs d'erreurs répétitives (404 en rafale...) : au plus un log par intervalle,
+ * qui rapporte le nombre d'occurrences passées sous silence depuis le précédent.
+ */
+final class SampledErrorLog {
+
+    private final long intervalNanos;
+    private final AtomicLong nextLogAt;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    SampledErrorLog(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextLogAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return -1 si cette occurrence ne doit pas être journalisée, sinon le nombre d'occurrences ignorées depuis le dernier log
+     */
+    long tryAcquire() {
+        long now = System.nanoTime();
+        long next = nextLogAt.get();
+        if (now - next >= 0 && nextLogAt.compareAndSet(next, now + intervalNanos)) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
@@ -4,6 +4,7 @@ import dto.FooRequestDTO;
 import dto.FooResponseDTO;
 import entity.Foo;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring") // Pour l'injection de dépendance par Spring
@@ -11,6 +12,10 @@ public interface FooMapper {
 
     FooMapper INSTANCE = Mappers.getMapper(FooMapper.class); // Si pas d'injection Spring
 
+    // id (séquence), nameKey (@PrePersist) et version (@Version) sont renseignés par JPA
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "nameKey", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Foo toEntity(FooRequestDTO fooRequestDTO);
 
     FooResponseDTO toResponseDTO(Foo foo);
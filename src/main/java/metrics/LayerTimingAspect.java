@@ -0,0 +1,81 @@
+package metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers foo.service et foo.mapper (tags method, outcome) autour de FooService et FooMapper.
+ * Les appels repository sont déjà mesurés par Spring Data (spring.data.repository.invocations)
+ * et les endpoints par Spring MVC (http.server.requests).
+ * Un taux d'échantillonnage par couche permet de ne mesurer qu'une fraction des appels les plus fréquents :
+ * un mapping MapStruct coûte quelques nanosecondes, moins que l'enregistrement d'un histogramme.
+ */
+@Aspect
+@Component
+public class LayerTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final double serviceSampleRate;
+    private final double mapperSampleRate;
+    // Les Timer sont résolus une fois par (méthode, outcome) : pas de recherche dans le registre à chaque appel
+    private final ConcurrentMap<Method, Timer[]> serviceTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Timer[]> mapperTimers = new ConcurrentHashMap<>();
+
+    public LayerTimingAspect(MeterRegistry meterRegistry,
+                             @Value("${foo.metrics.service.sample-rate:1.0}") double serviceSampleRate,
+                             @Value("${foo.metrics.mapper.sample-rate:0.1}") double mapperSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.serviceSampleRate = serviceSampleRate;
+        this.mapperSampleRate = mapperSampleRate;
+    }
+
+    @Around("execution(public * service.FooService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "foo.service", serviceSampleRate, serviceTimers);
+    }
+
+    @Around("execution(public * mapper.FooMapper+.*(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "foo.mapper", mapperSampleRate, mapperTimers);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, double sampleRate,
+                        ConcurrentMap<Method, Timer[]> timers) throws Throwable {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer[] methodTimers = timers.computeIfAbsent(method, m -> new Timer[]{
+                timer(name, m, "success"),
+                timer(name, m, "error")
+        });
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            methodTimers[success ? 0 : 1].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, Method method, String outcome) {
+        return Timer.builder(name)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
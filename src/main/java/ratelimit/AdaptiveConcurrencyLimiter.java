@@ -0,0 +1,86 @@
+package ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de concurrence adaptative AIMD : la limite augmente de 1 après une réponse rapide tant qu'elle est
+ * réellement utilisée (au moins la moitié des permis pris), et est multipliée par backoffRatio après une réponse
+ * plus lente que latencyThreshold ou un signal de surcharge (503). Au-delà de la limite, les requêtes sont refusées
+ * immédiatement au lieu d'allonger la file d'attente de tous les clients.
+ * Une seule baisse par fenêtre : seule une requête partie après la dernière baisse peut en provoquer une nouvelle,
+ * sinon N réponses lentes simultanées (ou N refus 503 de DbConcurrencyLimiter) multiplieraient la limite par backoffRatio^N.
+ * Compteur et limite sont des entiers atomiques mis à jour par CAS, sans verrou.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoTime;
+    private final AtomicLong lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this(initialLimit, minLimit, maxLimit, latencyThresholdNanos, backoffRatio, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio,
+                                      LongSupplier nanoTime) {
+        if (minLimit < 1 || minLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min " + minLimit + ", max " + maxLimit
+                    + ", backoff ratio " + backoffRatio);
+        }
+        this.limit = new AtomicInteger(Math.clamp(initialLimit, minLimit, maxLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.nanoTime = nanoTime;
+        // Toute requête acquise après la construction peut provoquer la première baisse
+        this.lastDecreaseNanos = new AtomicLong(nanoTime.getAsLong() - 1);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Libère un permis en ajustant la limite d'après la latence observée et le signal de surcharge. */
+    public void release(long latencyNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            long now = nanoTime.getAsLong();
+            long last = lastDecreaseNanos.get();
+            // Requête partie avant la dernière baisse : sa lenteur a déjà été prise en compte
+            if (now - latencyNanos - last > 0 && lastDecreaseNanos.compareAndSet(last, now)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+            }
+            return;
+        }
+        limit.updateAndGet(current -> inFlightBefore * 2 >= current ? Math.min(maxLimit, current + 1) : current);
+    }
+
+    /** Libère un permis sans échantillon de latence (réponses longues par nature, ex. export). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,52 @@
+package ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de débit par clé (principal), équivalente à un token bucket de capacité burst rechargé à ratePerSecond,
+ * implémentée en GCRA : l'état d'une clé se réduit à un instant théorique d'arrivée (TAT) mis à jour par CAS,
+ * sans verrou. Les clés inactives sont évincées du cache (leur état est alors identique à celui d'une clé neuve).
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> arrivalTimes;
+
+    public GcraRateLimiter(double ratePerSecond, int burst, long maximumKeys) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Invalid rate limit: " + ratePerSecond + "/s, burst " + burst);
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.arrivalTimes = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos + burstToleranceNanos).plusSeconds(1))
+                .build();
+    }
+
+    /** Retourne 0 si la requête est admise, sinon le délai en nanosecondes avant la prochaine requête admise pour cette clé. */
+    public long tryAcquire(String key) {
+        AtomicLong arrivalTime = arrivalTimes.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrivalTime.get();
+            long theoretical = current - now > 0 ? current : now;
+            long waitNanos = theoretical - burstToleranceNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrivalTime.compareAndSet(current, theoretical + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long trackedKeys() {
+        return arrivalTimes.estimatedSize();
+    }
+}
@@ -0,0 +1,120 @@
+package ratelimit;
+
+import exception.ServiceUnavailableException;
+import exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protection contre la surcharge de /api/**, placée dans la chaîne Spring Security après l'authentification :
+ * limite de débit par principal (ou par adresse IP pour les requêtes anonymes), 429, puis, sur /api/v1/foos/**,
+ * limite de concurrence adaptative, 503. Les refus passent par GlobalExceptionHandler (HandlerExceptionResolver)
+ * pour garder le format d'erreur de l'API.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String FOOS_PATH = "/api/v1/foos";
+    // Durée proportionnelle au volume exporté : non représentative de la charge
+    private static final String EXPORT_PATH = "/api/v1/foos/export";
+
+    private final GcraRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final Counter rateRejections;
+    private final Counter concurrencyRejections;
+
+    public RateLimitFilter(GcraRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           HandlerExceptionResolver handlerExceptionResolver, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.rateRejections = rejections(meterRegistry, "rate");
+        this.concurrencyRejections = rejections(meterRegistry, "concurrency");
+        Gauge.builder("foo.ratelimit.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit of /api/v1/foos")
+                .register(meterRegistry);
+        Gauge.builder("foo.ratelimit.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Requests to /api/v1/foos currently holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("foo.ratelimit.principals", rateLimiter, GcraRateLimiter::trackedKeys)
+                .description("Principals with rate limit state")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(principal(request));
+        if (waitNanos > 0) {
+            rateRejections.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            reject(request, response, new TooManyRequestsException("Rate limit exceeded", retryAfterSeconds));
+            return;
+        }
+        String uri = request.getRequestURI();
+        if (!uri.equals(FOOS_PATH) && !uri.startsWith(FOOS_PATH + "/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejections.increment();
+            reject(request, response, new ServiceUnavailableException("Server overloaded, concurrency limit of "
+                    + concurrencyLimiter.limit() + " requests reached"));
+            return;
+        }
+        if (uri.startsWith(EXPORT_PATH)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                concurrencyLimiter.release();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RuntimeException ex) {
+        handlerExceptionResolver.resolveException(request, response, null, ex);
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("foo.ratelimit.rejected")
+                .description("Requests rejected by the rate limit filter, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package repository;
+
+import entity.FooAsyncCreation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface FooAsyncCreationRepository extends JpaRepository<FooAsyncCreation, UUID> {
+
+    // Purge par l'index sur created_at
+    @Modifying
+    @Transactional
+    @Query("delete from FooAsyncCreation c where c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,46 @@
+package repository;
+
+import dto.FooChangeDTO;
+import entity.FooOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FooOutboxRepository extends JpaRepository<FooOutboxEvent, Long> {
+    // Les requêtes du relais (publication, purge) s'exécutent dans ses transactions, sur le primaire ;
+    // celles des abonnés au flux des modifications sont en readOnly et peuvent être servies par un réplica
+
+    // Ordre des ids = ordre d'insertion sur une instance seulement (séquence pooled) : FooOutboxRelay réordonne
+    // par version les lignes d'un même Foo
+    @Query("select e from FooOutboxEvent e where e.seq is null order by e.id")
+    List<FooOutboxEvent> findUnpublished(Limit limit);
+
+    @Query("select coalesce(max(e.seq), 0) from FooOutboxEvent e")
+    long findMaxSeq();
+
+    @Transactional(readOnly = true)
+    @Query("select min(e.seq) from FooOutboxEvent e")
+    Long findMinSeq();
+
+    @Transactional(readOnly = true)
+    @Query("select new dto.FooChangeDTO(e.seq, e.fooId, e.type, e.name, e.version, e.createdAt) from FooOutboxEvent e "
+            + "where e.seq > :since order by e.seq")
+    List<FooChangeDTO> findPublishedAfter(@Param("since") long since, Limit limit);
+
+    // Date d'une ligne publiée, par l'index sur seq : la purge avance par tranches de seq tant qu'elles sont anciennes
+    @Query("select e.createdAt from FooOutboxEvent e where e.seq = :seq")
+    Optional<Instant> findCreatedAtBySeq(@Param("seq") long seq);
+
+    @Modifying
+    @Query("delete from FooOutboxEvent e where e.seq > :fromSeq and e.seq <= :toSeq")
+    int deletePublished(@Param("fromSeq") long fromSeq, @Param("toSeq") long toSeq);
+}
@@ -1,12 +1,87 @@
 package repository;
 
+import dto.FooResponseDTO;
 import entity.Foo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface FooRepository extends JpaRepository<Foo, Long> {
-    Optional<Foo> findByName(String name); // Exemple de méthode de requête personnalisée
+public interface FooRepository extends JpaRepository<Foo, Long>, FooRepositoryCustom {
+    // Les requêtes déclarées ici ne sont transactionnelles que si elles sont annotées : readOnly pour celles appelées
+    // hors transaction de service, afin qu'elles soient servies par un réplica lorsqu'il y en a (DataSourceRoutingConfig)
+
+    // Lecture groupée (multi-get) : avec hibernate.query.in_clause_parameter_padding, la liste est complétée jusqu'à
+    // la puissance de deux suivante, ce qui limite le nombre de requêtes SQL distinctes (cache des requêtes préparées).
+    // Appelée hors transaction par le multi-get et le chargement groupé : chaque appel a sa transaction en lecture seule
+    @Transactional(readOnly = true)
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f where f.id in :ids")
+    List<FooResponseDTO> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Recherches par nom sur l'index idx_foos_name_key (nom en minuscules) : égalité pour les recherches exactes
+    // ou insensibles à la casse (l'égalité exacte est vérifiée par l'appelant), préfixe pour les recherches par début de nom
+    @Transactional(readOnly = true)
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f where f.nameKey = :nameKey order by f.id")
+    List<FooResponseDTO> findByNameKey(@Param("nameKey") String nameKey, Limit limit);
+
+    // nameKeyPattern : préfixe échappé avec '!' suivi de '%', parcours de l'index dans l'ordre du nom
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f "
+            + "where f.nameKey like :nameKeyPattern escape '!' order by f.nameKey, f.id")
+    List<FooResponseDTO> findByNameKeyLike(@Param("nameKeyPattern") String nameKeyPattern, Limit limit);
+
+    // Lecture de la seule version (sans charger l'entité) pour répondre aux GET conditionnels
+    @Transactional(readOnly = true)
+    @Query("select f.version from Foo f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Écritures en une seule instruction, sans SELECT préalable ni entité managée : la version attendue (If-Match,
+    // null = sans condition) est vérifiée dans le WHERE et la version incrémentée par la base.
+    // Retournent le nombre de lignes touchées : 0 si le Foo est absent ou si sa version a changé.
+    // nameKey est renseigné ici : @PreUpdate n'est pas appelé pour une requête JPQL.
+    // coalesce : NULL + 1 resterait NULL sur une base où V11 (version NOT NULL) n'est pas encore passée
+    @Modifying
+    @Query("update Foo f set f.name = :name, f.nameKey = :nameKey, f.version = coalesce(f.version, 0) + 1 "
+            + "where f.id = :id and (:expectedVersion is null or f.version = :expectedVersion)")
+    int updateName(@Param("id") Long id,
+                   @Param("name") String name,
+                   @Param("nameKey") String nameKey,
+                   @Param("expectedVersion") Long expectedVersion);
+
+    @Modifying
+    @Query("delete from Foo f where f.id = :id and (:expectedVersion is null or f.version = :expectedVersion)")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("expectedVersion") Long expectedVersion);
+
+    // Pagination par clé : "id > :afterId" reste un range scan sur la clé primaire quelle que soit la profondeur,
+    // et la projection DTO évite de charger des entités managées dans le contexte de persistance
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f where f.id > :afterId order by f.id")
+    List<FooResponseDTO> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    // namePattern : préfixe échappé avec '!' suivi de '%' (jamais de '%' en tête, pour rester indexable)
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f "
+            + "where f.id > :afterId and f.name like :namePattern escape '!' order by f.id")
+    List<FooResponseDTO> findPageAfterWithNameLike(@Param("afterId") long afterId,
+                                                   @Param("namePattern") String namePattern,
+                                                   Limit limit);
+
+    // Lecture en avant seule pour l'export : le driver ramène les lignes par paquets de fetchSize
+    // (MySQL : nécessite useCursorFetch=true), et la projection DTO ne crée aucune entité managée.
+    // Le Stream doit être consommé puis fermé dans une transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new dto.FooResponseDTO(f.id, f.name, f.version) from Foo f order by f.id")
+    Stream<FooResponseDTO> streamAll();
 }
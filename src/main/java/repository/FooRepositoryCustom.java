@@ -0,0 +1,14 @@
+package repository;
+
+import entity.Foo;
+
+import java.util.List;
+
+public interface FooRepositoryCustom {
+
+    /**
+     * Persiste un lot d'entités puis vide le contexte de persistance.
+     * Doit être appelé dans une transaction ; les INSERT sont regroupés selon hibernate.jdbc.batch_size.
+     */
+    List<Foo> persistAll(List<Foo> foos);
+}
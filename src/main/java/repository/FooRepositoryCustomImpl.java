@@ -0,0 +1,23 @@
+package repository;
+
+import entity.Foo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class FooRepositoryCustomImpl implements FooRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Foo> persistAll(List<Foo> foos) {
+        // persist() plutôt que save()/merge() : pas de SELECT préalable pour les nouvelles entités
+        foos.forEach(entityManager::persist);
+        entityManager.flush();
+        // Les entités sont détachées pour que le contexte ne grossisse pas d'un chunk à l'autre
+        entityManager.clear();
+        return foos;
+    }
+}
@@ -0,0 +1,182 @@
+package security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clés publiques de vérification des JWT, chargées depuis un JWKS (https:, file: ou classpath:) et gardées en mémoire :
+ * aucune requête ne déclenche d'appel réseau. Le JWKS est rechargé en tâche de fond toutes les refresh-interval,
+ * et au plus tôt après min-refresh-interval quand un jeton référence une clé inconnue (rotation côté émetteur).
+ * <p>
+ * Seules les clés de signature asymétriques (RSA, EC) sont retenues ; le vérificateur de chaque clé est construit
+ * une fois au chargement.
+ */
+@Slf4j
+public class JwkSetSource implements Closeable {
+
+    private static final int HTTP_TIMEOUT_MILLIS = 2_000;
+    private static final int JWKS_SIZE_LIMIT = 512 * 1024;
+    // Pas de http: : des clés lues en clair peuvent être substituées en chemin, et tout jeton signé avec elles accepté
+    private static final List<String> ALLOWED_SCHEMES = List.of("https:", "file:", "classpath:");
+
+    /** Clé de vérification ; l'identité de l'instance change à chaque rechargement du JWKS qui modifie la clé. */
+    public record VerificationKey(String keyId, JWK jwk, JWSVerifier verifier) {
+
+        boolean supports(JWSAlgorithm algorithm) {
+            if (jwk.getAlgorithm() != null) {
+                return jwk.getAlgorithm().equals(algorithm);
+            }
+            return jwk instanceof RSAKey ? JWSAlgorithm.Family.RSA.contains(algorithm) : JWSAlgorithm.Family.EC.contains(algorithm);
+        }
+    }
+
+    private final String location;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalNanos;
+    private final ScheduledExecutorService refresher;
+    private final AtomicLong lastRefreshAttempt;
+    private volatile Map<String, VerificationKey> keys = Map.of();
+
+    public JwkSetSource(String location, Duration refreshInterval, Duration minRefreshInterval) {
+        if (ALLOWED_SCHEMES.stream().noneMatch(location::startsWith)) {
+            throw new IllegalArgumentException("JWK set location must use one of " + ALLOWED_SCHEMES + ": " + location);
+        }
+        this.location = location;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.lastRefreshAttempt = new AtomicLong(System.nanoTime() - minRefreshIntervalNanos);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("foo-jwks-refresh").daemon().factory());
+    }
+
+    /**
+     * Premier chargement, synchrone, puis rechargements périodiques. Un émetteur indisponible au démarrage
+     * n'empêche pas l'application de démarrer : les jetons sont refusés jusqu'au premier chargement réussi.
+     */
+    public void start() {
+        refresh();
+        refresher.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Clé désignée par l'en-tête du jeton (kid, ou unique clé du JWKS si le jeton n'a pas de kid),
+     * ou null si elle est inconnue ou incompatible avec l'algorithme annoncé.
+     */
+    public VerificationKey keyFor(JWSHeader header) {
+        Map<String, VerificationKey> current = keys;
+        VerificationKey key;
+        if (header.getKeyID() != null) {
+            key = current.get(header.getKeyID());
+        } else {
+            key = current.size() == 1 ? current.values().iterator().next() : null;
+        }
+        if (key == null) {
+            refreshSoon();
+            return null;
+        }
+        return key.supports(header.getAlgorithm()) ? key : null;
+    }
+
+    /** Vrai si la clé fait toujours partie du JWKS (elle n'a pas été retirée ou remplacée depuis). */
+    public boolean isCurrent(VerificationKey key) {
+        return keys.get(key.keyId()) == key;
+    }
+
+    public int keyCount() {
+        return keys.size();
+    }
+
+    /** Recharge le JWKS ; en cas d'échec, les clés précédentes restent en place. */
+    public void refresh() {
+        lastRefreshAttempt.set(System.nanoTime());
+        try {
+            JWKSet jwkSet = load();
+            Map<String, VerificationKey> previous = keys;
+            Map<String, VerificationKey> loaded = new HashMap<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                    continue;
+                }
+                String keyId = jwk.getKeyID() != null ? jwk.getKeyID() : "";
+                VerificationKey existing = previous.get(keyId);
+                if (existing != null && existing.jwk().equals(jwk)) {
+                    loaded.put(keyId, existing);
+                    continue;
+                }
+                JWSVerifier verifier = verifierFor(jwk);
+                if (verifier != null) {
+                    loaded.put(keyId, new VerificationKey(keyId, jwk, verifier));
+                }
+            }
+            keys = Map.copyOf(loaded);
+            if (!loaded.keySet().equals(previous.keySet())) {
+                log.info("Loaded {} JWT verification keys from {}: {}", loaded.size(), location, loaded.keySet());
+            }
+        } catch (IOException | ParseException | RuntimeException ex) {
+            log.error("Could not load JWK set from {}, keeping {} previous keys: {}", location, keys.size(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshSoon() {
+        long last = lastRefreshAttempt.get();
+        long now = System.nanoTime();
+        if (now - last >= minRefreshIntervalNanos && lastRefreshAttempt.compareAndSet(last, now)) {
+            refresher.execute(this::refresh);
+        }
+    }
+
+    private JWKSet load() throws IOException, ParseException {
+        if (location.startsWith("https:")) {
+            return JWKSet.load(URI.create(location).toURL(), HTTP_TIMEOUT_MILLIS, HTTP_TIMEOUT_MILLIS, JWKS_SIZE_LIMIT);
+        }
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return JWKSet.load(in);
+        }
+    }
+
+    private static JWSVerifier verifierFor(JWK jwk) {
+        try {
+            if (jwk instanceof RSAKey rsaKey) {
+                return new RSASSAVerifier(rsaKey);
+            }
+            if (jwk instanceof ECKey ecKey) {
+                return new ECDSAVerifier(ecKey);
+            }
+        } catch (JOSEException ex) {
+            log.warn("Ignoring JWK {}: {}", jwk.getKeyID(), ex.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package security;
+
+import exception.UnauthorizedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Authentification stateless par jeton "Authorization: Bearer &lt;JWT&gt;", placée dans la chaîne Spring Security
+ * (SecurityConfig). Sans en-tête Bearer, la requête continue anonyme et les règles d'autorisation s'appliquent ;
+ * un jeton refusé donne un 401 via GlobalExceptionHandler (HandlerExceptionResolver), au format d'erreur de l'API.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Dispatch ASYNC de fin d'un flux SSE : ce filtre n'y repasse pas, le contexte est relu depuis la requête
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+    private final JwtVerifier jwtVerifier;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, HandlerExceptionResolver handlerExceptionResolver) {
+        this.jwtVerifier = jwtVerifier;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(jwtVerifier.authenticate(header.substring(BEARER_PREFIX.length()).trim()));
+            SecurityContextHolder.setContext(context);
+            securityContextRepository.saveContext(context, request, response);
+        } catch (UnauthorizedException ex) {
+            SecurityContextHolder.clearContext();
+            handlerExceptionResolver.resolveException(request, response, null, ex);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
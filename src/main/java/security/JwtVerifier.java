@@ -0,0 +1,206 @@
+package security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import exception.UnauthorizedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérifie un JWT signé (signature, exp, nbf, iss, aud) et construit l'Authentication correspondante,
+ * sans AuthenticationManager ni accès à la base.
+ * <p>
+ * Les jetons vérifiés sont gardés en cache jusqu'à leur expiration, sous l'empreinte SHA-256 du jeton (le jeton
+ * lui-même n'est pas conservé) : un client qui réutilise son jeton ne paie la vérification de signature qu'une fois.
+ * Une entrée dont la clé a été retirée du JWKS depuis est ignorée. Les jetons refusés ne sont pas mis en cache.
+ */
+public class JwtVerifier {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private record VerifiedJwt(Authentication authentication, JwkSetSource.VerificationKey key, Instant expiresAt) {}
+
+    private final JwkSetSource keys;
+    private final String issuer;
+    private final String audience;
+    private final String rolesClaim;
+    private final Duration clockSkew;
+    private final Clock clock;
+    // null si le cache est désactivé (cache-maximum-size=0)
+    private final Cache<String, VerifiedJwt> cache;
+    private final Counter cachedCounter;
+    private final Counter verifiedCounter;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param issuer   émetteur attendu (claim iss), ou vide pour ne pas le vérifier
+     * @param audience audience attendue (claim aud), ou vide pour ne pas la vérifier
+     */
+    public JwtVerifier(JwkSetSource keys, String issuer, String audience, String rolesClaim, Duration clockSkew,
+                       long cacheMaximumSize, Clock clock, MeterRegistry meterRegistry) {
+        this.keys = keys;
+        this.issuer = issuer == null || issuer.isBlank() ? null : issuer;
+        this.audience = audience == null || audience.isBlank() ? null : audience;
+        this.rolesClaim = rolesClaim;
+        this.clockSkew = clockSkew;
+        this.clock = clock;
+        this.cache = cacheMaximumSize > 0
+                ? Caffeine.newBuilder().maximumSize(cacheMaximumSize).expireAfter(new UntilTokenExpiry(clock)).build()
+                : null;
+        this.cachedCounter = authentications(meterRegistry, "cached");
+        this.verifiedCounter = authentications(meterRegistry, "verified");
+        this.rejectedCounter = authentications(meterRegistry, "rejected");
+        Gauge.builder("foo.security.jwt.keys", keys, JwkSetSource::keyCount)
+                .description("JWT verification keys currently loaded from the JWK set")
+                .register(meterRegistry);
+        if (cache != null) {
+            Gauge.builder("foo.security.jwt.cache.size", cache, Cache::estimatedSize)
+                    .description("Verified JWTs kept in cache until their expiry")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @throws UnauthorizedException si le jeton est mal formé, mal signé, expiré ou destiné à un autre émetteur/audience
+     */
+    public Authentication authenticate(String token) {
+        if (cache == null) {
+            return verify(token).authentication();
+        }
+        String tokenHash = sha256(token);
+        VerifiedJwt cached = cache.getIfPresent(tokenHash);
+        if (cached != null && keys.isCurrent(cached.key())) {
+            cachedCounter.increment();
+            return cached.authentication();
+        }
+        VerifiedJwt verified = verify(token);
+        cache.put(tokenHash, verified);
+        return verified.authentication();
+    }
+
+    private VerifiedJwt verify(String token) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            JwkSetSource.VerificationKey key = keys.keyFor(jwt.getHeader());
+            if (key == null) {
+                throw reject("unknown signing key " + jwt.getHeader().getKeyID() + " or unsupported algorithm " + jwt.getHeader().getAlgorithm());
+            }
+            if (!jwt.verify(key.verifier())) {
+                throw reject("invalid signature");
+            }
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            Instant expiresAt = checkClaims(claims);
+            Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    claims.getSubject(), null, authorities(claims));
+            verifiedCounter.increment();
+            return new VerifiedJwt(authentication, key, expiresAt);
+        } catch (ParseException | JOSEException ex) {
+            throw reject("malformed token: " + ex.getMessage());
+        }
+    }
+
+    private Instant checkClaims(JWTClaimsSet claims) {
+        Instant now = clock.instant();
+        Date expiration = claims.getExpirationTime();
+        if (expiration == null) {
+            throw reject("missing exp claim");
+        }
+        if (now.isAfter(expiration.toInstant().plus(clockSkew))) {
+            throw reject("token expired at " + expiration.toInstant());
+        }
+        Date notBefore = claims.getNotBeforeTime();
+        if (notBefore != null && now.plus(clockSkew).isBefore(notBefore.toInstant())) {
+            throw reject("token not valid before " + notBefore.toInstant());
+        }
+        if (issuer != null && !issuer.equals(claims.getIssuer())) {
+            throw reject("unexpected issuer " + claims.getIssuer());
+        }
+        if (audience != null && (claims.getAudience() == null || !claims.getAudience().contains(audience))) {
+            throw reject("unexpected audience " + claims.getAudience());
+        }
+        if (claims.getSubject() == null || claims.getSubject().isBlank()) {
+            throw reject("missing sub claim");
+        }
+        return expiration.toInstant();
+    }
+
+    // Claim de rôles sous forme de liste ["USER", "ADMIN"] ou de chaîne "USER ADMIN" ; préfixe ROLE_ ajouté si absent
+    private Collection<GrantedAuthority> authorities(JWTClaimsSet claims) throws ParseException {
+        Object value = claims.getClaim(rolesClaim);
+        List<String> roles;
+        if (value == null) {
+            roles = List.of();
+        } else if (value instanceof String string) {
+            roles = Arrays.stream(string.split(" ")).filter(role -> !role.isBlank()).toList();
+        } else {
+            roles = claims.getStringListClaim(rolesClaim);
+        }
+        return roles.stream()
+                .map(role -> role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role)
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    private UnauthorizedException reject(String reason) {
+        rejectedCounter.increment();
+        return new UnauthorizedException("Bearer token rejected: " + reason);
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static Counter authentications(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("foo.security.jwt.authentications")
+                .description("Bearer token authentications, by outcome (cached = signature verification skipped)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Une entrée vit jusqu'à l'expiration du jeton : au-delà, le jeton serait de toute façon refusé
+    private record UntilTokenExpiry(Clock clock) implements Expiry<String, VerifiedJwt> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(value.expiresAt().toEpochMilli() - clock.millis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package service;
+
+import dto.FooAsyncCreateStatusDTO;
+import dto.FooRequestDTO;
+
+import java.util.UUID;
+
+public interface FooAsyncCreateService {
+    FooAsyncCreateStatusDTO submitFoo(FooRequestDTO fooRequestDTO);
+    FooAsyncCreateStatusDTO getStatus(UUID trackingId);
+}
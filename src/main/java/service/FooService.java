@@ -1,9 +1,31 @@
 package service;
 
+import dto.ExportFormat;
+import dto.FooBatchResponseDTO;
+import dto.FooMultiGetResponseDTO;
+import dto.FooPageResponseDTO;
+import dto.FooPatchRequestDTO;
 import dto.FooRequestDTO;
 import dto.FooResponseDTO;
+import dto.FooSearchHitDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
 
 public interface FooService {
     FooResponseDTO createFoo(FooRequestDTO fooRequestDTO);
+    FooBatchResponseDTO createFoos(List<FooRequestDTO> fooRequestDTOs);
     FooResponseDTO getFooById(Long id);
+    Long getFooVersion(Long id);
+    FooResponseDTO updateFoo(Long id, FooRequestDTO fooRequestDTO, Long expectedVersion);
+    FooResponseDTO patchFoo(Long id, FooPatchRequestDTO fooPatchRequestDTO, Long expectedVersion);
+    void deleteFoo(Long id, Long expectedVersion);
+    FooMultiGetResponseDTO getFoosByIds(Collection<Long> ids);
+    FooResponseDTO getFooByName(String name, boolean ignoreCase);
+    List<FooResponseDTO> findFoosByNamePrefix(String prefix, Integer size);
+    List<FooSearchHitDTO> searchFoos(String query, Integer size);
+    FooPageResponseDTO listFoos(String cursor, Integer size, String namePrefix);
+    long exportFoos(ExportFormat format, OutputStream out) throws IOException;
 }
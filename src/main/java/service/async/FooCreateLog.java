@@ -0,0 +1,208 @@
+package service.async;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal circulaire des créations asynchrones, projeté en mémoire (MappedByteBuffer) :
+ * un append est une simple copie mémoire, les pages sont écrites sur disque par l'OS et survivent
+ * à un arrêt brutal du processus (fsync=true pour survivre aussi à une panne de la machine).
+ * <p>
+ * Format d'un enregistrement, aligné sur 4 octets : [int longueur][int crc32c][long uuid msb][long uuid lsb][nom UTF-8].
+ * Une longueur 0 marque la fin du journal, -1 un retour au début du fichier.
+ * Les positions sont logiques (croissantes) ; la position physique est position % capacité.
+ * Le fichier "checkpoint" contient la position logique du premier enregistrement non encore écrit en base.
+ */
+public class FooCreateLog implements Closeable {
+
+    public record Entry(UUID trackingId, String name, long endPosition) {}
+
+    private static final String LOG_FILE = "foo-create.log";
+    private static final String CHECKPOINT_FILE = "foo-create.checkpoint";
+    private static final int HEADER_SIZE = 8;
+    private static final int UUID_SIZE = 16;
+    private static final int END_MARKER = 0;
+    private static final int WRAP_MARKER = -1;
+
+    private final FileChannel logChannel;
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer log;
+    private final MappedByteBuffer checkpoint;
+    private final int capacity;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long head;
+    private long tail;
+
+    private FooCreateLog(FileChannel logChannel, FileChannel checkpointChannel, int capacity, boolean fsync) throws IOException {
+        this.logChannel = logChannel;
+        this.checkpointChannel = checkpointChannel;
+        this.capacity = capacity;
+        this.fsync = fsync;
+        this.log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        this.head = checkpoint.getLong(0);
+    }
+
+    /**
+     * Ouvre (ou crée) le journal du répertoire. Un journal existant garde sa taille d'origine,
+     * quelle que soit la capacité demandée, pour que ses positions restent valides.
+     */
+    public static FooCreateLog open(Path directory, int requestedCapacity, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        Path logFile = directory.resolve(LOG_FILE);
+        boolean existing = Files.exists(logFile) && Files.size(logFile) > 0;
+        int capacity = existing ? (int) Files.size(logFile) : requestedCapacity & ~3;
+        FileChannel logChannel = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new FooCreateLog(logChannel, checkpointChannel, capacity, fsync);
+    }
+
+    /**
+     * Relit les enregistrements situés après le checkpoint (créations acceptées mais pas encore écrites en base)
+     * et positionne la fin du journal après le dernier enregistrement intact. À appeler une fois, avant tout append.
+     */
+    public List<Entry> recover() {
+        lock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>();
+            long position = head;
+            while (position - head < capacity) {
+                int offset = physical(position);
+                int length = log.getInt(offset);
+                if (length == WRAP_MARKER) {
+                    position += capacity - offset;
+                    continue;
+                }
+                // Fin du journal, ou enregistrement tronqué par un arrêt pendant l'écriture
+                if (length < UUID_SIZE || offset + HEADER_SIZE + length > capacity) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                log.get(offset + HEADER_SIZE, payload);
+                if (crc(payload) != log.getInt(offset + Integer.BYTES)) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                UUID trackingId = new UUID(buffer.getLong(), buffer.getLong());
+                String name = new String(payload, UUID_SIZE, length - UUID_SIZE, StandardCharsets.UTF_8);
+                position += recordSize(length);
+                entries.add(new Entry(trackingId, name, position));
+            }
+            tail = position;
+            // Écrase un éventuel enregistrement incomplet pour que les prochains appends repartent d'une fin propre
+            log.putInt(physical(tail), END_MARKER);
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement. Retourne null si le journal est plein (enregistrements non encore écrits en base).
+     */
+    public Entry append(UUID trackingId, String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(UUID_SIZE + nameBytes.length)
+                .putLong(trackingId.getMostSignificantBits())
+                .putLong(trackingId.getLeastSignificantBits())
+                .put(nameBytes)
+                .array();
+        int size = recordSize(payload.length);
+        int crc = crc(payload);
+
+        lock.lock();
+        try {
+            long start = tail;
+            int tailOffset = physical(tail);
+            if (tailOffset + size > capacity) {
+                start += capacity - tailOffset; // l'enregistrement ne chevauche jamais la fin du fichier
+            }
+            long end = start + size;
+            // Le marqueur de fin qui suit ne doit pas écraser un enregistrement non encore écrit en base
+            if (end + Integer.BYTES - head > capacity) {
+                return null;
+            }
+            int offset = physical(start);
+            log.putInt(physical(end), END_MARKER);
+            log.put(offset + HEADER_SIZE, payload);
+            log.putInt(offset + Integer.BYTES, crc);
+            // La longueur (ou le marqueur de retour au début) est écrite en dernier : elle publie l'enregistrement
+            log.putInt(offset, payload.length);
+            if (start != tail) {
+                log.putInt(tailOffset, WRAP_MARKER);
+            }
+            if (fsync) {
+                log.force();
+            }
+            tail = end;
+            return new Entry(trackingId, name, end);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Marque comme écrits en base tous les enregistrements situés avant la position donnée. */
+    public void checkpoint(long position) {
+        lock.lock();
+        try {
+            head = position;
+            checkpoint.putLong(0, position);
+            if (fsync) {
+                checkpoint.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Octets occupés par les enregistrements non encore écrits en base. */
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return tail - head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.force();
+        checkpoint.force();
+        logChannel.close();
+        checkpointChannel.close();
+    }
+
+    private int physical(long position) {
+        return (int) (position % capacity);
+    }
+
+    private static int recordSize(int payloadLength) {
+        return (HEADER_SIZE + payloadLength + 3) & ~3;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(payload);
+        return (int) crc32c.getValue();
+    }
+}
@@ -0,0 +1,371 @@
+package service.async;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dto.FooAsyncCreateStatusDTO;
+import dto.FooRequestDTO;
+import dto.FooResponseDTO;
+import entity.Foo;
+import entity.FooAsyncCreation;
+import exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mapper.FooMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import repository.FooAsyncCreationRepository;
+import repository.FooRepository;
+import service.event.FooChangedEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Création différée (write-behind) : les demandes sont ajoutées au journal FooCreateLog puis écrites en base
+ * par un thread unique, par lots, via FooRepository.persistAll. Au démarrage, les demandes du journal
+ * non encore écrites en base sont rejouées.
+ * <p>
+ * Chaque création écrite est enregistrée dans foo_async_creations (migration V10), dans la transaction du Foo :
+ * un arrêt entre le commit d'un lot et l'avancée du checkpoint fait rejouer ce lot au redémarrage, mais les
+ * demandes déjà enregistrées ne sont pas recréées. Les états sont servis depuis la mémoire, puis depuis cette
+ * table après un redémarrage ; ses lignes sont purgées après foo.async.status-ttl.
+ */
+@Component
+@Slf4j
+public class FooWriteBehindWriter {
+
+    private final FooRepository fooRepository;
+    private final FooAsyncCreationRepository fooAsyncCreationRepository;
+    private final FooMapper fooMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path logDirectory;
+    private final DataSize logSize;
+    private final boolean fsync;
+    private final int maxPending;
+    private final int batchSize;
+    private final Duration retryBackoff;
+    private final Duration statusTtl;
+    private final Cache<UUID, FooAsyncCreateStatusDTO> statuses;
+    private final Counter rejectedCounter;
+
+    // Demandes journalisées et pas encore écrites en base, dans l'ordre du journal
+    private final ArrayDeque<FooCreateLog.Entry> pending = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private FooCreateLog createLog;
+    private Thread writerThread;
+    private ScheduledExecutorService purger;
+    private volatile boolean running;
+    // Demandes rejouées depuis le journal et pas encore écrites : les seules qui peuvent déjà être en base
+    private volatile int replaying;
+
+    public FooWriteBehindWriter(FooRepository fooRepository,
+                                FooAsyncCreationRepository fooAsyncCreationRepository,
+                                FooMapper fooMapper,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${foo.async.log-dir:data/async-create}") Path logDirectory,
+                                @Value("${foo.async.log-size:64MB}") DataSize logSize,
+                                @Value("${foo.async.fsync:false}") boolean fsync,
+                                @Value("${foo.async.max-pending:10000}") int maxPending,
+                                @Value("${foo.async.batch-size:500}") int batchSize,
+                                @Value("${foo.async.retry-backoff:1s}") Duration retryBackoff,
+                                @Value("${foo.async.status-ttl:1h}") Duration statusTtl) {
+        this.fooRepository = fooRepository;
+        this.fooAsyncCreationRepository = fooAsyncCreationRepository;
+        this.fooMapper = fooMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.logDirectory = logDirectory;
+        this.logSize = logSize;
+        this.fsync = fsync;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.retryBackoff = retryBackoff;
+        this.statusTtl = statusTtl;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxPending, 1) * 10L)
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.rejectedCounter = Counter.builder("foo.async.rejected")
+                .description("Async create requests rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        Gauge.builder("foo.async.pending", this, FooWriteBehindWriter::pendingCount)
+                .description("Async create requests logged but not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        createLog = FooCreateLog.open(logDirectory, (int) Math.min(logSize.toBytes(), Integer.MAX_VALUE), fsync);
+        List<FooCreateLog.Entry> recovered = createLog.recover();
+        for (FooCreateLog.Entry entry : recovered) {
+            pending.addLast(entry);
+            statuses.put(entry.trackingId(), FooAsyncCreateStatusDTO.pending(entry.trackingId()));
+        }
+        replaying = recovered.size();
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} async Foo creations from {}", recovered.size(), logDirectory.toAbsolutePath());
+        }
+        running = true;
+        writerThread = Thread.ofPlatform().name("foo-write-behind").daemon().start(this::drainLoop);
+        purger = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("foo-write-behind-purge").daemon().factory());
+        purger.scheduleWithFixedDelay(this::purge, statusTtl.toMillis(), statusTtl.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Les demandes non encore écrites restent dans le journal et seront rejouées au prochain démarrage
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        purger.shutdownNow();
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        createLog.close();
+    }
+
+    /**
+     * Journalise une création. Au retour, la demande survivra à un redémarrage du processus.
+     * Rejette en 503 au-delà de foo.async.max-pending demandes en attente ou si le journal est plein.
+     */
+    public FooAsyncCreateStatusDTO submit(String name) {
+        UUID trackingId = UUID.randomUUID();
+        lock.lock();
+        try {
+            if (pending.size() >= maxPending) {
+                rejectedCounter.increment();
+                throw new ServiceUnavailableException("Async create queue is full (" + maxPending + " pending requests)");
+            }
+            FooCreateLog.Entry entry = createLog.append(trackingId, name);
+            if (entry == null) {
+                rejectedCounter.increment();
+                throw new ServiceUnavailableException("Async create log is full");
+            }
+            pending.addLast(entry);
+            FooAsyncCreateStatusDTO status = FooAsyncCreateStatusDTO.pending(trackingId);
+            statuses.put(trackingId, status);
+            notEmpty.signal();
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** État d'une création connu en mémoire, ou null (voir recordedStatus). */
+    public FooAsyncCreateStatusDTO status(UUID trackingId) {
+        return statuses.getIfPresent(trackingId);
+    }
+
+    /**
+     * État d'une création d'après foo_async_creations, pour une demande absente de la mémoire (écrite avant un
+     * redémarrage), ou null si l'identifiant est inconnu ou expiré (foo.async.status-ttl).
+     */
+    public FooAsyncCreateStatusDTO recordedStatus(UUID trackingId) {
+        FooAsyncCreateStatusDTO status = fooAsyncCreationRepository.findById(trackingId)
+                .map(this::statusOf)
+                .orElse(null);
+        // État définitif : les interrogations suivantes sont servies depuis la mémoire
+        if (status != null) {
+            statuses.put(trackingId, status);
+        }
+        return status;
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            List<FooCreateLog.Entry> batch = nextBatch();
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    // Les entrées restent dans la file tant qu'elles ne sont pas écrites : seul ce thread les retire
+    private List<FooCreateLog.Entry> nextBatch() {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && running) {
+                notEmpty.await();
+            }
+            List<FooCreateLog.Entry> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            Iterator<FooCreateLog.Entry> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+            }
+            return batch;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<FooCreateLog.Entry> batch) {
+        try {
+            persist(batch);
+            complete(batch);
+            return;
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                backOff(batch.size(), ex);
+                return;
+            }
+            log.warn("Write-behind batch of {} Foos rolled back, retrying one by one: {}", batch.size(), ex.getMessage());
+        }
+        // Isole les demandes en erreur (contrainte violée...) pour ne pas bloquer le reste de la file
+        for (FooCreateLog.Entry entry : batch) {
+            try {
+                persist(List.of(entry));
+            } catch (RuntimeException ex) {
+                if (isTransient(ex)) {
+                    backOff(1, ex);
+                    return;
+                }
+                log.warn("Async creation {} failed: {}", entry.trackingId(), ex.getMessage());
+                recordFailure(entry.trackingId(), ex.getMessage());
+            }
+            complete(List.of(entry));
+        }
+    }
+
+    private void persist(List<FooCreateLog.Entry> entries) {
+        List<FooCreateLog.Entry> toCreate = replaying > 0 ? notRecorded(entries) : entries;
+        if (toCreate.isEmpty()) {
+            return;
+        }
+        List<Foo> foos = toCreate.stream()
+                .map(entry -> fooMapper.toEntity(new FooRequestDTO(entry.name())))
+                .toList();
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            fooRepository.persistAll(foos);
+            List<FooAsyncCreation> creations = new ArrayList<>(toCreate.size());
+            for (int i = 0; i < toCreate.size(); i++) {
+                creations.add(FooAsyncCreation.committed(toCreate.get(i).trackingId(), foos.get(i).getId(), now));
+            }
+            fooAsyncCreationRepository.saveAll(creations);
+            foos.forEach(foo -> eventPublisher.publishEvent(new FooChangedEvent(foo.getId(), FooChangedEvent.Type.CREATED, foo.getName(), foo.getVersion())));
+        });
+        for (int i = 0; i < toCreate.size(); i++) {
+            UUID trackingId = toCreate.get(i).trackingId();
+            statuses.put(trackingId, FooAsyncCreateStatusDTO.committed(trackingId, fooMapper.toResponseDTO(foos.get(i))));
+        }
+    }
+
+    // Rejeu : demandes déjà écrites avant l'arrêt (commit passé, checkpoint pas encore avancé), à ne pas recréer
+    private List<FooCreateLog.Entry> notRecorded(List<FooCreateLog.Entry> entries) {
+        Map<UUID, FooAsyncCreation> recorded = fooAsyncCreationRepository.findAllById(
+                        entries.stream().map(FooCreateLog.Entry::trackingId).toList()).stream()
+                .collect(Collectors.toMap(FooAsyncCreation::getTrackingId, Function.identity()));
+        if (recorded.isEmpty()) {
+            return entries;
+        }
+        log.info("Skipping {} replayed async Foo creations already written before the restart", recorded.size());
+        recorded.values().forEach(creation -> statuses.put(creation.getTrackingId(), statusOf(creation)));
+        return entries.stream().filter(entry -> !recorded.containsKey(entry.trackingId())).toList();
+    }
+
+    private FooAsyncCreateStatusDTO statusOf(FooAsyncCreation creation) {
+        if (creation.getFooId() == null) {
+            return FooAsyncCreateStatusDTO.failed(creation.getTrackingId(), creation.getError());
+        }
+        // Foo supprimé depuis sa création : la création reste COMMITTED, sans Foo
+        FooResponseDTO foo = fooRepository.findAllByIdIn(List.of(creation.getFooId())).stream().findFirst().orElse(null);
+        return FooAsyncCreateStatusDTO.committed(creation.getTrackingId(), foo);
+    }
+
+    // Hors de la transaction annulée : l'échec reste consultable après un redémarrage
+    private void recordFailure(UUID trackingId, String error) {
+        statuses.put(trackingId, FooAsyncCreateStatusDTO.failed(trackingId, error));
+        try {
+            fooAsyncCreationRepository.save(FooAsyncCreation.failed(trackingId, error, Instant.now()));
+        } catch (DataAccessException ex) {
+            log.warn("Could not record failed async creation {}: {}", trackingId, ex.getMessage());
+        }
+    }
+
+    private void complete(List<FooCreateLog.Entry> entries) {
+        lock.lock();
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                pending.pollFirst();
+            }
+            replaying = Math.max(0, replaying - entries.size());
+        } finally {
+            lock.unlock();
+        }
+        createLog.checkpoint(entries.get(entries.size() - 1).endPosition());
+    }
+
+    // Pas pendant le rejeu : les lignes des demandes rejouées doivent rester jusqu'à leur vérification
+    private void purge() {
+        if (replaying > 0) {
+            return;
+        }
+        try {
+            int purged = fooAsyncCreationRepository.deleteCreatedBefore(Instant.now().minus(statusTtl));
+            log.debug("Purged {} expired async creations", purged);
+        } catch (DataAccessException ex) {
+            log.warn("Could not purge expired async creations: {}", ex.getMessage());
+        }
+    }
+
+    // Base indisponible : les demandes restent en file et seront retentées, elles ne sont pas marquées en échec
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof TransactionException;
+    }
+
+    private void backOff(int size, RuntimeException ex) {
+        log.warn("Write-behind of {} Foos postponed for {}: {}", size, retryBackoff, ex.getMessage());
+        LockSupport.parkNanos(retryBackoff.toNanos());
+    }
+}
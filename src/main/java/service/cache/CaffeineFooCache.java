@@ -0,0 +1,206 @@
+package service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dto.FooResponseDTO;
+import entity.Foo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implémentation Caffeine (éviction W-TinyLFU, bornée en taille, avec TTL).
+ * Les compteurs hit/miss/eviction sont exportés sous les noms de cache "foo.byId", "foo.byId.missing" et "foo.byName".
+ * <p>
+ * Chaque invalidation reçoit un numéro croissant, conservé par id ; un jeton (loadToken) est le dernier numéro
+ * attribué. Un put dont le jeton est antérieur à la dernière invalidation de l'id est ignoré. Les numéros évincés
+ * (taille, expiration) relèvent un plancher commun : les jetons antérieurs sont alors tous refusés, par prudence.
+ * Le contrôle et l'écriture se font dans un même compute : une invalidation concurrente enregistre son numéro
+ * avant de retirer l'entrée, le put la voit donc ou est retiré après elle.
+ * <p>
+ * Un index inverse id → clés de nom évite de parcourir tout le cache des noms à chaque renommage ou suppression.
+ * Il peut garder une clé déjà remplacée : la suppression par id ne retire la clé que si elle désigne encore cet id.
+ */
+public class CaffeineFooCache implements FooCache {
+
+    // Bien plus longue qu'une lecture en base : au-delà, un numéro évincé ne fait que relever le plancher
+    private static final Duration INVALIDATION_RETENTION = Duration.ofMinutes(1);
+
+    private final Cache<Long, FooResponseDTO> foos;
+    private final Cache<Long, Boolean> missingIds;
+    // Clé : '=' + nom exact, ou '~' + nom en minuscules pour les recherches insensibles à la casse
+    private final Cache<String, Long> idsByName;
+    private final ConcurrentMap<Long, Set<String>> nameKeysById = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    // Id → numéro de sa dernière invalidation ; conservé plus longtemps que toute lecture en base
+    private final Cache<Long, Long> invalidations;
+    // Plus grand numéro évincé de invalidations (ou attribué par invalidateAll)
+    private final AtomicLong invalidationFloor = new AtomicLong();
+
+    public CaffeineFooCache(long maximumSize, Duration ttl, long negativeMaximumSize, Duration negativeTtl,
+                            long nameMaximumSize, MeterRegistry meterRegistry) {
+        this.foos = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.missingIds = Caffeine.newBuilder()
+                .maximumSize(negativeMaximumSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(nameMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .evictionListener((String key, Long id, RemovalCause cause) -> forgetNameKey(id, key))
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(INVALIDATION_RETENTION)
+                .evictionListener((Long id, Long sequence, RemovalCause cause) ->
+                        invalidationFloor.accumulateAndGet(sequence, Math::max))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, foos, "foo.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingIds, "foo.byId.missing");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByName, "foo.byName");
+    }
+
+    @Override
+    public FooResponseDTO getIfPresent(Long id) {
+        return foos.getIfPresent(id);
+    }
+
+    @Override
+    public boolean isKnownMissing(Long id) {
+        return missingIds.getIfPresent(id) != null;
+    }
+
+    @Override
+    public long loadToken() {
+        return invalidationSequence.get();
+    }
+
+    @Override
+    public void put(FooResponseDTO foo, long loadToken) {
+        foos.asMap().compute(foo.id(), (id, cached) -> {
+            if (invalidatedSince(id, loadToken) || isNewer(cached, foo)) {
+                return cached;
+            }
+            missingIds.invalidate(id);
+            return foo;
+        });
+    }
+
+    @Override
+    public void putMissing(Long id, long loadToken) {
+        missingIds.asMap().compute(id, (key, missing) -> invalidatedSince(key, loadToken) ? missing : Boolean.TRUE);
+    }
+
+    @Override
+    public void invalidate(Long id) {
+        recordInvalidation(id);
+        foos.invalidate(id);
+        missingIds.invalidate(id);
+    }
+
+    @Override
+    public void invalidateOlderThan(Long id, long version) {
+        if (version < 0) {
+            invalidate(id);
+            return;
+        }
+        recordInvalidation(id);
+        foos.asMap().computeIfPresent(id, (key, cached) -> cached.version() != null && cached.version() >= version ? cached : null);
+        missingIds.invalidate(id);
+    }
+
+    @Override
+    public Long getIdByName(String name, boolean ignoreCase) {
+        return idsByName.getIfPresent(nameKey(name, ignoreCase));
+    }
+
+    // Index inverse alimenté avant le cache : une invalidation par id ne peut pas manquer la clé
+    @Override
+    public void putIdByName(String name, boolean ignoreCase, Long id) {
+        String key = nameKey(name, ignoreCase);
+        nameKeysById.compute(id, (fooId, keys) -> {
+            Set<String> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            updated.add(key);
+            return updated;
+        });
+        Long previous = idsByName.asMap().put(key, id);
+        if (previous != null && !previous.equals(id)) {
+            forgetNameKey(previous, key);
+        }
+    }
+
+    @Override
+    public void invalidateName(String name) {
+        invalidateNameKey(nameKey(name, false));
+        invalidateNameKey(nameKey(name, true));
+    }
+
+    @Override
+    public void invalidateNamesOf(Long id) {
+        Set<String> keys = nameKeysById.remove(id);
+        if (keys != null) {
+            keys.forEach(key -> idsByName.asMap().remove(key, id));
+        }
+    }
+
+    @Override
+    public void invalidateNamesOf(Collection<Long> ids) {
+        ids.forEach(this::invalidateNamesOf);
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidationFloor.accumulateAndGet(invalidationSequence.incrementAndGet(), Math::max);
+        foos.invalidateAll();
+        missingIds.invalidateAll();
+        idsByName.invalidateAll();
+        nameKeysById.clear();
+    }
+
+    private void invalidateNameKey(String key) {
+        Long id = idsByName.asMap().remove(key);
+        if (id != null) {
+            forgetNameKey(id, key);
+        }
+    }
+
+    private void forgetNameKey(Long id, String key) {
+        nameKeysById.computeIfPresent(id, (fooId, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void recordInvalidation(Long id) {
+        invalidations.put(id, invalidationSequence.incrementAndGet());
+    }
+
+    private boolean invalidatedSince(Long id, long loadToken) {
+        if (loadToken < invalidationFloor.get()) {
+            return true;
+        }
+        Long sequence = invalidations.getIfPresent(id);
+        return sequence != null && sequence > loadToken;
+    }
+
+    private static boolean isNewer(FooResponseDTO cached, FooResponseDTO foo) {
+        return cached != null && cached.version() != null && (foo.version() == null || cached.version() > foo.version());
+    }
+
+    private static String nameKey(String name, boolean ignoreCase) {
+        return ignoreCase ? "~" + Foo.nameKeyOf(name) : "=" + name;
+    }
+}
@@ -0,0 +1,57 @@
+package service.cache;
+
+import dto.FooResponseDTO;
+
+import java.util.Collection;
+
+/**
+ * Cache local des FooResponseDTO par id, placé devant FooRepository.findById.
+ * Les ids absents peuvent aussi être mémorisés brièvement pour ne pas solliciter la base sur les 404 répétés.
+ * Un second cache associe un nom (exact ou insensible à la casse) à l'id du Foo correspondant.
+ */
+public interface FooCache {
+
+    /** Retourne le Foo en cache, ou null si l'id n'est pas en cache. */
+    FooResponseDTO getIfPresent(Long id);
+
+    /** Indique si l'id a été récemment recherché sans succès. */
+    boolean isKnownMissing(Long id);
+
+    /**
+     * Jeton à prendre avant une lecture en base dont le résultat sera mis en cache. put et putMissing ignorent
+     * un résultat si l'id a été invalidé depuis la prise du jeton : une lecture commencée avant un commit ne peut
+     * pas remettre en cache la valeur que l'invalidation après commit vient d'effacer.
+     */
+    long loadToken();
+
+    /** Met le Foo en cache, sauf s'il a été invalidé depuis loadToken ou si une version plus récente y est déjà. */
+    void put(FooResponseDTO foo, long loadToken);
+
+    /** Mémorise l'id comme absent, sauf s'il a été invalidé depuis loadToken. */
+    void putMissing(Long id, long loadToken);
+
+    void invalidate(Long id);
+
+    /**
+     * Oublie le Foo en cache s'il est antérieur à version (version inconnue : toujours), ainsi que l'id s'il est
+     * marqué absent. Utilisé pour les invalidations reçues des autres instances, qui peuvent arriver après un
+     * rechargement plus récent.
+     */
+    void invalidateOlderThan(Long id, long version);
+
+    /** Retourne l'id associé au nom, ou null si le nom n'est pas en cache. */
+    Long getIdByName(String name, boolean ignoreCase);
+
+    void putIdByName(String name, boolean ignoreCase, Long id);
+
+    /** Oublie le nom, dans ses deux variantes (exacte et insensible à la casse). */
+    void invalidateName(String name);
+
+    /** Oublie tous les noms associés à l'id (le Foo a été renommé ou supprimé). */
+    void invalidateNamesOf(Long id);
+
+    /** Comme invalidateNamesOf(Long), pour plusieurs ids. */
+    void invalidateNamesOf(Collection<Long> ids);
+
+    void invalidateAll();
+}
@@ -0,0 +1,51 @@
+package service.cache;
+
+import datasource.ReplicaAwareDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import service.coalescing.FooLoadCoalescer;
+import service.event.FooChangedEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FooCacheInvalidationListener {
+
+    private final FooCache fooCache;
+    private final FooLoadCoalescer fooLoadCoalescer;
+    private final ObjectProvider<ReplicaAwareDataSource> replicaAwareDataSource;
+
+    // Après commit uniquement : invalider avant le commit laisserait un lecteur concurrent
+    // recharger l'ancienne valeur dans le cache
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFooChanged(FooChangedEvent event) {
+        invalidate(event);
+        // Avec des réplicas, une lecture sur un réplica en retard peut remettre l'ancienne valeur en cache
+        // (ou marquer absent un Foo créé) : seconde invalidation une fois ce retard maximal écoulé
+        ReplicaAwareDataSource routing = replicaAwareDataSource.getIfAvailable();
+        if (routing != null) {
+            CompletableFuture.delayedExecutor(routing.replicaPool().staleReadBound().toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> invalidate(event));
+        }
+    }
+
+    private void invalidate(FooChangedEvent event) {
+        log.debug("Invalidating cached Foo {} ({})", event.id(), event.type());
+        fooCache.invalidate(event.id());
+        // Un chargement commencé avant le commit peut lire l'ancienne valeur : les lectures suivantes ne l'attendent pas
+        fooLoadCoalescer.forget(event.id());
+        // Ancien nom (renommage, suppression) et nouveau nom : un autre Foo peut désormais être le premier à le porter
+        if (event.type() != FooChangedEvent.Type.CREATED) {
+            fooCache.invalidateNamesOf(event.id());
+        }
+        if (event.name() != null) {
+            fooCache.invalidateName(event.name());
+        }
+    }
+}
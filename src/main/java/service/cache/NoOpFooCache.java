@@ -0,0 +1,67 @@
+package service.cache;
+
+import dto.FooResponseDTO;
+
+import java.util.Collection;
+
+/**
+ * Désactive le cache (foo.cache.type=none) : chaque lecture va en base.
+ */
+public class NoOpFooCache implements FooCache {
+
+    @Override
+    public FooResponseDTO getIfPresent(Long id) {
+        return null;
+    }
+
+    @Override
+    public boolean isKnownMissing(Long id) {
+        return false;
+    }
+
+    @Override
+    public long loadToken() {
+        return 0;
+    }
+
+    @Override
+    public void put(FooResponseDTO foo, long loadToken) {
+    }
+
+    @Override
+    public void putMissing(Long id, long loadToken) {
+    }
+
+    @Override
+    public void invalidate(Long id) {
+    }
+
+    @Override
+    public void invalidateOlderThan(Long id, long version) {
+    }
+
+    @Override
+    public Long getIdByName(String name, boolean ignoreCase) {
+        return null;
+    }
+
+    @Override
+    public void putIdByName(String name, boolean ignoreCase, Long id) {
+    }
+
+    @Override
+    public void invalidateName(String name) {
+    }
+
+    @Override
+    public void invalidateNamesOf(Long id) {
+    }
+
+    @Override
+    public void invalidateNamesOf(Collection<Long> ids) {
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+}
@@ -0,0 +1,337 @@
+package service.cache.coherence;
+
+import datasource.ReplicaAwareDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import service.cache.FooCache;
+import service.coalescing.FooLoadCoalescer;
+import service.event.FooChangedEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cohérence des caches de Foos entre instances : chaque écriture validée sur cette instance est diffusée aux autres
+ * (id et version après l'écriture) par le FooInvalidationTransport configuré (foo.cache.coherence.transport), et
+ * les invalidations reçues sont appliquées au FooCache local. Sans transport, rien n'est diffusé.
+ * <p>
+ * Les écritures sont regroupées pendant flush-interval (ou jusqu'à max-batch-size Foos) et fusionnées par id :
+ * plusieurs écritures d'un même Foo ne produisent qu'une entrée. Une invalidation reçue n'efface une entrée
+ * en cache que si elle est antérieure à la version annoncée.
+ * <p>
+ * Le transport peut perdre des messages. Chaque instance envoie au moins un message toutes les heartbeat-interval,
+ * numérotés sans trou : un trou dans les seq d'une instance, ou son silence au-delà de peer-timeout, vide tout
+ * le cache local. La durée pendant laquelle une lecture peut rester périmée est ainsi bornée par
+ * flush-interval + max(heartbeat-interval, peer-timeout), en plus du délai de transport.
+ * Le premier message d'une instance inconnue (démarrée avant celle-ci, ou oubliée après peer-timeout, ce qui a déjà
+ * vidé le cache) fixe le point de départ de ses seq, sans vidage.
+ * <p>
+ * Les entrées nom → id ne sont invalidées que par id (le message ne porte pas de nom) : celle d'un nom nouvellement
+ * attribué reste bornée par foo.cache.ttl.
+ */
+@Component
+@Slf4j
+public class FooCacheCoherence {
+
+    private record Peer(long lastSeq, long lastSeenNanos) {}
+
+    private final FooCache fooCache;
+    private final FooLoadCoalescer fooLoadCoalescer;
+    private final ObjectProvider<ReplicaAwareDataSource> replicaAwareDataSource;
+    // null si foo.cache.coherence.transport=none
+    private final FooInvalidationTransport transport;
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final Duration flushInterval;
+    private final int maxBatchSize;
+    private final long heartbeatIntervalNanos;
+    private final long peerTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Id → version la plus récente à diffuser (UNKNOWN_VERSION l'emporte : suppression)
+    private final Map<Long, Long> pending = new HashMap<>();
+    private long oldestPendingMillis;
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private long nextSeq = 1;
+    private long lastSentNanos = System.nanoTime();
+    private final ConcurrentHashMap<Long, Peer> peers = new ConcurrentHashMap<>();
+    private final Counter sentInvalidations;
+    private final Counter receivedInvalidations;
+    private final Counter sentMessages;
+    private final Counter receivedMessages;
+    private final Counter sendFailures;
+    private final Counter gapFlushes;
+    private final Counter peerTimeoutFlushes;
+    private final Timer lag;
+    private volatile Thread sender;
+    private volatile boolean running;
+
+    public FooCacheCoherence(FooCache fooCache,
+                             FooLoadCoalescer fooLoadCoalescer,
+                             ObjectProvider<ReplicaAwareDataSource> replicaAwareDataSource,
+                             ObjectProvider<FooInvalidationTransport> transport,
+                             MeterRegistry meterRegistry,
+                             @Value("${foo.cache.coherence.flush-interval:20ms}") Duration flushInterval,
+                             @Value("${foo.cache.coherence.max-batch-size:80}") int maxBatchSize,
+                             @Value("${foo.cache.coherence.heartbeat-interval:1s}") Duration heartbeatInterval,
+                             @Value("${foo.cache.coherence.peer-timeout:5s}") Duration peerTimeout) {
+        this.fooCache = fooCache;
+        this.fooLoadCoalescer = fooLoadCoalescer;
+        this.replicaAwareDataSource = replicaAwareDataSource;
+        this.transport = transport.getIfAvailable();
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = Math.min(maxBatchSize, FooInvalidationMessage.MAX_ENTRIES);
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        this.peerTimeoutNanos = peerTimeout.toNanos();
+        this.sentInvalidations = invalidations(meterRegistry, "sent");
+        this.receivedInvalidations = invalidations(meterRegistry, "received");
+        this.sentMessages = messages(meterRegistry, "sent");
+        this.receivedMessages = messages(meterRegistry, "received");
+        this.sendFailures = Counter.builder("foo.cache.coherence.send.failures")
+                .description("Invalidation messages the transport failed to send (peers flush their cache on the resulting gap)")
+                .register(meterRegistry);
+        this.gapFlushes = flushes(meterRegistry, "gap");
+        this.peerTimeoutFlushes = flushes(meterRegistry, "peer-timeout");
+        this.lag = Timer.builder("foo.cache.coherence.lag")
+                .description("Time from a write committed on a peer to the invalidation applied on this instance (includes clock skew)")
+                .register(meterRegistry);
+        Gauge.builder("foo.cache.coherence.peers", peers, Map::size)
+                .description("Peer instances currently heard from")
+                .register(meterRegistry);
+        Gauge.builder("foo.cache.coherence.pending", this, FooCacheCoherence::pendingCount)
+                .description("Foo ids waiting to be broadcast to peers")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (transport == null) {
+            return;
+        }
+        transport.start(this::receive);
+        running = true;
+        sender = Thread.ofPlatform().name("foo-cache-coherence").daemon().start(this::sendLoop);
+    }
+
+    // Le transport est fermé ensuite par le conteneur
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (transport != null) {
+            flush();
+        }
+    }
+
+    // Après commit uniquement, comme l'invalidation locale : avant, un pair pourrait recharger l'ancienne valeur
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFooChanged(FooChangedEvent event) {
+        if (transport == null) {
+            return;
+        }
+        long version = event.version() != null ? event.version() : FooInvalidationMessage.UNKNOWN_VERSION;
+        int size;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                oldestPendingMillis = System.currentTimeMillis();
+            }
+            pending.merge(event.id(), version, FooCacheCoherence::newer);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        Thread current = sender;
+        if (size >= maxBatchSize && current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Diffuse immédiatement les invalidations en attente, par messages d'au plus max-batch-size Foos.
+     * Un message que le transport n'a pas pu envoyer n'est pas renvoyé : son seq manquera aux pairs.
+     * @return le nombre de Foos diffusés
+     */
+    public int flush() {
+        long[] ids;
+        long[] versions;
+        long oldestMillis;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            ids = new long[pending.size()];
+            versions = new long[ids.length];
+            int i = 0;
+            for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+                ids[i] = entry.getKey();
+                versions[i++] = entry.getValue();
+            }
+            pending.clear();
+            oldestMillis = oldestPendingMillis;
+        } finally {
+            lock.unlock();
+        }
+        for (int from = 0; from < ids.length; from += maxBatchSize) {
+            int to = Math.min(ids.length, from + maxBatchSize);
+            long[] chunkIds = Arrays.copyOfRange(ids, from, to);
+            long[] chunkVersions = Arrays.copyOfRange(versions, from, to);
+            send(oldestMillis, chunkIds, chunkVersions);
+        }
+        sentInvalidations.increment(ids.length);
+        return ids.length;
+    }
+
+    /**
+     * Oublie les pairs silencieux depuis plus de peer-timeout et vide alors le cache local : leurs derniers
+     * messages ont pu être perdus.
+     */
+    public void expirePeers() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Peer> entry : peers.entrySet()) {
+            if (now - entry.getValue().lastSeenNanos() > peerTimeoutNanos && peers.remove(entry.getKey(), entry.getValue())) {
+                log.warn("No cache invalidation from peer {} for {} ms, flushing the local Foo cache",
+                        Long.toHexString(entry.getKey()), TimeUnit.NANOSECONDS.toMillis(peerTimeoutNanos));
+                peerTimeoutFlushes.increment();
+                fooCache.invalidateAll();
+            }
+        }
+    }
+
+    private void sendLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushInterval.toNanos());
+            if (flush() == 0 && System.nanoTime() - lastSentNanos >= heartbeatIntervalNanos) {
+                send(System.currentTimeMillis(), new long[0], new long[0]);
+            }
+            expirePeers();
+        }
+    }
+
+    private void send(long oldestChangeMillis, long[] ids, long[] versions) {
+        sendLock.lock();
+        try {
+            FooInvalidationMessage message = new FooInvalidationMessage(nodeId, nextSeq++, oldestChangeMillis, ids, versions);
+            lastSentNanos = System.nanoTime();
+            transport.send(message.encode());
+            sentMessages.increment();
+        } catch (IOException | RuntimeException ex) {
+            sendFailures.increment();
+            log.warn("Could not broadcast {} Foo cache invalidations: {}", ids.length, ex.getMessage());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void receive(ByteBuffer buffer) {
+        FooInvalidationMessage message;
+        try {
+            message = FooInvalidationMessage.decode(buffer);
+        } catch (IllegalArgumentException ex) {
+            log.debug("Ignoring cache invalidation datagram: {}", ex.getMessage());
+            return;
+        }
+        if (message.nodeId() == nodeId) {
+            return;
+        }
+        receivedMessages.increment();
+        if (missedMessages(message)) {
+            log.warn("Lost cache invalidations from peer {} before seq {}, flushing the local Foo cache",
+                    Long.toHexString(message.nodeId()), message.seq());
+            gapFlushes.increment();
+            fooCache.invalidateAll();
+        }
+        if (message.size() == 0) {
+            return;
+        }
+        apply(message);
+        receivedInvalidations.increment(message.size());
+        lag.record(Math.max(0, System.currentTimeMillis() - message.oldestChangeMillis()), TimeUnit.MILLISECONDS);
+        // Comme pour les écritures locales : une lecture sur un réplica en retard peut remettre l'ancienne version
+        ReplicaAwareDataSource routing = replicaAwareDataSource.getIfAvailable();
+        if (routing != null) {
+            CompletableFuture.delayedExecutor(routing.replicaPool().staleReadBound().toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> apply(message));
+        }
+    }
+
+    // Pair inconnu : aucun message antérieur attendu, son seq courant sert de point de départ
+    private boolean missedMessages(FooInvalidationMessage message) {
+        boolean[] missed = new boolean[1];
+        long now = System.nanoTime();
+        peers.compute(message.nodeId(), (id, peer) -> {
+            missed[0] = peer != null && message.seq() > peer.lastSeq() + 1;
+            return new Peer(peer == null ? message.seq() : Math.max(peer.lastSeq(), message.seq()), now);
+        });
+        return missed[0];
+    }
+
+    private void apply(FooInvalidationMessage message) {
+        List<Long> renamedOrDeleted = new ArrayList<>();
+        for (int i = 0; i < message.size(); i++) {
+            long id = message.ids()[i];
+            long version = message.versions()[i];
+            fooCache.invalidateOlderThan(id, version);
+            fooLoadCoalescer.forget(id);
+            // Version 0 : création, aucun ancien nom ne peut désigner ce Foo
+            if (version != 0) {
+                renamedOrDeleted.add(id);
+            }
+        }
+        fooCache.invalidateNamesOf(renamedOrDeleted);
+    }
+
+    private int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Long newer(Long a, Long b) {
+        return a < 0 || b < 0 ? FooInvalidationMessage.UNKNOWN_VERSION : Math.max(a, b);
+    }
+
+    private static Counter invalidations(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("foo.cache.coherence.invalidations")
+                .description("Foo ids broadcast to or received from peer instances")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static Counter messages(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("foo.cache.coherence.messages")
+                .description("Invalidation messages (including heartbeats) broadcast to or received from peer instances")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static Counter flushes(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("foo.cache.coherence.flushes")
+                .description("Full flushes of the local Foo cache after possibly lost invalidations")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package service.cache.coherence;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Message d'invalidation échangé entre instances : en-tête de 29 octets puis 16 octets par Foo modifié (id, version
+ * après l'écriture, ou UNKNOWN_VERSION pour une suppression). MAX_ENTRIES garde un message dans un datagramme UDP
+ * sans fragmentation (MTU Ethernet). Un message sans entrée sert de battement de cœur.
+ * <p>
+ * seq est numéroté par l'instance émettrice, sans trou : un seq manquant à la réception signale un message perdu.
+ * oldestChangeMillis est l'heure du plus ancien commit du message, d'où se mesure le retard d'invalidation.
+ */
+public record FooInvalidationMessage(long nodeId, long seq, long oldestChangeMillis, long[] ids, long[] versions) {
+
+    public static final long UNKNOWN_VERSION = -1;
+    public static final int MAX_ENTRIES = 80;
+
+    private static final short MAGIC = (short) 0xF00C;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 2 + 1 + 8 + 8 + 8 + 2;
+    private static final int ENTRY_SIZE = 16;
+
+    public FooInvalidationMessage {
+        if (ids.length != versions.length || ids.length > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Invalid invalidation message: " + ids.length + " ids, " + versions.length + " versions");
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + ids.length * ENTRY_SIZE)
+                .putShort(MAGIC)
+                .put(FORMAT_VERSION)
+                .putLong(nodeId)
+                .putLong(seq)
+                .putLong(oldestChangeMillis)
+                .putShort((short) ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            buffer.putLong(ids[i]).putLong(versions[i]);
+        }
+        return buffer.array();
+    }
+
+    /** @throws IllegalArgumentException si le message n'est pas un message d'invalidation valide */
+    public static FooInvalidationMessage decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getShort() != MAGIC || buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Not a Foo invalidation message");
+            }
+            long nodeId = buffer.getLong();
+            long seq = buffer.getLong();
+            long oldestChangeMillis = buffer.getLong();
+            int count = buffer.getShort();
+            if (count < 0 || buffer.remaining() != count * ENTRY_SIZE) {
+                throw new IllegalArgumentException("Truncated Foo invalidation message");
+            }
+            long[] ids = new long[count];
+            long[] versions = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getLong();
+                versions[i] = buffer.getLong();
+            }
+            return new FooInvalidationMessage(nodeId, seq, oldestChangeMillis, ids, versions);
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated Foo invalidation message", ex);
+        }
+    }
+}
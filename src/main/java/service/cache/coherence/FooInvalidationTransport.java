@@ -0,0 +1,18 @@
+package service.cache.coherence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Diffusion des messages d'invalidation (FooInvalidationMessage encodés) à toutes les instances, y compris
+ * éventuellement l'émettrice. La livraison n'est pas garantie : FooCacheCoherence détecte les pertes par les seq.
+ */
+public interface FooInvalidationTransport extends Closeable {
+
+    /** Commence la réception : receiver est appelé pour chaque message reçu, depuis le thread du transport. */
+    void start(Consumer<ByteBuffer> receiver) throws IOException;
+
+    void send(byte[] message) throws IOException;
+}
@@ -0,0 +1,44 @@
+package service.cache.coherence;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport en mémoire, pour les tests et le développement : les instances d'un même Group, dans la même JVM,
+ * reçoivent chaque message de façon synchrone, depuis le thread émetteur.
+ */
+public class LoopbackFooInvalidationTransport implements FooInvalidationTransport {
+
+    /** Ensemble d'instances qui se voient mutuellement. */
+    public static final class Group {
+
+        private final List<Consumer<ByteBuffer>> receivers = new CopyOnWriteArrayList<>();
+    }
+
+    private final Group group;
+    private Consumer<ByteBuffer> receiver;
+
+    public LoopbackFooInvalidationTransport(Group group) {
+        this.group = group;
+    }
+
+    @Override
+    public void start(Consumer<ByteBuffer> receiver) {
+        this.receiver = receiver;
+        group.receivers.add(receiver);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (Consumer<ByteBuffer> member : group.receivers) {
+            member.accept(ByteBuffer.wrap(message).asReadOnlyBuffer());
+        }
+    }
+
+    @Override
+    public void close() {
+        group.receivers.remove(receiver);
+    }
+}
@@ -0,0 +1,104 @@
+package service.cache.coherence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * Diffusion UDP multicast sur le réseau local : un datagramme par message, sans accusé de réception.
+ * Toutes les instances rejoignent le même groupe et port ; la boucle locale reste active pour que plusieurs
+ * instances d'un même hôte se voient (chacune ignore ses propres messages).
+ */
+@Slf4j
+public class MulticastFooInvalidationTransport implements FooInvalidationTransport {
+
+    private static final int MAX_DATAGRAM_SIZE = 1472;
+
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final int timeToLive;
+    private DatagramChannel channel;
+
+    /**
+     * @param interfaceName interface réseau du groupe, ou vide pour la première interface active compatible multicast
+     */
+    public MulticastFooInvalidationTransport(String groupAddress, int port, String interfaceName, int timeToLive) throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        if (!group.getAddress().isMulticastAddress()) {
+            throw new IllegalArgumentException(groupAddress + " is not a multicast address");
+        }
+        this.networkInterface = interfaceName == null || interfaceName.isBlank()
+                ? defaultInterface()
+                : NetworkInterface.getByName(interfaceName);
+        if (networkInterface == null) {
+            throw new IllegalArgumentException("No network interface available for multicast " + interfaceName);
+        }
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void start(Consumer<ByteBuffer> receiver) throws IOException {
+        channel = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(group.getPort()))
+                .setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface)
+                .setOption(StandardSocketOptions.IP_MULTICAST_TTL, timeToLive)
+                .setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        channel.join(group.getAddress(), networkInterface);
+        log.info("Foo cache invalidations on multicast group {} via {}", group, networkInterface.getName());
+        Thread.ofPlatform().name("foo-cache-coherence-receiver").daemon().start(() -> receiveLoop(receiver));
+    }
+
+    @Override
+    public void send(byte[] message) throws IOException {
+        channel.send(ByteBuffer.wrap(message), group);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void receiveLoop(Consumer<ByteBuffer> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+                receiver.accept(buffer);
+            } catch (ClosedChannelException ex) {
+                return;
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not receive Foo cache invalidation: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static NetworkInterface defaultInterface() throws SocketException {
+        NetworkInterface loopback = null;
+        for (NetworkInterface candidate : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!candidate.isUp() || !candidate.supportsMulticast()) {
+                continue;
+            }
+            if (!candidate.isLoopback()) {
+                return candidate;
+            }
+            loopback = candidate;
+        }
+        return loopback;
+    }
+}
@@ -0,0 +1,159 @@
+package service.coalescing;
+
+import dto.FooResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Regroupe les lectures par id concurrentes (cache expiré, redéploiement...) :
+ * <ul>
+ *   <li>single-flight : les lectures d'un id déjà en cours de chargement attendent ce chargement
+ *   au lieu de lancer la même requête ;</li>
+ *   <li>micro-batching : les ids distincts demandés pendant une courte fenêtre (foo.coalescing.batch-window)
+ *   sont chargés par une seule requête multi-id.</li>
+ * </ul>
+ * Pas de thread dédié : le premier appelant d'un lot attend la fin de la fenêtre puis exécute le chargement
+ * pour tout le lot, sur son propre thread (et avec son permis DbConcurrencyLimiter).
+ * <p>
+ * Métriques : foo.coalescing.requests (outcome = loaded, batched ou shared ; taux de regroupement =
+ * (batched + shared) / total), foo.coalescing.batch.size et foo.coalescing.window.delay (latence ajoutée par la fenêtre).
+ */
+@Component
+public class FooLoadCoalescer {
+
+    private record Pending(Long id, CompletableFuture<FooResponseDTO> future, long enqueuedNanos) {}
+
+    private final ConcurrentMap<Long, CompletableFuture<FooResponseDTO>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final Counter loadedCounter;
+    private final Counter batchedCounter;
+    private final Counter sharedCounter;
+    private final DistributionSummary batchSize;
+    private final Timer windowDelay;
+    // Lot en cours de constitution, null si aucun
+    private List<Pending> collecting;
+
+    public FooLoadCoalescer(MeterRegistry meterRegistry,
+                            @Value("${foo.coalescing.batch-window:200us}") Duration batchWindow,
+                            @Value("${foo.coalescing.max-batch-size:128}") int maxBatchSize) {
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.loadedCounter = requests(meterRegistry, "loaded");
+        this.batchedCounter = requests(meterRegistry, "batched");
+        this.sharedCounter = requests(meterRegistry, "shared");
+        this.batchSize = DistributionSummary.builder("foo.coalescing.batch.size")
+                .description("Distinct ids loaded by one coalesced database query")
+                .register(meterRegistry);
+        this.windowDelay = Timer.builder("foo.coalescing.window.delay")
+                .description("Time an id lookup waited for its batch to be dispatched")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retourne le Foo d'id donné, ou null s'il n'existe pas. loader reçoit les ids d'un lot et retourne les Foos
+     * trouvés, indexés par id ; il n'est appelé que par un seul des appelants concurrents.
+     */
+    public FooResponseDTO load(Long id, Function<List<Long>, Map<Long, FooResponseDTO>> loader) {
+        CompletableFuture<FooResponseDTO> future = new CompletableFuture<>();
+        CompletableFuture<FooResponseDTO> existing = inFlight.putIfAbsent(id, future);
+        if (existing != null) {
+            sharedCounter.increment();
+            return await(existing);
+        }
+
+        List<Pending> batch;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = collecting == null || collecting.size() >= maxBatchSize;
+            if (leader) {
+                collecting = new ArrayList<>();
+            }
+            collecting.add(new Pending(id, future, System.nanoTime()));
+            batch = collecting;
+        } finally {
+            lock.unlock();
+        }
+        if (!leader) {
+            batchedCounter.increment();
+            return await(future);
+        }
+
+        loadedCounter.increment();
+        if (batchWindowNanos > 0) {
+            LockSupport.parkNanos(batchWindowNanos);
+        }
+        lock.lock();
+        try {
+            // Un lot complet a déjà été remplacé ; sinon le fermer pour que les suivants en ouvrent un autre
+            if (collecting == batch) {
+                collecting = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch, loader);
+        return await(future);
+    }
+
+    /** Oublie un chargement en cours (après une écriture) : les lectures suivantes ne l'attendront pas. */
+    public void forget(Long id) {
+        inFlight.remove(id);
+    }
+
+    private void dispatch(List<Pending> batch, Function<List<Long>, Map<Long, FooResponseDTO>> loader) {
+        long dispatchNanos = System.nanoTime();
+        batch.forEach(pending -> windowDelay.record(dispatchNanos - pending.enqueuedNanos(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+        try {
+            Map<Long, FooResponseDTO> found = loader.apply(batch.stream().map(Pending::id).toList());
+            for (Pending pending : batch) {
+                inFlight.remove(pending.id(), pending.future());
+                pending.future().complete(found.get(pending.id()));
+            }
+        } catch (RuntimeException | Error ex) {
+            for (Pending pending : batch) {
+                inFlight.remove(pending.id(), pending.future());
+                pending.future().completeExceptionally(ex);
+            }
+            throw ex;
+        }
+    }
+
+    private static FooResponseDTO await(CompletableFuture<FooResponseDTO> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("foo.coalescing.requests")
+                .description("Id lookups reaching the database, by coalescing outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,114 @@
+package service.concurrency;
+
+import exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borne le nombre de traitements base de données simultanés issus des requêtes HTTP.
+ * Avec des threads virtuels, des dizaines de milliers de requêtes peuvent arriver en même temps :
+ * elles attendent ici (Semaphore, sans épingler le carrier) plutôt que dans la file du pool Hikari,
+ * et sont rejetées en 503 au-delà du délai d'attente. La limite reste inférieure à la taille du pool
+ * pour laisser des connexions aux traitements de fond.
+ * <p>
+ * Les exports ont leur propre budget (foo.db.max-export-concurrency) : un export garde sa connexion pendant tout
+ * le flux et ne doit pas occuper un permis des requêtes courtes. Au-delà, un export est rejeté sans attente.
+ */
+@Component
+@Slf4j
+public class DbConcurrencyLimiter {
+
+    // Les appels imbriqués (service -> service) ne consomment qu'un seul permis
+    private static final ThreadLocal<Boolean> HOLDS_PERMIT = new ThreadLocal<>();
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    private final Semaphore exportPermits;
+    private final int maxExportConcurrency;
+
+    public DbConcurrencyLimiter(@Value("${foo.db.max-concurrency:8}") int maxConcurrency,
+                                @Value("${foo.db.acquire-timeout:2s}") Duration acquireTimeout,
+                                @Value("${foo.db.max-export-concurrency:1}") int maxExportConcurrency,
+                                MeterRegistry meterRegistry) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.acquireTimeout = acquireTimeout;
+        this.maxExportConcurrency = maxExportConcurrency;
+        this.exportPermits = new Semaphore(maxExportConcurrency);
+        Gauge.builder("foo.db.limiter.in.flight", this, DbConcurrencyLimiter::inFlight)
+                .description("DB-bound service calls currently holding a permit")
+                .register(meterRegistry);
+        Gauge.builder("foo.db.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Service calls waiting for a permit")
+                .register(meterRegistry);
+        Gauge.builder("foo.db.limiter.exports.in.flight", exportPermits, p -> maxExportConcurrency - p.availablePermits())
+                .description("Exports currently streaming from the database")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface DbWork<T, E extends Throwable> {
+        T run() throws E;
+    }
+
+    public <T, E extends Throwable> T call(DbWork<T, E> work) throws E {
+        if (HOLDS_PERMIT.get() != null) {
+            return work.run();
+        }
+        acquire();
+        HOLDS_PERMIT.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            HOLDS_PERMIT.remove();
+            permits.release();
+        }
+    }
+
+    /** Comme call, sur le budget des exports. */
+    public <T, E extends Throwable> T callExport(DbWork<T, E> work) throws E {
+        if (!exportPermits.tryAcquire()) {
+            log.warn("Export concurrency limit of {} reached, rejecting export", maxExportConcurrency);
+            throw new ServiceUnavailableException("Too many concurrent exports, retry later");
+        }
+        HOLDS_PERMIT.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            HOLDS_PERMIT.remove();
+            exportPermits.release();
+        }
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int inFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                log.warn("DB concurrency limit of {} reached, rejecting call after {}", maxConcurrency, acquireTimeout);
+                throw new ServiceUnavailableException("Too many concurrent database operations, retry later");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for a database permit");
+        }
+    }
+}
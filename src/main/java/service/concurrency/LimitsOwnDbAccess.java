@@ -0,0 +1,18 @@
+package service.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exclut une méthode de FooService du permis pris par DbConcurrencyLimiterAspect : elle sert d'abord depuis la
+ * mémoire (cache, index) et ne prend un permis DbConcurrencyLimiter qu'autour de ses accès à la base.
+ * Un hit de cache n'attend donc jamais un permis.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LimitsOwnDbAccess {
+}
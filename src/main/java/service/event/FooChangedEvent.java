@@ -0,0 +1,11 @@
+package service.event;
+
+/**
+ * Publié par FooServiceImpl à chaque écriture, dans la transaction de l'écriture.
+ * Les écouteurs qui ne doivent réagir qu'aux données validées utilisent @TransactionalEventListener.
+ * name et version sont le nom et la version après l'écriture (null pour une suppression).
+ */
+public record FooChangedEvent(Long id, Type type, String name, Long version) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+}
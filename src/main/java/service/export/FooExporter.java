@@ -0,0 +1,105 @@
+package service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dto.ExportFormat;
+import dto.FooResponseDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Écrit un flux de Foos Foo par Foo (NDJSON, CSV, CBOR ou Smile) : rien n'est accumulé en mémoire au-delà du tampon de sortie.
+ * Une IOException (client déconnecté) interrompt immédiatement la lecture du flux.
+ */
+@Component
+public class FooExporter {
+
+    // Pousse régulièrement les données vers le client et détecte plus tôt une déconnexion
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter cborWriter;
+    private final ObjectWriter smileWriter;
+
+    // Les formats binaires reprennent la configuration (modules, inclusions) de l'ObjectMapper JSON
+    public FooExporter(ObjectMapper objectMapper) {
+        this.ndjsonWriter = valueWriter(objectMapper);
+        this.cborWriter = valueWriter(objectMapper.copyWith(new CBORFactory()));
+        this.smileWriter = valueWriter(objectMapper.copyWith(new SmileFactory()));
+    }
+
+    public long export(Stream<FooResponseDTO> foos, ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case NDJSON -> writeValues(foos, ndjsonWriter, out, true);
+            case CSV -> writeCsv(foos, out);
+            case CBOR -> writeValues(foos, cborWriter, out, false);
+            case SMILE -> writeValues(foos, smileWriter, out, false);
+        };
+    }
+
+    // Une valeur racine par Foo : séparées par un saut de ligne en NDJSON, simplement concaténées en CBOR et Smile
+    private long writeValues(Stream<FooResponseDTO> foos, ObjectWriter writer, OutputStream out, boolean lineDelimited) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            if (lineDelimited) {
+                generator.setRootValueSeparator(null); // le séparateur de ligne est écrit explicitement
+            }
+            for (Iterator<FooResponseDTO> it = foos.iterator(); it.hasNext(); ) {
+                writer.writeValue(generator, it.next());
+                if (lineDelimited) {
+                    generator.writeRaw('\n');
+                }
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Stream<FooResponseDTO> foos, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,name\n");
+        for (Iterator<FooResponseDTO> it = foos.iterator(); it.hasNext(); ) {
+            FooResponseDTO foo = it.next();
+            writer.write(String.valueOf(foo.id()));
+            writer.write(',');
+            writer.write(escapeCsv(foo.name()));
+            writer.write('\n');
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static ObjectWriter valueWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(FooResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,160 @@
+package service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Exécution au plus une fois des créations portant un en-tête Idempotency-Key : la première requête s'exécute et
+ * sa réponse (statut, Location, ETag, corps JSON) est enregistrée dans l'IdempotencyStore ; une requête répétée
+ * avec la même clé reçoit cette réponse, marquée Idempotent-Replayed, sans rien exécuter, et un doublon concurrent
+ * attend la fin de la première au plus foo.idempotency.wait-timeout.
+ * <p>
+ * Une clé est propre à l'utilisateur authentifié et à l'opération. La réutiliser avec un autre corps est refusé
+ * en 422. Les réponses en erreur ne sont pas enregistrées : la requête peut être retentée avec la même clé.
+ */
+@Component
+@Slf4j
+public class IdempotencyGuard {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+
+    public IdempotencyGuard(IdempotencyStore store,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${foo.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.executedCounter = requests(meterRegistry, "executed");
+        this.replayedCounter = requests(meterRegistry, "replayed");
+    }
+
+    /**
+     * Exécute action, ou rejoue la réponse enregistrée pour la clé. Sans clé (null), exécute simplement action.
+     * @param operation nom de l'opération : une même clé peut servir pour des opérations différentes
+     * @param request   corps de la requête, dont l'empreinte est comparée à celle de la première requête
+     * @throws BadRequestException si la clé est vide, trop longue ou contient des caractères non imprimables
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        IdempotencyKeyHash key = keyHash(operation, idempotencyKey);
+        long fingerprint = fingerprint(request);
+        StoredResponse stored = store.reserve(key, fingerprint, waitTimeout);
+        if (stored != null) {
+            replayedCounter.increment();
+            return replay(stored, responseType);
+        }
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error ex) {
+            store.release(key, fingerprint);
+            throw ex;
+        }
+        executedCounter.increment();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            store.release(key, fingerprint);
+            return response;
+        }
+        try {
+            store.complete(key, fingerprint, toStoredResponse(response));
+        } catch (DataAccessException ex) {
+            // La création a réussi : la réponse est rendue, seule une répétition ultérieure ne sera pas reconnue
+            log.warn("Could not store the response of idempotent {}: {}", operation, ex.getMessage());
+        }
+        return response;
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (stored.location() != null) {
+            headers.set(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.eTag() != null) {
+            headers.set(HttpHeaders.ETAG, stored.eTag());
+        }
+        headers.set(IDEMPOTENT_REPLAYED, "true");
+        try {
+            return ResponseEntity.status(stored.status()).headers(headers).body(objectMapper.readValue(stored.body(), responseType));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read stored idempotent response", ex);
+        }
+    }
+
+    private StoredResponse toStoredResponse(ResponseEntity<?> response) {
+        HttpHeaders headers = response.getHeaders();
+        return new StoredResponse(response.getStatusCode().value(),
+                headers.getFirst(HttpHeaders.LOCATION),
+                headers.getETag(),
+                json(response.getBody()));
+    }
+
+    // Empreinte de la clé par utilisateur et par opération : deux clients qui choisissent la même clé ne se voient pas
+    private static IdempotencyKeyHash keyHash(String operation, String idempotencyKey) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH
+                || !idempotencyKey.chars().allMatch(c -> c > 0x20 && c < 0x7F)) {
+            throw new BadRequestException(IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " visible ASCII characters");
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal = authentication == null ? "" : authentication.getName();
+        return IdempotencyKeyHash.of(sha256((principal + '\n' + operation + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long fingerprint(Object request) {
+        return ByteBuffer.wrap(sha256(json(request))).getLong();
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize idempotent request or response", ex);
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("foo.idempotency.requests")
+                .description("Requests carrying an Idempotency-Key, by outcome (replayed = stored response returned)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package service.idempotency;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Empreinte sur 128 bits d'une clé d'idempotence (SHA-256 tronqué de l'utilisateur, de l'opération et de la clé) :
+ * taille fixe quelle que soit la clé envoyée, et la clé elle-même n'est pas conservée.
+ */
+public record IdempotencyKeyHash(long high, long low) {
+
+    public static IdempotencyKeyHash of(byte[] digest) {
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new IdempotencyKeyHash(buffer.getLong(), buffer.getLong());
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+    }
+}
@@ -0,0 +1,29 @@
+package service.idempotency;
+
+import exception.ConflictException;
+import exception.UnprocessableEntityException;
+
+import java.time.Duration;
+
+/**
+ * Clés d'idempotence connues : pour chacune, l'empreinte de la requête et soit la réponse enregistrée,
+ * soit un marqueur « en cours » tant que la première requête s'exécute.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Réserve la clé pour la requête d'empreinte fingerprint. Si la clé est déjà en cours, attend au plus maxWait
+     * la fin de la première requête.
+     * @return la réponse enregistrée pour cette clé, ou null si la clé vient d'être réservée : l'appelant exécute
+     *         alors la requête, puis appelle complete ou release
+     * @throws UnprocessableEntityException si la clé a déjà servi pour une requête d'une autre empreinte
+     * @throws ConflictException si la première requête est toujours en cours après maxWait
+     */
+    StoredResponse reserve(IdempotencyKeyHash key, long fingerprint, Duration maxWait);
+
+    /** Enregistre la réponse de la requête qui a réservé la clé et la transmet aux requêtes en attente. */
+    void complete(IdempotencyKeyHash key, long fingerprint, StoredResponse response);
+
+    /** Libère la clé sans réponse (requête en échec) : la requête suivante avec cette clé s'exécute à nouveau. */
+    void release(IdempotencyKeyHash key, long fingerprint);
+}
@@ -0,0 +1,120 @@
+package service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import exception.ConflictException;
+import exception.UnprocessableEntityException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Clés d'idempotence propres à l'instance. Les réponses enregistrées sont gardées ttl, dans la limite de
+ * maximumWeight octets (corps compris) ; les requêtes en cours sont suivies à part, sans éviction : une requête
+ * en double attend la fin de la première sur son CompletableFuture, sans scrutation.
+ * <p>
+ * Avec plusieurs instances, deux requêtes en double servies par des instances différentes ne se voient pas :
+ * utiliser alors JdbcIdempotencyStore (foo.idempotency.store=jdbc).
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Completed(long fingerprint, StoredResponse response) {}
+
+    private record InFlight(long fingerprint, CompletableFuture<StoredResponse> response) {}
+
+    private final Cache<IdempotencyKeyHash, Completed> completed;
+    private final ConcurrentHashMap<IdempotencyKeyHash, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(Duration ttl, long maximumWeight, MeterRegistry meterRegistry) {
+        this.completed = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .<IdempotencyKeyHash, Completed>weigher((key, value) -> value.response().weight())
+                .expireAfterWrite(ttl)
+                .build();
+        Gauge.builder("foo.idempotency.keys", completed, Cache::estimatedSize)
+                .description("Idempotency keys with a stored response kept in memory")
+                .register(meterRegistry);
+        Gauge.builder("foo.idempotency.in-flight", inFlight, ConcurrentHashMap::size)
+                .description("Idempotency keys whose first request is still running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StoredResponse reserve(IdempotencyKeyHash key, long fingerprint, Duration maxWait) {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            StoredResponse stored = storedResponse(key, fingerprint);
+            if (stored != null) {
+                return stored;
+            }
+            InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+            InFlight first = inFlight.putIfAbsent(key, mine);
+            if (first == null) {
+                // La première requête a pu se terminer entre la lecture du cache et la réservation
+                stored = storedResponse(key, fingerprint);
+                if (stored == null) {
+                    return null;
+                }
+                inFlight.remove(key, mine);
+                mine.response().cancel(false);
+                return stored;
+            }
+            if (first.fingerprint() != fingerprint) {
+                throw mismatch();
+            }
+            try {
+                return first.response().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (CancellationException | ExecutionException ex) {
+                // Première requête en échec (release) : la clé est de nouveau libre
+            } catch (TimeoutException ex) {
+                throw inProgress(maxWait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw inProgress(maxWait);
+            }
+        }
+    }
+
+    @Override
+    public void complete(IdempotencyKeyHash key, long fingerprint, StoredResponse response) {
+        completed.put(key, new Completed(fingerprint, response));
+        InFlight first = inFlight.remove(key);
+        if (first != null) {
+            first.response().complete(response);
+        }
+    }
+
+    @Override
+    public void release(IdempotencyKeyHash key, long fingerprint) {
+        InFlight first = inFlight.remove(key);
+        if (first != null) {
+            first.response().cancel(false);
+        }
+    }
+
+    private StoredResponse storedResponse(IdempotencyKeyHash key, long fingerprint) {
+        Completed entry = completed.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.fingerprint() != fingerprint) {
+            throw mismatch();
+        }
+        return entry.response();
+    }
+
+    private static UnprocessableEntityException mismatch() {
+        return new UnprocessableEntityException("Idempotency-Key was already used with a different request body");
+    }
+
+    private static ConflictException inProgress(Duration maxWait) {
+        return new ConflictException("A request with the same Idempotency-Key is still in progress after " + maxWait);
+    }
+}
@@ -0,0 +1,146 @@
+package service.idempotency;
+
+import exception.ConflictException;
+import exception.UnprocessableEntityException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Closeable;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clés d'idempotence partagées entre instances, dans la table idempotency_keys (migration V5). La clé primaire
+ * sert de verrou : la première requête insère la ligne « en cours » (status NULL), les doublons échouent sur la clé
+ * et relisent la ligne jusqu'à ce que la réponse y soit enregistrée.
+ * <p>
+ * Une ligne en cours expire après in-flight-lease : une instance arrêtée pendant la requête ne bloque pas la clé,
+ * la requête suivante la reprend. Le bail doit donc dépasser la durée de la plus longue requête idempotente.
+ * Les lignes expirées sont supprimées toutes les purge-interval.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore, Closeable {
+
+    private static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private record Row(long fingerprint, Integer status, String location, String eTag, byte[] body, Instant expiresAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration inFlightLease;
+    private final Duration purgeInterval;
+    private final Clock clock;
+    private final ScheduledExecutorService purger;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Duration inFlightLease, Duration purgeInterval, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.inFlightLease = inFlightLease;
+        this.purgeInterval = purgeInterval;
+        this.clock = clock;
+        this.purger = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("foo-idempotency-purge").daemon().factory());
+    }
+
+    public void start() {
+        purger.scheduleWithFixedDelay(this::purge, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        purger.shutdownNow();
+    }
+
+    // Hors transaction : la réservation doit être visible des autres instances dès l'INSERT
+    @Override
+    public StoredResponse reserve(IdempotencyKeyHash key, long fingerprint, Duration maxWait) {
+        byte[] keyHash = key.toBytes();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long pause = MIN_POLL_NANOS;
+        while (true) {
+            Instant now = clock.instant();
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (key_hash, fingerprint, expires_at) VALUES (?, ?, ?)",
+                        keyHash, fingerprint, Timestamp.from(now.plus(inFlightLease)));
+                return null;
+            } catch (DuplicateKeyException ex) {
+                // Clé déjà connue : lecture de la ligne existante
+            }
+            Row row = find(keyHash);
+            if (row == null) {
+                continue; // purgée entre-temps
+            }
+            if (row.expiresAt().isBefore(now)) {
+                // Réponse au-delà du ttl ou requête abandonnée : la première requête à modifier la ligne la reprend
+                int taken = jdbcTemplate.update("UPDATE idempotency_keys SET fingerprint = ?, status = NULL, location = NULL, etag = NULL, body = NULL, expires_at = ? "
+                                + "WHERE key_hash = ? AND expires_at < ?",
+                        fingerprint, Timestamp.from(now.plus(inFlightLease)), keyHash, Timestamp.from(now));
+                if (taken == 1) {
+                    return null;
+                }
+                continue;
+            }
+            if (row.fingerprint() != fingerprint) {
+                throw new UnprocessableEntityException("Idempotency-Key was already used with a different request body");
+            }
+            if (row.status() != null) {
+                return new StoredResponse(row.status(), row.location(), row.eTag(), row.body());
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new ConflictException("A request with the same Idempotency-Key is still in progress after " + maxWait);
+            }
+            LockSupport.parkNanos(Math.min(pause, remaining));
+            pause = Math.min(pause * 2, MAX_POLL_NANOS);
+        }
+    }
+
+    @Override
+    public void complete(IdempotencyKeyHash key, long fingerprint, StoredResponse response) {
+        int updated = jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, location = ?, etag = ?, body = ?, expires_at = ? "
+                        + "WHERE key_hash = ? AND fingerprint = ? AND status IS NULL",
+                response.status(), response.location(), response.eTag(), response.body(),
+                Timestamp.from(clock.instant().plus(ttl)), key.toBytes(), fingerprint);
+        if (updated == 0) {
+            log.warn("Idempotency key reservation was lost before the response could be stored (in-flight lease {} too short?)", inFlightLease);
+        }
+    }
+
+    @Override
+    public void release(IdempotencyKeyHash key, long fingerprint) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND fingerprint = ? AND status IS NULL",
+                key.toBytes(), fingerprint);
+    }
+
+    private Row find(byte[] keyHash) {
+        List<Row> rows = jdbcTemplate.query("SELECT fingerprint, status, location, etag, body, expires_at FROM idempotency_keys WHERE key_hash = ?",
+                (rs, rowNum) -> new Row(
+                        rs.getLong("fingerprint"),
+                        rs.getObject("status") == null ? null : rs.getInt("status"),
+                        rs.getString("location"),
+                        rs.getString("etag"),
+                        rs.getBytes("body"),
+                        rs.getTimestamp("expires_at").toInstant()),
+                (Object) keyHash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void purge() {
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.from(clock.instant()));
+            log.debug("Purged {} expired idempotency keys", purged);
+        } catch (DataAccessException ex) {
+            log.warn("Could not purge expired idempotency keys: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package service.idempotency;
+
+/**
+ * Réponse d'une requête idempotente telle que rejouée : statut, en-têtes Location et ETag (null si absents)
+ * et corps JSON.
+ */
+public record StoredResponse(int status, String location, String eTag, byte[] body) {
+
+    // Poids approximatif en mémoire, pour borner InMemoryIdempotencyStore
+    int weight() {
+        return 64 + body.length
+                + (location == null ? 0 : location.length())
+                + (eTag == null ? 0 : eTag.length());
+    }
+}
@@ -0,0 +1,44 @@
+package service.impl;
+
+import dto.FooAsyncCreateStatusDTO;
+import dto.FooRequestDTO;
+import exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import service.FooAsyncCreateService;
+import service.async.FooWriteBehindWriter;
+import service.concurrency.DbConcurrencyLimiter;
+
+import java.util.UUID;
+
+// Distinct de FooService : les demandes et les états en mémoire n'accèdent pas à la base et ne passent donc pas
+// par le limiteur de concurrence base de données ; seul un état absent de la mémoire (après un redémarrage)
+// est lu en base, sous permis
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FooAsyncCreateServiceImpl implements FooAsyncCreateService {
+
+    private final FooWriteBehindWriter fooWriteBehindWriter;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    @Override
+    public FooAsyncCreateStatusDTO submitFoo(FooRequestDTO fooRequestDTO) {
+        FooAsyncCreateStatusDTO status = fooWriteBehindWriter.submit(fooRequestDTO.name());
+        log.debug("Foo creation with name {} queued as {}", fooRequestDTO.name(), status.trackingId());
+        return status;
+    }
+
+    @Override
+    public FooAsyncCreateStatusDTO getStatus(UUID trackingId) {
+        FooAsyncCreateStatusDTO status = fooWriteBehindWriter.status(trackingId);
+        if (status == null) {
+            status = dbConcurrencyLimiter.call(() -> fooWriteBehindWriter.recordedStatus(trackingId));
+        }
+        if (status == null) {
+            throw new ResourceNotFoundException("Unknown or expired async creation: " + trackingId);
+        }
+        return status;
+    }
+}
@@ -1,18 +1,58 @@
 package service.impl;
 
+import datasource.ReadYourWrites;
+import dto.ExportFormat;
+import dto.FooBatchItemResultDTO;
+import dto.FooBatchResponseDTO;
+import dto.FooMultiGetResponseDTO;
+import dto.FooPageResponseDTO;
+import dto.FooPatchRequestDTO;
 import dto.FooRequestDTO;
 import dto.FooResponseDTO;
+import dto.FooSearchHitDTO;
 import entity.Foo;
+import exception.BadRequestException;
+import exception.FooNotFoundException;
+import exception.PreconditionFailedException;
 import exception.ResourceNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 
 import lombok.extern.slf4j.Slf4j;
 import mapper.FooMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import repository.FooRepository;
 import service.FooService;
+import service.cache.FooCache;
+import service.coalescing.FooLoadCoalescer;
+import service.concurrency.DbConcurrencyLimiter;
+import service.concurrency.LimitsOwnDbAccess;
+import service.event.FooChangedEvent;
+import service.export.FooExporter;
+import service.pagination.KeysetCursor;
+import service.search.FooSearchIndex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +61,40 @@ public class FooServiceImpl implements FooService {
 
     private final FooRepository fooRepository;
     private final FooMapper fooMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final FooCache fooCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FooExporter fooExporter;
+    private final FooLoadCoalescer fooLoadCoalescer;
+    private final FooSearchIndex fooSearchIndex;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    // Variantes de casse d'un même nom lues pour une recherche exacte
+    private static final int NAME_CANDIDATES_LIMIT = 100;
+
+    // Deux fois la longueur maximale d'un nom : au-delà, aucun nom ne peut être similaire
+    private static final int SEARCH_QUERY_MAX_LENGTH = 100;
+
+    @Value("${foo.batch.max-size:10000}")
+    private int batchMaxSize;
+
+    // Taille d'un chunk = une transaction ; idéalement un multiple de hibernate.jdbc.batch_size
+    @Value("${foo.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${foo.multiget.max-ids:1000}")
+    private int multiGetMaxIds;
+
+    // Puissance de deux : un chunk complet n'est pas complété par in_clause_parameter_padding
+    @Value("${foo.multiget.chunk-size:128}")
+    private int multiGetChunkSize;
+
+    @Value("${foo.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${foo.pagination.max-size:100}")
+    private int maxPageSize;
 
     @Override
     @Transactional
@@ -28,20 +102,377 @@ public class FooServiceImpl implements FooService {
         log.info("Creating new Foo with name: {}", fooRequestDTO.name());
         Foo foo = fooMapper.toEntity(fooRequestDTO);
         Foo savedFoo = fooRepository.save(foo);
+        eventPublisher.publishEvent(new FooChangedEvent(savedFoo.getId(), FooChangedEvent.Type.CREATED, savedFoo.getName(), savedFoo.getVersion()));
         log.info("Foo created with ID: {}", savedFoo.getId());
         return fooMapper.toResponseDTO(savedFoo);
     }
 
+    // Pas de @Transactional ici : chaque chunk est validé dans sa propre transaction,
+    // un échec d'écriture n'annule donc que les éléments du chunk concerné.
     @Override
-    @Transactional(readOnly = true)
+    public FooBatchResponseDTO createFoos(List<FooRequestDTO> fooRequestDTOs) {
+        if (fooRequestDTOs == null || fooRequestDTOs.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one Foo");
+        }
+        if (fooRequestDTOs.size() > batchMaxSize) {
+            throw new BadRequestException("Batch size " + fooRequestDTOs.size() + " exceeds the maximum of " + batchMaxSize);
+        }
+        log.info("Creating {} Foos in batch", fooRequestDTOs.size());
+
+        FooBatchItemResultDTO[] results = new FooBatchItemResultDTO[fooRequestDTOs.size()];
+        List<Integer> validIndexes = new ArrayList<>(fooRequestDTOs.size());
+        for (int i = 0; i < fooRequestDTOs.size(); i++) {
+            String error = validate(fooRequestDTOs.get(i));
+            if (error == null) {
+                validIndexes.add(i);
+            } else {
+                results[i] = FooBatchItemResultDTO.invalid(i, error);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += batchChunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + batchChunkSize, validIndexes.size()));
+            List<Foo> foos = chunk.stream()
+                    .map(i -> fooMapper.toEntity(fooRequestDTOs.get(i)))
+                    .toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    fooRepository.persistAll(foos);
+                    foos.forEach(foo -> eventPublisher.publishEvent(new FooChangedEvent(foo.getId(), FooChangedEvent.Type.CREATED, foo.getName(), foo.getVersion())));
+                });
+                for (int j = 0; j < chunk.size(); j++) {
+                    results[chunk.get(j)] = FooBatchItemResultDTO.created(chunk.get(j), fooMapper.toResponseDTO(foos.get(j)));
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Batch chunk of {} Foos rolled back: {}", chunk.size(), ex.getMostSpecificCause().getMessage());
+                chunk.forEach(i -> results[i] = FooBatchItemResultDTO.failed(i, "Chunk rolled back: " + ex.getMostSpecificCause().getMessage()));
+            }
+        }
+
+        int created = (int) Arrays.stream(results)
+                .filter(result -> result.status() == FooBatchItemResultDTO.Status.CREATED)
+                .count();
+        log.info("Batch completed: {} created, {} failed", created, results.length - created);
+        return new FooBatchResponseDTO(created, results.length - created, List.of(results));
+    }
+
+    // Pas de transaction englobante : un hit de cache ne doit pas emprunter de connexion,
+    // le chargement ouvre sa propre transaction en lecture seule en cas de miss.
+    // Les miss concurrents sont regroupés par FooLoadCoalescer (une requête pour tous les appelants) ;
+    // seul le chargement prend un permis DbConcurrencyLimiter.
+    // Client dans sa fenêtre ReadYourWrites : ni cache (qu'une autre requête a pu remplir depuis un réplica en retard)
+    // ni regroupement (le chargement du leader s'exécute avec son propre routage), lecture directe sur le primaire.
+    @Override
+    @LimitsOwnDbAccess
     public FooResponseDTO getFooById(Long id) {
-        log.debug("Fetching Foo with ID: {}", id);
-        Foo foo = fooRepository.findById(id)
+        if (ReadYourWrites.isPrimaryRequired()) {
+            FooResponseDTO foo = dbConcurrencyLimiter.call(() -> loadFoos(List.of(id))).get(id);
+            if (foo == null) {
+                throw new FooNotFoundException("id", id);
+            }
+            return foo;
+        }
+        FooResponseDTO cached = fooCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (fooCache.isKnownMissing(id)) {
+            log.debug("Foo {} is cached as missing", id);
+            throw new FooNotFoundException("id", id);
+        }
+        FooResponseDTO foo = fooLoadCoalescer.load(id, ids -> dbConcurrencyLimiter.call(() -> loadFoos(ids)));
+        if (foo == null) {
+            throw new FooNotFoundException("id", id);
+        }
+        return foo;
+    }
+
+    // Chargement d'un lot d'ids regroupés par FooLoadCoalescer, exécuté une fois pour tous les appelants :
+    // le cache (positif et négatif) est alimenté ici plutôt que par chaque appelant
+    private Map<Long, FooResponseDTO> loadFoos(List<Long> ids) {
+        long loadToken = fooCache.loadToken();
+        Map<Long, FooResponseDTO> found = new HashMap<>();
+        if (ids.size() == 1) {
+            log.debug("Fetching Foo with ID: {}", ids.get(0));
+            fooRepository.findById(ids.get(0))
+                    .map(fooMapper::toResponseDTO)
+                    .ifPresent(foo -> found.put(foo.id(), foo));
+        } else {
+            log.debug("Fetching {} coalesced Foo IDs", ids.size());
+            fooRepository.findAllByIdIn(ids).forEach(foo -> found.put(foo.id(), foo));
+        }
+        for (Long id : ids) {
+            FooResponseDTO foo = found.get(id);
+            if (foo != null) {
+                fooCache.put(foo, loadToken);
+            } else {
+                log.debug("Foo not found with ID: {}", id);
+                fooCache.putMissing(id, loadToken);
+            }
+        }
+        return found;
+    }
+
+    // Version courante sans charger ni mapper l'entité : depuis le cache si possible, sinon une lecture
+    // de la seule colonne version par clé primaire. Utilisée pour répondre 304 aux GET conditionnels.
+    // Comme getFooById, le cache est ignoré dans la fenêtre ReadYourWrites.
+    @Override
+    @LimitsOwnDbAccess
+    public Long getFooVersion(Long id) {
+        if (!ReadYourWrites.isPrimaryRequired()) {
+            FooResponseDTO cached = fooCache.getIfPresent(id);
+            if (cached != null) {
+                return cached.version();
+            }
+            if (fooCache.isKnownMissing(id)) {
+                throw new FooNotFoundException("id", id);
+            }
+        }
+        long loadToken = fooCache.loadToken();
+        return dbConcurrencyLimiter.call(() -> fooRepository.findVersionById(id))
                 .orElseThrow(() -> {
-                    log.warn("Foo not found with ID: {}", id);
-                    return new ResourceNotFoundException("Foo not found with id: " + id);
+                    fooCache.putMissing(id, loadToken);
+                    return new FooNotFoundException("id", id);
                 });
-        return fooMapper.toResponseDTO(foo);
+    }
+
+    // Mise à jour sans lecture préalable : un seul UPDATE, conditionné par la version attendue (If-Match).
+    // La nouvelle version se déduit de la version attendue ; sans If-Match, elle est relue (colonne version seule).
+    @Override
+    @Transactional
+    public FooResponseDTO updateFoo(Long id, FooRequestDTO fooRequestDTO, Long expectedVersion) {
+        log.info("Updating Foo {} (expected version {})", id, expectedVersion);
+        return rename(id, fooRequestDTO.name(), expectedVersion);
+    }
+
+    // Seuls les champs présents sont écrits ; sans champ à modifier, aucune écriture n'est faite
+    @Override
+    @Transactional
+    public FooResponseDTO patchFoo(Long id, FooPatchRequestDTO fooPatchRequestDTO, Long expectedVersion) {
+        if (fooPatchRequestDTO.name() == null) {
+            FooResponseDTO current = getFooById(id);
+            if (expectedVersion != null && !expectedVersion.equals(current.version())) {
+                throw versionMismatch(id, current.version(), expectedVersion);
+            }
+            return current;
+        }
+        log.info("Patching Foo {} (expected version {})", id, expectedVersion);
+        return rename(id, fooPatchRequestDTO.name(), expectedVersion);
+    }
+
+    @Override
+    @Transactional
+    public void deleteFoo(Long id, Long expectedVersion) {
+        log.info("Deleting Foo {} (expected version {})", id, expectedVersion);
+        if (fooRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+            throw writeRejected(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(new FooChangedEvent(id, FooChangedEvent.Type.DELETED, null, null));
+    }
+
+    private FooResponseDTO rename(Long id, String name, Long expectedVersion) {
+        if (fooRepository.updateName(id, name, Foo.nameKeyOf(name), expectedVersion) == 0) {
+            throw writeRejected(id, expectedVersion);
+        }
+        Long version = expectedVersion != null
+                ? expectedVersion + 1
+                : fooRepository.findVersionById(id).orElseThrow(() -> new FooNotFoundException("id", id));
+        eventPublisher.publishEvent(new FooChangedEvent(id, FooChangedEvent.Type.UPDATED, name, version));
+        return new FooResponseDTO(id, name, version);
+    }
+
+    // Aucune ligne touchée : la version courante n'est lue que dans ce cas, pour distinguer 404 et 412
+    private RuntimeException writeRejected(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return new FooNotFoundException("id", id);
+        }
+        return fooRepository.findVersionById(id)
+                .<RuntimeException>map(currentVersion -> versionMismatch(id, currentVersion, expectedVersion))
+                .orElseGet(() -> new FooNotFoundException("id", id));
+    }
+
+    private static PreconditionFailedException versionMismatch(Long id, Long currentVersion, Long expectedVersion) {
+        return new PreconditionFailedException("Foo " + id + " is at version " + currentVersion + ", expected " + expectedVersion);
+    }
+
+    // Comme getFooById, pas de transaction englobante : seuls les ids absents du cache (et non connus comme absents)
+    // sont lus, par requêtes IN de multiGetChunkSize ids. Chacune a sa propre transaction en lecture seule parce que
+    // FooRepository.findAllByIdIn est annotée @Transactional(readOnly = true) : une méthode @Query ne l'est pas d'office.
+    // Dans la fenêtre ReadYourWrites, tous les ids sont lus sur le primaire.
+    @Override
+    @LimitsOwnDbAccess
+    public FooMultiGetResponseDTO getFoosByIds(Collection<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Ids must not be null");
+        }
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        if (requestedIds.size() > multiGetMaxIds) {
+            throw new BadRequestException("Cannot fetch more than " + multiGetMaxIds + " Foos at once");
+        }
+        Map<Long, FooResponseDTO> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        boolean primaryRequired = ReadYourWrites.isPrimaryRequired();
+        for (Long id : requestedIds) {
+            if (primaryRequired) {
+                uncachedIds.add(id);
+                continue;
+            }
+            FooResponseDTO cached = fooCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else if (!fooCache.isKnownMissing(id)) {
+                uncachedIds.add(id);
+            }
+        }
+        long loadToken = fooCache.loadToken();
+        if (!uncachedIds.isEmpty()) {
+            dbConcurrencyLimiter.call(() -> {
+                for (int from = 0; from < uncachedIds.size(); from += multiGetChunkSize) {
+                    List<Long> chunk = uncachedIds.subList(from, Math.min(from + multiGetChunkSize, uncachedIds.size()));
+                    for (FooResponseDTO foo : fooRepository.findAllByIdIn(chunk)) {
+                        found.put(foo.id(), foo);
+                        fooCache.put(foo, loadToken);
+                    }
+                }
+                return null;
+            });
+        }
+        uncachedIds.stream().filter(id -> !found.containsKey(id)).forEach(id -> fooCache.putMissing(id, loadToken));
+        log.debug("Fetched {} of {} Foos, {} from the database", found.size(), requestedIds.size(), uncachedIds.size());
+
+        List<FooResponseDTO> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            FooResponseDTO foo = found.get(id);
+            if (foo != null) {
+                items.add(foo);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new FooMultiGetResponseDTO(items, missingIds);
+    }
+
+    // Le cache nom -> id est vérifié à la lecture : le Foo (lu via le cache par id) doit toujours porter ce nom.
+    // Plusieurs Foos pouvant porter le même nom, le plus petit id l'emporte.
+    // Dans la fenêtre ReadYourWrites, le cache nom -> id est ignoré.
+    @Override
+    @LimitsOwnDbAccess
+    public FooResponseDTO getFooByName(String name, boolean ignoreCase) {
+        Long cachedId = ReadYourWrites.isPrimaryRequired() ? null : fooCache.getIdByName(name, ignoreCase);
+        if (cachedId != null) {
+            FooResponseDTO cached = findFooById(cachedId);
+            if (cached != null && nameMatches(cached.name(), name, ignoreCase)) {
+                return cached;
+            }
+            fooCache.invalidateName(name);
+        }
+        log.debug("Fetching Foo with name: {} (ignoreCase {})", name, ignoreCase);
+        long loadToken = fooCache.loadToken();
+        FooResponseDTO foo = dbConcurrencyLimiter.call(() -> fooRepository.findByNameKey(Foo.nameKeyOf(name), Limit.of(NAME_CANDIDATES_LIMIT))).stream()
+                .filter(candidate -> nameMatches(candidate.name(), name, ignoreCase))
+                .findFirst()
+                .orElseThrow(() -> new FooNotFoundException("name", name));
+        fooCache.put(foo, loadToken);
+        fooCache.putIdByName(name, ignoreCase, foo.id());
+        return foo;
+    }
+
+    // Toujours insensible à la casse : le préfixe est recherché sur le nom normalisé indexé
+    @Override
+    @Transactional(readOnly = true)
+    public List<FooResponseDTO> findFoosByNamePrefix(String prefix, Integer size) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new BadRequestException("Name prefix must not be empty");
+        }
+        if (size != null && size < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        int limit = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return fooRepository.findByNameKeyLike(toPrefixPattern(Foo.nameKeyOf(prefix)), Limit.of(limit));
+    }
+
+    // Index en mémoire : aucun accès base
+    @Override
+    @LimitsOwnDbAccess
+    public List<FooSearchHitDTO> searchFoos(String query, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        if (query.length() > SEARCH_QUERY_MAX_LENGTH) {
+            throw new BadRequestException("Search query must not exceed " + SEARCH_QUERY_MAX_LENGTH + " characters");
+        }
+        if (size != null && size < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        int limit = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        return fooSearchIndex.search(query.strip(), limit).stream()
+                .map(hit -> new FooSearchHitDTO(hit.id(), hit.name(), hit.score()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FooPageResponseDTO listFoos(String cursor, Integer size, String namePrefix) {
+        if (size != null && size < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : KeysetCursor.decode(cursor);
+        log.debug("Listing Foos after ID {} (size {}, name prefix '{}')", afterId, pageSize, namePrefix);
+
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante sans requête de comptage
+        Limit limit = Limit.of(pageSize + 1);
+        List<FooResponseDTO> rows = namePrefix == null || namePrefix.isEmpty()
+                ? fooRepository.findPageAfter(afterId, limit)
+                : fooRepository.findPageAfterWithNameLike(afterId, toPrefixPattern(namePrefix), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<FooResponseDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? KeysetCursor.encode(items.get(items.size() - 1).id()) : null;
+        return new FooPageResponseDTO(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportFoos(ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting all Foos as {}", format);
+        try (Stream<FooResponseDTO> foos = fooRepository.streamAll()) {
+            long rows = fooExporter.export(foos, format, out);
+            log.info("Export completed: {} Foos written", rows);
+            return rows;
+        }
+    }
+
+    // Échappe les jokers LIKE (caractère d'échappement '!') pour que le préfixe soit recherché littéralement
+    private static String toPrefixPattern(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private FooResponseDTO findFooById(Long id) {
+        try {
+            return getFooById(id);
+        } catch (ResourceNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static boolean nameMatches(String actual, String name, boolean ignoreCase) {
+        return ignoreCase ? Foo.nameKeyOf(actual).equals(Foo.nameKeyOf(name)) : actual.equals(name);
+    }
+
+    private String validate(FooRequestDTO fooRequestDTO) {
+        if (fooRequestDTO == null) {
+            return "Foo cannot be null";
+        }
+        Set<ConstraintViolation<FooRequestDTO>> violations = validator.validate(fooRequestDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
     // ... autres méthodes
 }
@@ -0,0 +1,17 @@
+package service.migration;
+
+/**
+ * Rattrapage de données exécuté en arrière-plan par BackfillRunner, par plages d'id successives,
+ * après une migration qui ajoute une colonne (la migration reste rapide, le remplissage n'interrompt pas le trafic).
+ * Chaque plage doit être traitée de façon idempotente : le rattrapage peut être interrompu et relancé.
+ */
+public interface Backfill {
+
+    String name();
+
+    /** Plus grand id à traiter, ou null si la table est vide. Les lignes créées ensuite sont déjà à jour. */
+    Long maxId();
+
+    /** Traite les lignes d'id compris dans ]fromId, toId] et retourne le nombre de lignes modifiées. */
+    int backfill(long fromId, long toId);
+}
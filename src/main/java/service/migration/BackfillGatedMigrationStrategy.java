@@ -0,0 +1,59 @@
+package service.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Migrations Flyway qui supposent un rattrapage (Backfill) terminé, par exemple une contrainte NOT NULL sur la
+ * colonne qu'il remplit. Flyway s'arrête juste avant la première dont le rattrapage n'est pas encore enregistré
+ * dans backfill_completions ; BackfillRunner le termine en arrière-plan et la migration passe à un démarrage suivant.
+ * Les migrations postérieures attendent avec elle : Flyway les applique dans l'ordre.
+ */
+@Slf4j
+public class BackfillGatedMigrationStrategy implements FlywayMigrationStrategy {
+
+    private final Map<MigrationVersion, String> requiredBackfills;
+
+    /** @param requiredBackfills version de migration -> nom (Backfill.name) du rattrapage à terminer avant elle */
+    public BackfillGatedMigrationStrategy(Map<String, String> requiredBackfills) {
+        this.requiredBackfills = new HashMap<>();
+        requiredBackfills.forEach((version, backfill) -> this.requiredBackfills.put(MigrationVersion.fromVersion(version), backfill));
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        MigrationVersion target = null;
+        for (MigrationInfo pending : flyway.info().pending()) {
+            String backfill = requiredBackfills.get(pending.getVersion());
+            if (backfill != null && !isCompleted(flyway, backfill)) {
+                log.warn("Migration {} waits for backfill {}, pending migrations applied up to {}",
+                        pending.getVersion(), backfill, target);
+                if (target != null) {
+                    Flyway.configure().configuration(flyway.getConfiguration()).target(target).load().migrate();
+                }
+                return;
+            }
+            target = pending.getVersion();
+        }
+        flyway.migrate();
+    }
+
+    // Table absente (base neuve, V7 pas encore passée) : rattrapage pas encore exécuté
+    private static boolean isCompleted(Flyway flyway, String backfill) {
+        try {
+            Integer count = new JdbcTemplate(flyway.getConfiguration().getDataSource())
+                    .queryForObject("SELECT COUNT(*) FROM backfill_completions WHERE name = ?", Integer.class, backfill);
+            return count != null && count > 0;
+        } catch (DataAccessException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package service.migration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Exécute les rattrapages (Backfill) sur un thread de fond une fois l'application prête, lot après lot,
+ * régulés par BackfillThrottle d'après la durée des lots et le retard de réplication
+ * (foo.migration.backfill.lag-query). Les rattrapages étant idempotents, un redémarrage les reprend sans risque ;
+ * avec plusieurs instances, foo.migration.backfill.enabled=true sur une seule suffit.
+ * <p>
+ * Un rattrapage terminé est enregistré dans backfill_completions (migration V7) et n'est plus relancé :
+ * les démarrages suivants ne reparcourent pas la table.
+ */
+@Component
+@Slf4j
+public class BackfillRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Backfill> backfills;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialChunkSize;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final Duration targetChunkTime;
+    private final double dutyCycle;
+    private final Duration maxReplicationLag;
+    private final Duration lagCheckInterval;
+    private final String lagQuery;
+    private volatile boolean stopped;
+
+    public BackfillRunner(JdbcTemplate jdbcTemplate,
+                          List<Backfill> backfills,
+                          MeterRegistry meterRegistry,
+                          @Value("${foo.migration.backfill.enabled:true}") boolean enabled,
+                          @Value("${foo.migration.backfill.initial-chunk-size:1000}") int initialChunkSize,
+                          @Value("${foo.migration.backfill.min-chunk-size:100}") int minChunkSize,
+                          @Value("${foo.migration.backfill.max-chunk-size:10000}") int maxChunkSize,
+                          @Value("${foo.migration.backfill.target-chunk-time:100ms}") Duration targetChunkTime,
+                          @Value("${foo.migration.backfill.duty-cycle:0.5}") double dutyCycle,
+                          @Value("${foo.migration.backfill.max-replication-lag:2s}") Duration maxReplicationLag,
+                          @Value("${foo.migration.backfill.lag-check-interval:5s}") Duration lagCheckInterval,
+                          @Value("${foo.migration.backfill.lag-query:}") String lagQuery) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfills = backfills;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialChunkSize = initialChunkSize;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkTime = targetChunkTime;
+        this.dutyCycle = dutyCycle;
+        this.maxReplicationLag = maxReplicationLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.lagQuery = lagQuery;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled || backfills.isEmpty()) {
+            return;
+        }
+        Thread.ofPlatform().name("foo-backfill").daemon().start(() -> backfills.forEach(this::run));
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+    }
+
+    /** Exécute backfill jusqu'au bout sur le thread appelant, sauf s'il est déjà enregistré comme terminé. */
+    public void run(Backfill backfill) {
+        Long maxId;
+        try {
+            if (isCompleted(backfill)) {
+                log.debug("Backfill {} already completed", backfill.name());
+                return;
+            }
+            maxId = backfill.maxId();
+        } catch (DataAccessException ex) {
+            log.error("Backfill {} not started", backfill.name(), ex);
+            return;
+        }
+        if (maxId == null) {
+            markCompleted(backfill, 0);
+            return;
+        }
+        BackfillThrottle throttle = new BackfillThrottle(initialChunkSize, minChunkSize, maxChunkSize,
+                targetChunkTime, dutyCycle, maxReplicationLag);
+        Counter rowsCounter = Counter.builder("foo.migration.backfill.rows")
+                .description("Rows updated by background backfills")
+                .tag("backfill", backfill.name())
+                .register(meterRegistry);
+        long lastId = 0;
+        long rows = 0;
+        log.info("Backfill {} started up to id {}", backfill.name(), maxId);
+        while (!stopped && lastId < maxId) {
+            long toId = Math.min(maxId, lastId + throttle.chunkSize());
+            long start;
+            try {
+                if (throttle.replicationLagging(replicationLag())) {
+                    log.debug("Backfill {} paused: replication lag above {}", backfill.name(), maxReplicationLag);
+                    LockSupport.parkNanos(lagCheckInterval.toNanos());
+                    continue;
+                }
+                start = System.nanoTime();
+                int updated = backfill.backfill(lastId, toId);
+                rows += updated;
+                rowsCounter.increment(updated);
+            } catch (TransientDataAccessException ex) {
+                log.warn("Backfill {} chunk ]{}, {}] failed, retrying in {}: {}", backfill.name(), lastId, toId, lagCheckInterval, ex.getMessage());
+                LockSupport.parkNanos(lagCheckInterval.toNanos());
+                continue;
+            } catch (DataAccessException ex) {
+                log.error("Backfill {} aborted at id {} after {} rows", backfill.name(), lastId, rows, ex);
+                return;
+            }
+            lastId = toId;
+            LockSupport.parkNanos(throttle.afterChunk(Duration.ofNanos(System.nanoTime() - start)).toNanos());
+        }
+        if (lastId >= maxId) {
+            log.info("Backfill {} completed: {} rows updated", backfill.name(), rows);
+            markCompleted(backfill, rows);
+        }
+    }
+
+    private boolean isCompleted(Backfill backfill) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM backfill_completions WHERE name = ?",
+                Integer.class, backfill.name());
+        return count != null && count > 0;
+    }
+
+    // En cas d'échec, le rattrapage (idempotent) sera simplement relancé au prochain démarrage
+    private void markCompleted(Backfill backfill, long rows) {
+        try {
+            jdbcTemplate.update("INSERT INTO backfill_completions (name, completed_at, rows_updated) VALUES (?, ?, ?)",
+                    backfill.name(), Timestamp.from(Instant.now()), rows);
+        } catch (DataAccessException ex) {
+            log.warn("Could not record completion of backfill {}: {}", backfill.name(), ex.getMessage());
+        }
+    }
+
+    // Requête propre à la base (voir application.properties), ou pas de contrôle si elle n'est pas configurée
+    private Duration replicationLag() {
+        if (!StringUtils.hasText(lagQuery)) {
+            return Duration.ZERO;
+        }
+        Double seconds = jdbcTemplate.queryForObject(lagQuery, Double.class);
+        return seconds == null ? Duration.ZERO : Duration.ofMillis((long) (seconds * 1000));
+    }
+}
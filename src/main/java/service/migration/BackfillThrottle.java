@@ -0,0 +1,58 @@
+package service.migration;
+
+import java.time.Duration;
+
+/**
+ * Régulation d'un rattrapage : la taille des lots s'adapte à leur durée mesurée (augmentation additive tant qu'ils
+ * restent rapides, division par deux au-delà de la durée cible ou si les réplicas prennent du retard),
+ * et chaque lot est suivi d'une pause proportionnelle à sa durée pour ne jamais occuper la base plus que
+ * la fraction dutyCycle du temps.
+ */
+public class BackfillThrottle {
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final Duration targetChunkTime;
+    private final double dutyCycle;
+    private final Duration maxReplicationLag;
+    private int chunkSize;
+
+    public BackfillThrottle(int initialChunkSize, int minChunkSize, int maxChunkSize,
+                            Duration targetChunkTime, double dutyCycle, Duration maxReplicationLag) {
+        if (minChunkSize < 1 || minChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Invalid backfill chunk sizes: min " + minChunkSize + ", max " + maxChunkSize);
+        }
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalArgumentException("Backfill duty cycle must be in ]0, 1]: " + dutyCycle);
+        }
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkTime = targetChunkTime;
+        this.dutyCycle = dutyCycle;
+        this.maxReplicationLag = maxReplicationLag;
+        this.chunkSize = Math.clamp(initialChunkSize, minChunkSize, maxChunkSize);
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /** Ajuste la taille des lots d'après la durée du dernier lot et retourne la pause à observer avant le suivant. */
+    public Duration afterChunk(Duration elapsed) {
+        if (elapsed.compareTo(targetChunkTime) > 0) {
+            chunkSize = Math.max(minChunkSize, chunkSize / 2);
+        } else if (elapsed.compareTo(targetChunkTime.dividedBy(2)) < 0) {
+            chunkSize = Math.min(maxChunkSize, chunkSize + minChunkSize);
+        }
+        return Duration.ofNanos((long) (elapsed.toNanos() * (1 - dutyCycle) / dutyCycle));
+    }
+
+    /** true si le retard de réplication impose d'attendre avant le prochain lot ; la taille des lots est alors réduite. */
+    public boolean replicationLagging(Duration lag) {
+        if (lag.compareTo(maxReplicationLag) <= 0) {
+            return false;
+        }
+        chunkSize = Math.max(minChunkSize, chunkSize / 2);
+        return true;
+    }
+}
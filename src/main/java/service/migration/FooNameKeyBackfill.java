@@ -0,0 +1,43 @@
+package service.migration;
+
+import entity.Foo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Remplit foos.name_key (migration V2) pour les lignes créées avant la colonne. La valeur est calculée par
+ * Foo.nameKeyOf plutôt que par LOWER() pour être identique à celle des lignes écrites par l'application.
+ */
+@Component
+@RequiredArgsConstructor
+public class FooNameKeyBackfill implements Backfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String name() {
+        return "foos.name_key";
+    }
+
+    @Override
+    public Long maxId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM foos", Long.class);
+    }
+
+    // Hors transaction : chaque instruction est validée seule et ne garde ses verrous de ligne que le temps du lot.
+    // "name_key IS NULL" dans l'UPDATE : un Foo renommé entre-temps par l'application garde sa valeur.
+    @Override
+    public int backfill(long fromId, long toId) {
+        List<Object[]> rows = jdbcTemplate.query("SELECT id, name FROM foos WHERE id > ? AND id <= ? AND name_key IS NULL",
+                (rs, rowNum) -> new Object[]{Foo.nameKeyOf(rs.getString("name")), rs.getLong("id")},
+                fromId, toId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE foos SET name_key = ? WHERE id = ? AND name_key IS NULL", rows);
+        return rows.size();
+    }
+}
@@ -0,0 +1,33 @@
+package service.migration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remplit foos.version (migration V8) pour les lignes écrites avant le verrouillage optimiste : elles partent
+ * de la version 0, comme un Foo nouvellement créé. Une fois ce rattrapage terminé, V11 rend la colonne NOT NULL.
+ */
+@Component
+@RequiredArgsConstructor
+public class FooVersionBackfill implements Backfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String name() {
+        return "foos.version";
+    }
+
+    @Override
+    public Long maxId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM foos", Long.class);
+    }
+
+    // Hors transaction, une instruction par lot. "version IS NULL" : un Foo modifié entre-temps par l'application
+    // (FooRepository.updateName, coalesce) garde sa version.
+    @Override
+    public int backfill(long fromId, long toId) {
+        return jdbcTemplate.update("UPDATE foos SET version = 0 WHERE id > ? AND id <= ? AND version IS NULL", fromId, toId);
+    }
+}
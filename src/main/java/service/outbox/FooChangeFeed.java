@@ -0,0 +1,248 @@
+package service.outbox;
+
+import dto.FooChangeDTO;
+import exception.GoneException;
+import exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import repository.FooOutboxRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flux des modifications publiées (GET /api/v1/foos/changes) : les buffer-size dernières sont gardées en mémoire,
+ * dans l'ordre des seq, et servies aux abonnés Server-Sent Events sans requête en base. Un abonné plus en retard
+ * rattrape depuis foo_outbox par pages, puis rejoint le tampon.
+ * <p>
+ * Le tampon est alimenté par FooOutboxRelay quand le relais tourne sur cette instance ; sinon, tant qu'il y a
+ * des abonnés (ou un suiveur interne, voir follow), par une seule lecture de foo_outbox toutes les poll-interval,
+ * quel que soit le nombre d'abonnés.
+ * Chaque abonné est servi par son propre thread virtuel : un client lent ne retarde pas les autres.
+ */
+@Component
+@Slf4j
+public class FooChangeFeed {
+
+    private static final int PAGE_SIZE = 500;
+    private static final String EVENT_NAME = "foo-change";
+
+    private final FooOutboxRepository fooOutboxRepository;
+    private final boolean localRelay;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final FooChangeDTO[] buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Dernier seq publié (-1 tant qu'il n'est pas lu en base) et plus ancien seq présent dans le tampon
+    private long latestSeq = -1;
+    private long bufferStart;
+    private volatile boolean followed;
+    private volatile boolean running;
+
+    public FooChangeFeed(FooOutboxRepository fooOutboxRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${foo.outbox.relay.enabled:true}") boolean localRelay,
+                         @Value("${foo.outbox.relay.poll-interval:1s}") Duration pollInterval,
+                         @Value("${foo.changes.buffer-size:10000}") int bufferSize,
+                         @Value("${foo.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                         @Value("${foo.changes.timeout:30m}") Duration timeout,
+                         @Value("${foo.changes.max-subscribers:1000}") int maxSubscribers) {
+        this.fooOutboxRepository = fooOutboxRepository;
+        this.localRelay = localRelay;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.buffer = new FooChangeDTO[bufferSize];
+        Gauge.builder("foo.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Clients currently streaming Foo changes (Server-Sent Events)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!localRelay) {
+            running = true;
+            Thread.ofPlatform().name("foo-changes-poller").daemon().start(this::pollLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+    }
+
+    /** Tient le tampon à jour en permanence, même sans abonné : pour un composant qui suit le flux (FooSearchIndex). */
+    public void follow() {
+        followed = true;
+    }
+
+    /** Ajoute des modifications publiées, dans l'ordre des seq ; celles déjà connues sont ignorées. */
+    public void append(List<FooChangeDTO> changes) {
+        lock.lock();
+        try {
+            initialize();
+            for (FooChangeDTO change : changes) {
+                if (change.seq() <= latestSeq) {
+                    continue;
+                }
+                if (change.seq() != latestSeq + 1) {
+                    bufferStart = change.seq(); // trou (relais d'une autre instance) : la suite sera relue en base
+                }
+                buffer[(int) (change.seq() % buffer.length)] = change;
+                latestSeq = change.seq();
+                bufferStart = Math.max(bufferStart, latestSeq - buffer.length + 1);
+            }
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abonne un client aux modifications de seq supérieur à since (null = seulement les prochaines).
+     * @throws GoneException si des modifications postérieures à since ont déjà été purgées
+     * @throws ServiceUnavailableException au-delà de foo.changes.max-subscribers abonnés
+     */
+    public SseEmitter subscribe(Long since) {
+        long latest = latestSeq();
+        long from = since == null ? latest : since;
+        if (from < latest) {
+            Long oldest = fooOutboxRepository.findMinSeq();
+            if (from + 1 < (oldest == null ? latest + 1 : oldest)) {
+                throw new GoneException("Changes after " + from + " are no longer retained, oldest available is " + oldest);
+            }
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ServiceUnavailableException("Too many change stream subscribers (" + maxSubscribers + ")");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Thread streamer = Thread.ofVirtual().name("foo-changes-" + from).unstarted(() -> stream(emitter, from));
+        emitter.onCompletion(streamer::interrupt);
+        emitter.onError(ex -> streamer.interrupt());
+        streamer.start();
+        return emitter;
+    }
+
+    public long latestSeq() {
+        lock.lock();
+        try {
+            initialize();
+            return latestSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Modifications de seq supérieur à after, au plus limit : depuis le tampon si possible, sinon depuis la base. */
+    public List<FooChangeDTO> changesAfter(long after, int limit) {
+        lock.lock();
+        try {
+            initialize();
+            if (after + 1 >= bufferStart) {
+                long last = Math.min(latestSeq, after + limit);
+                List<FooChangeDTO> changes = new ArrayList<>((int) Math.max(0, last - after));
+                for (long seq = after + 1; seq <= last; seq++) {
+                    changes.add(buffer[(int) (seq % buffer.length)]);
+                }
+                return changes;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return fooOutboxRepository.findPublishedAfter(after, Limit.of(limit));
+    }
+
+    /** Vrai si une modification de seq supérieur à after est arrivée avant la fin du délai. */
+    public boolean awaitAfter(long after, Duration maxWait) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = maxWait.toNanos();
+            while (latestSeq <= after && nanos > 0) {
+                nanos = published.awaitNanos(nanos);
+            }
+            return latestSeq > after;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stream(SseEmitter emitter, long from) {
+        long after = from;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<FooChangeDTO> changes = changesAfter(after, PAGE_SIZE);
+                if (!changes.isEmpty()) {
+                    for (FooChangeDTO change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.seq()))
+                                .name(EVENT_NAME)
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    after = changes.get(changes.size() - 1).seq();
+                } else if (after < latestSeq()) {
+                    // Rattrapage depuis un réplica en retard : la page suivante n'y est pas encore visible
+                    LockSupport.parkNanos(pollInterval.toNanos());
+                } else if (!awaitAfter(after, heartbeatInterval)) {
+                    // Commentaire SSE : garde la connexion ouverte derrière les proxys et détecte les clients partis
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Change stream subscriber disconnected after seq {}: {}", after, ex.getMessage());
+        } catch (DataAccessException ex) {
+            log.warn("Change stream subscriber stopped after seq {}: {}", after, ex.getMessage());
+            emitter.completeWithError(ex);
+        } finally {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                if (subscribers.get() > 0 || followed) {
+                    List<FooChangeDTO> changes = fooOutboxRepository.findPublishedAfter(latestSeq(), Limit.of(PAGE_SIZE));
+                    append(changes);
+                    if (changes.size() == PAGE_SIZE) {
+                        continue;
+                    }
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Could not poll published Foo changes: {}", ex.getMessage());
+            }
+            LockSupport.parkNanos(pollInterval.toNanos());
+        }
+    }
+
+    // Premier accès : le flux reprend après le dernier seq publié en base, le tampon est vide
+    private void initialize() {
+        if (latestSeq < 0) {
+            latestSeq = fooOutboxRepository.findMaxSeq();
+            bufferStart = latestSeq + 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package service.outbox;
+
+import dto.FooChangeDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination des modifications publiées par FooOutboxRelay (broker, fichier...), choisie par foo.outbox.sink.
+ * Livraison au moins une fois : si la publication échoue ou si le relais s'arrête avant d'avoir enregistré
+ * les seq du lot, le lot est republié, normalement avec les mêmes seq.
+ */
+public interface FooChangeSink {
+
+    /** Publie un lot, dans l'ordre des seq ; une exception fait republier le lot plus tard. */
+    void publish(List<FooChangeDTO> changes) throws IOException;
+}
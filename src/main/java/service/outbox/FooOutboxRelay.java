@@ -0,0 +1,243 @@
+package service.outbox;
+
+import dto.FooChangeDTO;
+import entity.FooOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FooOutboxRepository;
+import service.event.FooChangedEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publie les lignes de foo_outbox par lots, sur un thread de fond : chaque lot reçoit des seq consécutifs,
+ * est envoyé à la FooChangeSink configurée puis ajouté au flux des modifications (FooChangeFeed).
+ * Le relais est réveillé après chaque commit d'une écriture de cette instance, et relit la table toutes les
+ * poll-interval pour les écritures des autres instances.
+ * <p>
+ * Un seul relais doit tourner (foo.outbox.relay.enabled=true sur une seule instance) : les seq sont attribués
+ * dans l'ordre où il voit les commits. Un second relais ferait échouer les attributions en double sur l'index
+ * unique uk_foo_outbox_seq, mais publierait les mêmes lignes vers la sink.
+ * <p>
+ * Les lignes publiées depuis plus de foo.outbox.retention sont purgées par tranches de seq.
+ */
+@Component
+@Slf4j
+public class FooOutboxRelay {
+
+    private static final int PURGE_CHUNK_SIZE = 10_000;
+
+    private static final Comparator<FooOutboxEvent> VERSION_ORDER = Comparator
+            .comparing((FooOutboxEvent event) -> FooChangedEvent.Type.DELETED.name().equals(event.getType()))
+            .thenComparing(FooOutboxEvent::getVersion, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FooOutboxEvent::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final FooOutboxRepository fooOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<FooChangeSink> fooChangeSink;
+    private final FooChangeFeed fooChangeFeed;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private final Counter publishedCounter;
+    private volatile long lastSeq = -1;
+    private volatile boolean wakeUp;
+    private volatile boolean running;
+    private Thread relayThread;
+
+    public FooOutboxRelay(FooOutboxRepository fooOutboxRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectProvider<FooChangeSink> fooChangeSink,
+                          FooChangeFeed fooChangeFeed,
+                          MeterRegistry meterRegistry,
+                          @Value("${foo.outbox.enabled:true}") boolean outboxEnabled,
+                          @Value("${foo.outbox.relay.enabled:true}") boolean relayEnabled,
+                          @Value("${foo.outbox.relay.batch-size:500}") int batchSize,
+                          @Value("${foo.outbox.relay.poll-interval:1s}") Duration pollInterval,
+                          @Value("${foo.outbox.relay.retry-backoff:1s}") Duration retryBackoff,
+                          @Value("${foo.outbox.retention:7d}") Duration retention,
+                          @Value("${foo.outbox.purge-interval:1h}") Duration purgeInterval) {
+        this.fooOutboxRepository = fooOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fooChangeSink = fooChangeSink;
+        this.fooChangeFeed = fooChangeFeed;
+        this.enabled = outboxEnabled && relayEnabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+        this.publishedCounter = Counter.builder("foo.outbox.published")
+                .description("Outbox rows published to the change sink and stream")
+                .register(meterRegistry);
+        Gauge.builder("foo.outbox.last-seq", this, relay -> relay.lastSeq)
+                .description("Sequence number of the last published Foo change")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        relayThread = Thread.ofPlatform().name("foo-outbox-relay").daemon().start(this::relayLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (relayThread != null) {
+            LockSupport.unpark(relayThread);
+            relayThread.join(Duration.ofSeconds(10).toMillis());
+        }
+    }
+
+    // Après commit : la ligne de l'outbox est visible, le relais peut la publier sans attendre poll-interval
+    @TransactionalEventListener
+    public void onFooChanged(FooChangedEvent event) {
+        Thread thread = relayThread;
+        if (thread != null) {
+            wakeUp = true;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void relayLoop() {
+        long nextPurge = System.nanoTime();
+        while (running) {
+            try {
+                wakeUp = false;
+                if (publishBatch() == batchSize) {
+                    continue; // arriéré : lot suivant sans attendre
+                }
+                if (System.nanoTime() - nextPurge >= 0) {
+                    purge();
+                    nextPurge = System.nanoTime() + purgeInterval.toNanos();
+                }
+                if (!wakeUp) {
+                    LockSupport.parkNanos(pollInterval.toNanos());
+                }
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("Outbox seq already assigned (another relay running?), reloading the last seq: {}", ex.getMessage());
+                lastSeq = -1;
+            } catch (DataAccessException | TransactionException | UncheckedIOException ex) {
+                log.warn("Outbox relay failed, retrying in {}: {}", retryBackoff, ex.getMessage());
+                LockSupport.parkNanos(retryBackoff.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Attribue les seq, publie vers la sink puis valide, dans une même transaction : un échec de la sink annule
+     * l'attribution et le lot est republié au tour suivant.
+     * Retourne le nombre de modifications publiées.
+     */
+    public int publishBatch() {
+        List<FooChangeDTO> changes = transactionTemplate.execute(status -> {
+            if (lastSeq < 0) {
+                lastSeq = fooOutboxRepository.findMaxSeq();
+            }
+            List<FooOutboxEvent> events = inVersionOrder(fooOutboxRepository.findUnpublished(Limit.of(batchSize)));
+            List<FooChangeDTO> batch = new ArrayList<>(events.size());
+            long seq = lastSeq;
+            for (FooOutboxEvent event : events) {
+                event.setSeq(++seq);
+                batch.add(new FooChangeDTO(seq, event.getFooId(), event.getType(), event.getName(), event.getVersion(), event.getCreatedAt()));
+            }
+            if (!batch.isEmpty()) {
+                publish(batch);
+            }
+            return batch;
+        });
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        lastSeq = changes.get(changes.size() - 1).seq();
+        fooChangeFeed.append(changes);
+        publishedCounter.increment(changes.size());
+        return changes.size();
+    }
+
+    /*
+     * Les ids viennent d'une séquence pooled : deux instances écrivant le même Foo peuvent produire des ids dans
+     * l'ordre inverse des versions. Dans un lot, les lignes d'un même Foo sont remises dans l'ordre des versions
+     * (sans version d'abord : écrites avant V9, suppression en dernier), aux positions qu'elles occupaient.
+     * Entre deux lots, les consommateurs s'appuient sur la version publiée.
+     */
+    private static List<FooOutboxEvent> inVersionOrder(List<FooOutboxEvent> events) {
+        Map<Long, PriorityQueue<FooOutboxEvent>> byFoo = new HashMap<>();
+        for (FooOutboxEvent event : events) {
+            byFoo.computeIfAbsent(event.getFooId(), fooId -> new PriorityQueue<>(VERSION_ORDER)).add(event);
+        }
+        List<FooOutboxEvent> ordered = new ArrayList<>(events.size());
+        for (FooOutboxEvent event : events) {
+            ordered.add(byFoo.get(event.getFooId()).poll());
+        }
+        return ordered;
+    }
+
+    private void publish(List<FooChangeDTO> batch) {
+        FooChangeSink sink = fooChangeSink.getIfAvailable();
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.publish(batch);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Change sink failed for seq " + batch.get(0).seq() + "-" + batch.get(batch.size() - 1).seq(), ex);
+        }
+    }
+
+    // Tranches de PURGE_CHUNK_SIZE seq tant que la dernière ligne de la tranche a dépassé la rétention
+    private void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        Long oldest = fooOutboxRepository.findMinSeq();
+        if (oldest == null) {
+            return;
+        }
+        long from = oldest - 1;
+        long deleted = 0;
+        while (running) {
+            long to = Math.min(from + PURGE_CHUNK_SIZE, lastSeq);
+            Instant createdAt = fooOutboxRepository.findCreatedAtBySeq(to).orElse(null);
+            if (to <= from || createdAt == null || !createdAt.isBefore(cutoff)) {
+                break;
+            }
+            long fromSeq = from;
+            deleted += transactionTemplate.execute(status -> fooOutboxRepository.deletePublished(fromSeq, to));
+            from = to;
+        }
+        if (deleted > 0) {
+            log.info("Purged {} published outbox rows older than {}", deleted, retention);
+        }
+    }
+}
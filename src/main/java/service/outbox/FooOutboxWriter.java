@@ -0,0 +1,33 @@
+package service.outbox;
+
+import entity.FooOutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.FooOutboxRepository;
+import service.event.FooChangedEvent;
+
+import java.time.Instant;
+
+/**
+ * Enregistre chaque FooChangedEvent dans la table foo_outbox. L'écouteur est synchrone : la ligne est écrite dans
+ * la transaction de l'écriture du Foo (création, création en masse ou différée, mise à jour, suppression)
+ * et disparaît avec elle en cas de rollback.
+ */
+@Component
+@ConditionalOnProperty(name = "foo.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FooOutboxWriter {
+
+    private final FooOutboxRepository fooOutboxRepository;
+
+    // MANDATORY : une écriture publiée hors transaction serait une erreur de programmation, pas un évènement perdu
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onFooChanged(FooChangedEvent event) {
+        fooOutboxRepository.save(new FooOutboxEvent(event.id(), event.type().name(), event.name(), event.version(), Instant.now()));
+    }
+}
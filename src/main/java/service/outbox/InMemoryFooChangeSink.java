@@ -0,0 +1,47 @@
+package service.outbox;
+
+import dto.FooChangeDTO;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remplaçant en mémoire d'un broker, pour les tests et le développement : garde les maximumSize dernières
+ * modifications publiées.
+ */
+public class InMemoryFooChangeSink implements FooChangeSink {
+
+    private final ArrayDeque<FooChangeDTO> changes = new ArrayDeque<>();
+    private final int maximumSize;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InMemoryFooChangeSink(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void publish(List<FooChangeDTO> batch) {
+        lock.lock();
+        try {
+            for (FooChangeDTO change : batch) {
+                if (changes.size() == maximumSize) {
+                    changes.pollFirst();
+                }
+                changes.addLast(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Modifications publiées, de la plus ancienne à la plus récente. */
+    public List<FooChangeDTO> published() {
+        lock.lock();
+        try {
+            return List.copyOf(changes);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
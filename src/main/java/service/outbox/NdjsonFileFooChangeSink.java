@@ -0,0 +1,56 @@
+package service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dto.FooChangeDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Ajoute chaque lot en fin de fichier, une modification JSON par ligne (NDJSON), en une seule écriture.
+ * Remplaçant local d'un broker : un consommateur peut suivre le fichier (tail -f). Appelé par le seul thread du relais.
+ */
+public class NdjsonFileFooChangeSink implements FooChangeSink, Closeable {
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+    private final boolean fsync;
+
+    public NdjsonFileFooChangeSink(Path file, ObjectMapper objectMapper, boolean fsync) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = objectMapper.writerFor(FooChangeDTO.class);
+        this.fsync = fsync;
+    }
+
+    @Override
+    public void publish(List<FooChangeDTO> changes) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(changes.size() * 128);
+        for (FooChangeDTO change : changes) {
+            writer.writeValue(lines, change);
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
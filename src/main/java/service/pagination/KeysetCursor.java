@@ -0,0 +1,35 @@
+package service.pagination;
+
+import exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination par clé (keyset) : encode le dernier id renvoyé.
+ * Le préfixe de version permet de faire évoluer le format sans casser les curseurs déjà distribués.
+ */
+public final class KeysetCursor {
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] raw = (VERSION_PREFIX + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static long decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(VERSION_PREFIX)) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(raw.substring(VERSION_PREFIX.length()));
+        } catch (IllegalArgumentException ex) { // Base64 invalide ou NumberFormatException
+            throw new BadRequestException("Invalid cursor: " + cursor, ex);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package service.search;
+
+import entity.Foo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des noms de Foos, par trigrammes (comme pg_trgm) : le nom normalisé (Foo.nameKeyOf),
+ * précédé de deux espaces et suivi d'un, est découpé en séquences de 3 caractères.
+ * <p>
+ * Chaque nom occupe un emplacement (int) ; les listes de postings sont des int[] croissants, rangées dans un tableau
+ * indexé par une table trigramme -> indice sans boxing (le trigramme est un long). Une modification
+ * libère l'ancien emplacement et en ajoute un nouveau en fin : les listes restent triées par simple ajout, les
+ * emplacements libérés y restent jusqu'au compactage, déclenché quand ils sont plus nombreux que les vivants.
+ * <p>
+ * Classement : d'abord les noms qui contiennent la recherche (score 1 + longueur recherche / longueur nom,
+ * 2 pour un nom identique), puis les noms proches par similarité trigrammes (partagés / union, entre 0 et 1).
+ */
+public class FooNameIndex {
+
+    public record Hit(long id, String name, double score) {}
+
+    private static final int PADDING = 2;
+    private static final int MIN_COMPACTION_GARBAGE = 1024;
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap listsByTrigram = new LongIntMap();
+    private Postings[] postingLists = new Postings[1024];
+    private int listCount;
+    private final LongIntMap slotsById = new LongIntMap();
+    // Par emplacement : id, nom (null = emplacement libéré) et nombre de trigrammes distincts du nom
+    private long[] slotIds = new long[1024];
+    private String[] slotNames = new String[1024];
+    private int[] slotTrigramCounts = new int[1024];
+    private int slotCount;
+    private int liveCount;
+
+    /** Ajoute ou renomme un Foo. */
+    public void put(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            int existing = slotsById.get(id);
+            if (existing >= 0) {
+                if (name.equals(slotNames[existing])) {
+                    return;
+                }
+                release(existing);
+            }
+            slotsById.put(id, append(id, name));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotsById.remove(id);
+            if (slot >= 0) {
+                release(slot);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Les limit meilleurs noms : ceux qui contiennent la recherche (au moins 3 caractères), puis ceux dont
+     * la similarité trigrammes atteint minSimilarity ; à score égal, le plus petit id d'abord.
+     */
+    public List<Hit> search(String query, int limit, double minSimilarity) {
+        String key = Foo.nameKeyOf(query);
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            boolean containsSearched = key.length() >= 3;
+            if (containsSearched) {
+                collectContaining(key, top, limit);
+            }
+            // Les noms qui contiennent la recherche passent avant tout nom simplement similaire
+            if (top.size() < limit || top.peek().score() < 1) {
+                collectSimilar(key, minSimilarity, containsSearched, top, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return listCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Candidats : intersection des listes des trigrammes de la recherche sans remplissage, parcourue depuis la plus courte
+    private void collectContaining(String key, PriorityQueue<Hit> top, int limit) {
+        Postings[] lists = postingsOf(trigrams(key, 0));
+        if (lists.length == 0 || lists[0].size == 0) {
+            return;
+        }
+        Postings shortest = lists[0];
+        // Score 1 + |recherche| / |nom| : une fois les limit places prises, les noms trop longs sont écartés sans vérification
+        int maxLength = Integer.MAX_VALUE;
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int slot = shortest.slots[i];
+            String name = slotNames[slot];
+            if (name == null || name.length() > maxLength) {
+                continue;
+            }
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(slot)) {
+                    continue candidates;
+                }
+            }
+            if (containsIgnoreCase(name, key)) {
+                offer(top, limit, slot, 1 + (double) key.length() / name.length());
+                if (top.size() == limit) {
+                    maxLength = (int) (key.length() / (top.peek().score() - 1));
+                }
+            }
+        }
+    }
+
+    /*
+     * Un nom de similarité >= s partage au moins m = s * k des k trigrammes de la recherche : il figure donc
+     * dans au moins une des k - m + 1 listes les plus courtes. Seules ces listes sont parcourues, la présence
+     * dans les plus longues (trigrammes fréquents) est vérifiée par recherche exponentielle, depuis la position du
+     * candidat précédent. Les listes parcourues sont fusionnées dans l'ordre des emplacements : un nom y apparaît
+     * une fois par trigramme partagé, à la suite.
+     */
+    private void collectSimilar(String key, double minSimilarity, boolean skipContaining, PriorityQueue<Hit> top, int limit) {
+        Postings[] lists = postingsOf(trigrams(key, PADDING));
+        int k = lists.length;
+        int minShared = Math.max(1, (int) Math.ceil(minSimilarity * k - 1e-9));
+        int scanned = k - minShared + 1;
+        Merge merge = new Merge(lists, scanned);
+        int[] positions = new int[k];
+        while (!merge.isEmpty()) {
+            int slot = merge.head();
+            int shared = 0;
+            while (!merge.isEmpty() && merge.head() == slot) {
+                shared++;
+                merge.advance();
+            }
+            // Similarité <= partagés / k : une fois les limit places prises, il faut au moins k fois la moins bonne
+            int required = top.size() == limit ? Math.max(minShared, (int) Math.ceil(top.peek().score() * k - 1e-9)) : minShared;
+            for (int j = scanned; j < k && shared + (k - j) >= required; j++) {
+                positions[j] = lists[j].seek(positions[j], slot);
+                if (positions[j] < lists[j].size && lists[j].slots[positions[j]] == slot) {
+                    shared++;
+                }
+            }
+            String name = slotNames[slot];
+            if (shared < required || name == null || (skipContaining && containsIgnoreCase(name, key))) {
+                continue;
+            }
+            double similarity = (double) shared / (k + slotTrigramCounts[slot] - shared);
+            if (similarity >= minSimilarity) {
+                offer(top, limit, slot, similarity);
+            }
+        }
+    }
+
+    private void offer(PriorityQueue<Hit> top, int limit, int slot, double score) {
+        if (top.size() == limit) {
+            Hit worst = top.peek();
+            if (score < worst.score() || (score == worst.score() && slotIds[slot] > worst.id())) {
+                return;
+            }
+            top.poll();
+        }
+        top.add(new Hit(slotIds[slot], slotNames[slot], score));
+    }
+
+    // Listes des trigrammes, de la plus courte à la plus longue (liste vide pour un trigramme absent de l'index)
+    private Postings[] postingsOf(long[] trigrams) {
+        Postings[] found = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            int list = listsByTrigram.get(trigrams[i]);
+            found[i] = list >= 0 ? postingLists[list] : Postings.EMPTY;
+        }
+        Arrays.sort(found, Comparator.comparingInt(list -> list.size));
+        return found;
+    }
+
+    private int append(long id, String name) {
+        if (slotCount == slotIds.length) {
+            int capacity = slotCount * 2;
+            slotIds = Arrays.copyOf(slotIds, capacity);
+            slotNames = Arrays.copyOf(slotNames, capacity);
+            slotTrigramCounts = Arrays.copyOf(slotTrigramCounts, capacity);
+        }
+        int slot = slotCount++;
+        long[] trigrams = trigrams(Foo.nameKeyOf(name), PADDING);
+        slotIds[slot] = id;
+        slotNames[slot] = name;
+        slotTrigramCounts[slot] = trigrams.length;
+        for (long trigram : trigrams) {
+            int list = listsByTrigram.get(trigram);
+            if (list < 0) {
+                list = addList(trigram);
+            }
+            postingLists[list].add(slot);
+        }
+        liveCount++;
+        return slot;
+    }
+
+    private int addList(long trigram) {
+        if (listCount == postingLists.length) {
+            postingLists = Arrays.copyOf(postingLists, listCount * 2);
+        }
+        int list = listCount++;
+        postingLists[list] = new Postings(trigram);
+        listsByTrigram.put(trigram, list);
+        return list;
+    }
+
+    private void release(int slot) {
+        slotNames[slot] = null;
+        liveCount--;
+    }
+
+    // Renumérote les emplacements vivants dans l'ordre : les listes restent triées
+    private void compactIfNeeded() {
+        int garbage = slotCount - liveCount;
+        if (garbage < MIN_COMPACTION_GARBAGE || garbage <= liveCount) {
+            return;
+        }
+        int[] renumbered = new int[slotCount];
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotNames[slot] == null) {
+                renumbered[slot] = -1;
+                continue;
+            }
+            renumbered[slot] = live;
+            slotIds[live] = slotIds[slot];
+            slotNames[live] = slotNames[slot];
+            slotTrigramCounts[live] = slotTrigramCounts[slot];
+            slotsById.put(slotIds[live], live);
+            live++;
+        }
+        Arrays.fill(slotNames, live, slotCount, null);
+        slotCount = live;
+        // Les listes vidées sont retirées, les suivantes décalées : leurs indices sont mis à jour dans la table
+        int kept = 0;
+        for (int i = 0; i < listCount; i++) {
+            Postings list = postingLists[i];
+            if (list.renumber(renumbered) == 0) {
+                listsByTrigram.remove(list.trigram);
+                continue;
+            }
+            if (kept != i) {
+                postingLists[kept] = list;
+                listsByTrigram.put(list.trigram, kept);
+            }
+            kept++;
+        }
+        Arrays.fill(postingLists, kept, listCount, null);
+        listCount = kept;
+    }
+
+    // Trigrammes distincts, triés ; padding = nombre d'espaces ajoutés devant (un seul derrière)
+    static long[] trigrams(String key, int padding) {
+        String padded = padding == 0 ? key : " ".repeat(padding) + key + " ";
+        if (padded.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static boolean containsIgnoreCase(String name, String key) {
+        for (int i = 0; i <= name.length() - key.length(); i++) {
+            if (name.regionMatches(true, i, key, 0, key.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings(0);
+
+        final long trigram;
+        int[] slots = new int[4];
+        int size;
+
+        Postings(long trigram) {
+            this.trigram = trigram;
+        }
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1));
+            }
+            slots[size++] = slot;
+        }
+
+        boolean contains(int slot) {
+            return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+        }
+
+        // Première position >= from dont l'emplacement est >= slot, par pas doublés puis dichotomie
+        int seek(int from, int slot) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && slots[high] < slot) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(slots, low, Math.min(high, size - 1) + 1, slot);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = renumbered[slots[i]];
+                if (slot >= 0) {
+                    slots[kept++] = slot;
+                }
+            }
+            size = kept;
+            if (slots.length > 2 * size + 4) {
+                slots = Arrays.copyOf(slots, Math.max(4, size));
+            }
+            return size;
+        }
+    }
+
+    // Fusion de listes triées par un tas d'indices de listes, ordonné sur l'emplacement courant de chacune
+    private static final class Merge {
+
+        private final Postings[] lists;
+        private final int[] positions;
+        private final int[] heap;
+        private int heapSize;
+
+        Merge(Postings[] lists, int count) {
+            this.lists = lists;
+            this.positions = new int[count];
+            this.heap = new int[count];
+            for (int i = 0; i < count; i++) {
+                if (lists[i].size > 0) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        int head() {
+            return current(heap[0]);
+        }
+
+        void advance() {
+            int list = heap[0];
+            if (++positions[list] == lists[list].size) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+        }
+
+        private int current(int list) {
+            return lists[list].slots[positions[list]];
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && current(heap[left]) < current(heap[smallest])) {
+                    smallest = left;
+                }
+                if (right < heapSize && current(heap[right]) < current(heap[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int swap = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = swap;
+                i = smallest;
+            }
+        }
+    }
+
+    // Table long -> int (>= 0) en adressage ouvert (sondage linéaire), sans boxing des clés :
+    // id -> emplacement et trigramme -> liste de postings
+    private static final class LongIntMap {
+
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024]; // valeur + 1 ; 0 = case vide
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); values[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value + 1;
+        }
+
+        // Suppression par décalage arrière : pas de marqueur de case supprimée
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                return -1;
+            }
+            int removed = values[i] - 1;
+            int gap = i;
+            values[gap] = 0;
+            size--;
+            for (int j = (gap + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+                int home = index(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    values[j] = 0;
+                    gap = j;
+                }
+            }
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    put(oldKeys[i], oldValues[i] - 1);
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
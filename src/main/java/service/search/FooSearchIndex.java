@@ -0,0 +1,234 @@
+package service.search;
+
+import dto.FooChangeDTO;
+import dto.FooResponseDTO;
+import exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.FooRepository;
+import service.event.FooChangedEvent;
+import service.outbox.FooChangeFeed;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Recherche plein texte et approchée sur les noms (GET /api/v1/foos/search) : FooNameIndex chargé en tâche de fond
+ * une fois l'application prête, en parcourant FooRepository.streamAll, puis tenu à jour par les FooChangedEvent
+ * des écritures de FooServiceImpl, après commit. Les recherches sont refusées en 503 tant que le chargement n'est pas terminé.
+ * <p>
+ * Les écritures des autres instances arrivent par le flux des modifications publiées (FooChangeFeed, alimenté par
+ * l'outbox) : l'index le suit à partir du dernier seq publié avant le chargement. Sans outbox (foo.outbox.enabled=false),
+ * seules les écritures de l'instance sont vues : l'index ne convient alors qu'à un déploiement sur une seule instance.
+ */
+@Component
+@Slf4j
+public class FooSearchIndex {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final int CHANGES_PAGE_SIZE = 500;
+
+    private final FooNameIndex index = new FooNameIndex();
+    private final FooRepository fooRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FooChangeFeed fooChangeFeed;
+    private final double minSimilarity;
+    private final Duration loadRetryInterval;
+    private final boolean followChanges;
+    private final Duration changesPollInterval;
+    // Ids modifiés depuis le démarrage et pendant le chargement : la valeur de l'évènement l'emporte sur la ligne lue,
+    // qui peut être antérieure (lecture commencée avant le commit, réplica en retard)
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private Set<Long> changedWhileLoading = new HashSet<>();
+    // Dernier seq du flux des modifications appliqué à l'index
+    private long appliedSeq = -1;
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    public FooSearchIndex(FooRepository fooRepository,
+                          PlatformTransactionManager transactionManager,
+                          FooChangeFeed fooChangeFeed,
+                          MeterRegistry meterRegistry,
+                          @Value("${foo.search.min-similarity:0.3}") double minSimilarity,
+                          @Value("${foo.search.load-retry-interval:5s}") Duration loadRetryInterval,
+                          @Value("${foo.outbox.enabled:true}") boolean followChanges,
+                          @Value("${foo.outbox.relay.poll-interval:1s}") Duration changesPollInterval) {
+        this.fooRepository = fooRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fooChangeFeed = fooChangeFeed;
+        this.minSimilarity = minSimilarity;
+        this.loadRetryInterval = loadRetryInterval;
+        this.followChanges = followChanges;
+        this.changesPollInterval = changesPollInterval;
+        Gauge.builder("foo.search.index.size", index, FooNameIndex::size)
+                .description("Foo names in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("foo.search.index.trigrams", index, FooNameIndex::trigramCount)
+                .description("Distinct trigrams (posting lists) in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        Thread.ofPlatform().name("foo-search-index").daemon().start(() -> {
+            loadUntilDone();
+            if (followChanges) {
+                followChanges();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Les limit Foos dont le nom contient la recherche ou lui ressemble le plus.
+     * @throws ServiceUnavailableException tant que l'index n'est pas chargé
+     */
+    public List<FooNameIndex.Hit> search(String query, int limit) {
+        if (!ready) {
+            throw new ServiceUnavailableException("Search index is still loading");
+        }
+        return index.search(query, limit, minSimilarity);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Écritures de l'instance, visibles dès le commit sans attendre leur publication dans le flux
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFooChanged(FooChangedEvent event) {
+        apply(event.id(), event.type() == FooChangedEvent.Type.DELETED, event.name());
+    }
+
+    private void apply(Long id, boolean deleted, String name) {
+        loadLock.lock();
+        try {
+            if (changedWhileLoading != null) {
+                changedWhileLoading.add(id);
+            }
+            if (deleted) {
+                index.remove(id);
+            } else {
+                index.put(id, name);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Base indisponible au démarrage : nouvel essai plus tard, les lignes déjà chargées sont simplement réécrites.
+    // Le seq est lu avant le parcours : toute modification publiée ensuite sera rejouée par followChanges.
+    private void loadUntilDone() {
+        while (running) {
+            try {
+                long start = System.nanoTime();
+                if (followChanges) {
+                    appliedSeq = fooChangeFeed.latestSeq();
+                }
+                long rows = readOnlyTransaction.execute(status -> load());
+                loadLock.lock();
+                try {
+                    changedWhileLoading = null;
+                } finally {
+                    loadLock.unlock();
+                }
+                ready = true;
+                log.info("Search index loaded: {} Foos, {} trigrams in {} ms", rows, index.trigramCount(),
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+                return;
+            } catch (DataAccessException | TransactionException ex) {
+                log.warn("Could not load the search index, retrying in {}: {}", loadRetryInterval, ex.getMessage());
+                LockSupport.parkNanos(loadRetryInterval.toNanos());
+            }
+        }
+    }
+
+    // Même boucle que les abonnés du flux (FooChangeFeed) : page suivante, sinon attente d'une publication
+    private void followChanges() {
+        fooChangeFeed.follow();
+        while (running) {
+            try {
+                if (applyPublishedChanges() == 0) {
+                    if (appliedSeq < fooChangeFeed.latestSeq()) {
+                        // Rattrapage depuis un réplica en retard : la page suivante n'y est pas encore visible
+                        LockSupport.parkNanos(changesPollInterval.toNanos());
+                    } else {
+                        fooChangeFeed.awaitAfter(appliedSeq, changesPollInterval);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException ex) {
+                log.warn("Could not read published Foo changes after seq {}, retrying in {}: {}",
+                        appliedSeq, changesPollInterval, ex.getMessage());
+                LockSupport.parkNanos(changesPollInterval.toNanos());
+            }
+        }
+    }
+
+    // Modifications publiées après appliedSeq, de toutes les instances (celles de cette instance sont déjà appliquées)
+    private int applyPublishedChanges() {
+        List<FooChangeDTO> changes = fooChangeFeed.changesAfter(appliedSeq, CHANGES_PAGE_SIZE);
+        for (FooChangeDTO change : changes) {
+            apply(change.fooId(), FooChangedEvent.Type.DELETED.name().equals(change.type()), change.name());
+        }
+        if (!changes.isEmpty()) {
+            appliedSeq = changes.get(changes.size() - 1).seq();
+        }
+        return changes.size();
+    }
+
+    private long load() {
+        long rows = 0;
+        List<FooResponseDTO> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+        try (Stream<FooResponseDTO> foos = fooRepository.streamAll()) {
+            for (Iterator<FooResponseDTO> it = foos.iterator(); it.hasNext() && running; ) {
+                chunk.add(it.next());
+                if (chunk.size() == LOAD_CHUNK_SIZE || !it.hasNext()) {
+                    putAll(chunk);
+                    rows += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void putAll(List<FooResponseDTO> foos) {
+        loadLock.lock();
+        try {
+            for (FooResponseDTO foo : foos) {
+                if (!changedWhileLoading.contains(foo.id())) {
+                    index.put(foo.id(), foo.name());
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Créations asynchrones écrites en base (FooWriteBehindWriter) : insérées dans la transaction du Foo créé.
+-- Au rejeu du journal, une demande déjà présente ici n'est pas recréée ; son état reste consultable après un
+-- redémarrage. foo_id NULL = création en échec (error). Lignes purgées après foo.async.status-ttl.
+CREATE TABLE foo_async_creations (
+    tracking_id BINARY(16)   NOT NULL,
+    foo_id      BIGINT       NULL,
+    error       VARCHAR(255) NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (tracking_id),
+    KEY idx_foo_async_creations_created_at (created_at)
+) ENGINE = InnoDB;
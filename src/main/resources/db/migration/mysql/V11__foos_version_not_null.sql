@@ -0,0 +1,8 @@
+-- Version obligatoire, seconde étape : après le rattrapage foos.version (FooVersionBackfill, voir V8), aucune
+-- ligne n'a plus de version NULL. Appliquée seulement une fois ce rattrapage enregistré dans backfill_completions
+-- (BackfillGatedMigrationStrategy) : avec des NULL restants, la reconstruction échouerait.
+
+-- Ne pas bloquer les requêtes derrière le verrou de métadonnées si une longue transaction tient la table
+SET SESSION lock_wait_timeout = 5;
+-- NULL -> NOT NULL : reconstruction en place, lectures et écritures continuent pendant l'opération
+ALTER TABLE foos MODIFY COLUMN version BIGINT NOT NULL DEFAULT 0, ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,14 @@
+-- Schéma initial, tel que généré par Hibernate avant l'introduction de Flyway.
+-- Une base existante est marquée en V1 sans exécuter ce script (spring.flyway.baseline-on-migrate).
+CREATE TABLE foos (
+    id      BIGINT      NOT NULL,
+    name    VARCHAR(50) NOT NULL,
+    version BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Générateur de Foo.id (allocationSize = 50) : MySQL n'ayant pas de séquences, Hibernate utilise une table
+CREATE TABLE foos_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO foos_seq VALUES (1);
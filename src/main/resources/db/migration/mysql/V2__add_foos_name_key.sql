@@ -0,0 +1,9 @@
+-- Recherche par nom (GET /api/v1/foos/by-name) : nom normalisé en minuscules.
+-- Migration en ligne : colonne nullable ajoutée en fin de table sans copie (ALGORITHM=INSTANT, échoue plutôt que de
+-- recopier la table si ce n'est pas possible). Les lignes existantes sont remplies en arrière-plan par
+-- FooNameKeyBackfill ; la contrainte NOT NULL viendra dans une migration ultérieure, une fois ce rattrapage terminé.
+-- Collation binaire : l'index (V3) sert l'égalité, le préfixe (LIKE 'abc%') et le tri, octet par octet.
+
+-- Ne pas bloquer les requêtes derrière le verrou de métadonnées si une longue transaction tient la table
+SET SESSION lock_wait_timeout = 5;
+ALTER TABLE foos ADD COLUMN name_key VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL, ALGORITHM = INSTANT;
@@ -0,0 +1,2 @@
+-- Index construit en ligne : lectures et écritures sur foos continuent pendant la construction
+ALTER TABLE foos ADD INDEX idx_foos_name_key (name_key), ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,20 @@
+-- Outbox transactionnelle des modifications de Foos (FooOutboxEvent), alimentée dans la transaction de chaque écriture.
+-- seq est attribué à la publication par FooOutboxRelay : NULL tant que la ligne n'est pas publiée.
+-- L'index unique sur seq sert aussi la recherche des lignes à publier (seq IS NULL, dans l'ordre de la clé primaire)
+-- et le suivi des modifications (GET /api/v1/foos/changes?since=).
+CREATE TABLE foo_outbox (
+    id         BIGINT      NOT NULL,
+    foo_id     BIGINT      NOT NULL,
+    type       VARCHAR(10) NOT NULL,
+    name       VARCHAR(50) NULL,
+    created_at DATETIME(6) NOT NULL,
+    seq        BIGINT      NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_foo_outbox_seq (seq)
+) ENGINE = InnoDB;
+
+-- Générateur de FooOutboxEvent.id (allocationSize = 50)
+CREATE TABLE foo_outbox_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO foo_outbox_seq VALUES (1);
@@ -0,0 +1,14 @@
+-- Clés d'idempotence partagées entre instances (JdbcIdempotencyStore, foo.idempotency.store=jdbc).
+-- key_hash : SHA-256 tronqué à 128 bits de l'utilisateur, de l'opération et de la clé ; status NULL = requête en cours.
+-- expires_at : fin du bail de la requête en cours, puis fin de conservation de la réponse (purge périodique).
+CREATE TABLE idempotency_keys (
+    key_hash    BINARY(16)    NOT NULL,
+    fingerprint BIGINT        NOT NULL,
+    status      SMALLINT      NULL,
+    location    VARCHAR(2048) NULL,
+    etag        VARCHAR(255)  NULL,
+    body        MEDIUMBLOB    NULL,
+    expires_at  DATETIME(6)   NOT NULL,
+    PRIMARY KEY (key_hash),
+    KEY idx_idempotency_keys_expires_at (expires_at)
+) ENGINE = InnoDB;
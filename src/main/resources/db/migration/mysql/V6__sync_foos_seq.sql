@@ -0,0 +1,11 @@
+-- Générateur de Foo.id sur une base existante : marquée en V1 (baseline-on-migrate), elle n'a jamais exécuté
+-- V1__create_foos.sql et n'a donc pas la table foos_seq (ids attribués jusque-là par AUTO_INCREMENT).
+-- Table créée si elle manque, puis placée au-delà des ids existants : avec l'optimiseur pooled d'Hibernate,
+-- une valeur lue N donne les ids N - 49 à N, d'où MAX(id) + 50. Jamais reculée (GREATEST) : des blocs déjà
+-- distribués aux instances en cours ne doivent pas être redistribués.
+-- Déploiement progressif : arrêter les instances encore en AUTO_INCREMENT avant de démarrer celles-ci.
+CREATE TABLE IF NOT EXISTS foos_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO foos_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM foos_seq);
+UPDATE foos_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM foos));
@@ -0,0 +1,7 @@
+-- Rattrapages terminés (BackfillRunner) : un rattrapage enregistré ici n'est plus relancé au démarrage.
+CREATE TABLE backfill_completions (
+    name         VARCHAR(100) NOT NULL,
+    completed_at DATETIME(6)  NOT NULL,
+    rows_updated BIGINT       NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
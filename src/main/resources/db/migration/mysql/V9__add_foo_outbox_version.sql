@@ -0,0 +1,9 @@
+-- Version du Foo après l'écriture, publiée avec chaque modification : les ids de foo_outbox viennent d'une séquence
+-- pooled (blocs de 50 par instance), leur ordre n'est donc pas celui des écritures. Le relais s'en sert pour ordonner
+-- les lignes d'un même Foo dans un lot, les consommateurs pour écarter une modification plus ancienne que la dernière vue.
+-- NULL pour une suppression et pour les lignes écrites avant cette migration.
+-- Colonne nullable ajoutée en fin de table sans copie (ALGORITHM=INSTANT).
+
+-- Ne pas bloquer les requêtes derrière le verrou de métadonnées si une longue transaction tient la table
+SET SESSION lock_wait_timeout = 5;
+ALTER TABLE foo_outbox ADD COLUMN version BIGINT NULL, ALGORITHM = INSTANT;
@@ -0,0 +1,13 @@
+-- Créations asynchrones écrites en base (FooWriteBehindWriter) : insérées dans la transaction du Foo créé.
+-- Au rejeu du journal, une demande déjà présente ici n'est pas recréée ; son état reste consultable après un
+-- redémarrage. foo_id NULL = création en échec (error). Lignes purgées après foo.async.status-ttl.
+-- Nouvelle table : aucune précaution de migration en ligne nécessaire.
+CREATE TABLE foo_async_creations (
+    tracking_id UUID                        NOT NULL,
+    foo_id      BIGINT,
+    error       VARCHAR(255),
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (tracking_id)
+);
+
+CREATE INDEX idx_foo_async_creations_created_at ON foo_async_creations (created_at);
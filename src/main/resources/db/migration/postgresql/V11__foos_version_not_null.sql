@@ -0,0 +1,17 @@
+-- Version obligatoire, seconde étape : après le rattrapage foos.version (FooVersionBackfill, voir V8), aucune
+-- ligne n'a plus de version NULL. Appliquée seulement une fois ce rattrapage enregistré dans backfill_completions
+-- (BackfillGatedMigrationStrategy) : avec des NULL restants, la validation échouerait.
+-- Hors transaction (V11__foos_version_not_null.sql.conf) : chaque instruction relâche son verrou en se terminant,
+-- le parcours de VALIDATE ne se fait donc pas sous le verrou ACCESS EXCLUSIVE pris par ADD CONSTRAINT.
+-- En cas d'échec, supprimer la contrainte foos_version_not_null si elle existe avant de relancer.
+
+-- Ne pas bloquer les requêtes en file derrière le verrou ACCESS EXCLUSIVE si une longue transaction tient la table
+SET lock_timeout = '5s';
+-- Contrainte ajoutée sans vérifier les lignes existantes : verrou bref
+ALTER TABLE foos ADD CONSTRAINT foos_version_not_null CHECK (version IS NOT NULL) NOT VALID;
+-- Parcours de la table sous SHARE UPDATE EXCLUSIVE : lectures et écritures continuent
+ALTER TABLE foos VALIDATE CONSTRAINT foos_version_not_null;
+-- La contrainte validée prouve l'absence de NULL : SET NOT NULL ne parcourt plus la table, puis elle devient inutile
+ALTER TABLE foos ALTER COLUMN version SET NOT NULL;
+ALTER TABLE foos DROP CONSTRAINT foos_version_not_null;
+RESET lock_timeout;
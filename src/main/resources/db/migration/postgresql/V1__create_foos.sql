@@ -0,0 +1,11 @@
+-- Schéma initial, tel que généré par Hibernate avant l'introduction de Flyway.
+-- Une base existante est marquée en V1 sans exécuter ce script (spring.flyway.baseline-on-migrate).
+CREATE TABLE foos (
+    id      BIGINT      NOT NULL,
+    name    VARCHAR(50) NOT NULL,
+    version BIGINT,
+    PRIMARY KEY (id)
+);
+
+-- Générateur de Foo.id (allocationSize = 50)
+CREATE SEQUENCE foos_seq START WITH 1 INCREMENT BY 50;
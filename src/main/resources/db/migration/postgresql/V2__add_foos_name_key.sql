@@ -0,0 +1,10 @@
+-- Recherche par nom (GET /api/v1/foos/by-name) : nom normalisé en minuscules.
+-- Migration en ligne : une colonne nullable sans valeur par défaut est ajoutée sans réécrire la table.
+-- Les lignes existantes sont remplies en arrière-plan par FooNameKeyBackfill ; la contrainte NOT NULL viendra
+-- dans une migration ultérieure, une fois ce rattrapage terminé.
+-- Collation "C" : un index B-tree ordinaire (V3) sert aussi les préfixes (LIKE 'abc%'), sans varchar_pattern_ops.
+-- IF NOT EXISTS : les bases créées par ddl-auto=update peuvent déjà avoir la colonne.
+
+-- Ne pas bloquer les requêtes en file derrière le verrou ACCESS EXCLUSIVE si une longue transaction tient la table
+SET LOCAL lock_timeout = '5s';
+ALTER TABLE foos ADD COLUMN IF NOT EXISTS name_key VARCHAR(100) COLLATE "C";
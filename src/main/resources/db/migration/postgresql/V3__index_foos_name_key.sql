@@ -0,0 +1,4 @@
+-- Index construit sans bloquer les écritures. CONCURRENTLY ne peut pas s'exécuter dans une transaction :
+-- Flyway exécute donc cette migration, réduite à cette seule instruction, hors transaction.
+-- En cas d'échec, l'index reste INVALID et doit être supprimé (DROP INDEX CONCURRENTLY) avant de relancer.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_foos_name_key ON foos (name_key);
@@ -0,0 +1,19 @@
+-- Outbox transactionnelle des modifications de Foos (FooOutboxEvent), alimentée dans la transaction de chaque écriture.
+-- seq est attribué à la publication par FooOutboxRelay : NULL tant que la ligne n'est pas publiée.
+-- Nouvelle table : aucune précaution de migration en ligne nécessaire.
+CREATE TABLE foo_outbox (
+    id         BIGINT                      NOT NULL,
+    foo_id     BIGINT                      NOT NULL,
+    type       VARCHAR(10)                 NOT NULL,
+    name       VARCHAR(50),
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    seq        BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_foo_outbox_seq UNIQUE (seq)
+);
+
+-- Lignes à publier, dans l'ordre de la clé primaire : index partiel, vide en régime établi
+CREATE INDEX idx_foo_outbox_unpublished ON foo_outbox (id) WHERE seq IS NULL;
+
+-- Générateur de FooOutboxEvent.id (allocationSize = 50)
+CREATE SEQUENCE foo_outbox_seq START WITH 1 INCREMENT BY 50;
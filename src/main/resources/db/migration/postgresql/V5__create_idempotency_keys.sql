@@ -0,0 +1,16 @@
+-- Clés d'idempotence partagées entre instances (JdbcIdempotencyStore, foo.idempotency.store=jdbc).
+-- key_hash : SHA-256 tronqué à 128 bits de l'utilisateur, de l'opération et de la clé ; status NULL = requête en cours.
+-- expires_at : fin du bail de la requête en cours, puis fin de conservation de la réponse (purge périodique).
+-- Nouvelle table : aucune précaution de migration en ligne nécessaire.
+CREATE TABLE idempotency_keys (
+    key_hash    BYTEA                       NOT NULL,
+    fingerprint BIGINT                      NOT NULL,
+    status      SMALLINT,
+    location    VARCHAR(2048),
+    etag        VARCHAR(255),
+    body        BYTEA,
+    expires_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (key_hash)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,8 @@
+-- Générateur de Foo.id sur une base existante : marquée en V1 (baseline-on-migrate), elle n'a jamais exécuté
+-- V1__create_foos.sql et n'a donc pas la séquence foos_seq (ids attribués jusque-là par une colonne identity).
+-- Séquence créée si elle manque, puis placée au-delà des ids existants : avec l'optimiseur pooled d'Hibernate,
+-- une valeur N donne les ids N - 49 à N, et la prochaine valeur sera MAX(id) + 100. Jamais reculée (GREATEST) :
+-- des blocs déjà distribués aux instances en cours ne doivent pas être redistribués.
+-- Déploiement progressif : arrêter les instances encore en identity avant de démarrer celles-ci.
+CREATE SEQUENCE IF NOT EXISTS foos_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('foos_seq', GREATEST((SELECT last_value FROM foos_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM foos)));
@@ -0,0 +1,8 @@
+-- Rattrapages terminés (BackfillRunner) : un rattrapage enregistré ici n'est plus relancé au démarrage.
+-- Nouvelle table : aucune précaution de migration en ligne nécessaire.
+CREATE TABLE backfill_completions (
+    name         VARCHAR(100)                NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    rows_updated BIGINT                      NOT NULL,
+    PRIMARY KEY (name)
+);
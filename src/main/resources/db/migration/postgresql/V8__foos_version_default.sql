@@ -0,0 +1,10 @@
+-- Version obligatoire, première étape : les lignes écrites avant le verrouillage optimiste ont une version NULL,
+-- donc pas d'ETag, et un If-Match ne peut jamais leur correspondre. Elles partent de la version 0, comme un Foo
+-- nouvellement créé : remplies par lots par FooVersionBackfill (BackfillRunner), pas par un UPDATE de toute la table.
+-- NOT NULL est ajouté par V11, une fois ce rattrapage terminé. La valeur par défaut couvre d'ici là les instances
+-- encore en cours d'exécution pendant le déploiement.
+
+-- Ne pas bloquer les requêtes en file derrière le verrou ACCESS EXCLUSIVE si une longue transaction tient la table
+SET LOCAL lock_timeout = '5s';
+-- Valeur par défaut : catalogue seulement, ni parcours ni réécriture de la table
+ALTER TABLE foos ALTER COLUMN version SET DEFAULT 0;
@@ -109,7 +109,7 @@ public class ArchTest {
                 .whereLayer("Controller").mayOnlyBeAccessedByLayers("Config") // Ex: SecurityConfig peut référencer des contrôleurs pour les permissions
                 .whereLayer("Service").mayOnlyBeAccessedByLayers("Controller", "Service", "Config") // Services peuvent s'appeler entre eux, ou être utilisés par la config (ex: UserDetailsService)
                 .whereLayer("Repository").mayOnlyBeAccessedByLayers("Service")
-                .whereLayer("DTO").mayOnlyBeAccessedByLayers("Controller", "Service", "Mapper") // DTOs sont des objets de données, utilisables partout
+                .whereLayer("DTO").mayOnlyBeAccessedByLayers("Controller", "Service", "Mapper", "Repository") // DTOs sont des objets de données, utilisables partout (projections JPQL côté repository)
                 .whereLayer("Entity").mayOnlyBeAccessedByLayers("Service", "Repository", "Mapper") // Typiquement, les services manipulent des entités, les repos les persistent, les mappers les convertissent
                 .whereLayer("Mapper").mayOnlyBeAccessedByLayers("Service", "Controller") // Les services et parfois les contrôleurs peuvent utiliser des mappers
                 .whereLayer("Exception").mayOnlyBeAccessedByLayers("Controller", "Service", "Mapper"); // Les exceptions peuvent être lancées/utilisées partout
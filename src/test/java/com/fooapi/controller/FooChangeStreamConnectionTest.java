@@ -0,0 +1,127 @@
+package com.fooapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fooapi.support.FooApiTestApplication;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import repository.FooOutboxRepository;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Abonnés SSE plus nombreux que les connexions du pool : un flux ne doit pas garder de connexion JDBC
+ * (open-in-view) et les autres requêtes doivent continuer d'en obtenir une.
+ */
+class FooChangeStreamConnectionTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private static Path jwksFile;
+    private static ConfigurableApplicationContext context;
+    private static HttpClient client;
+    private static URI apiUri;
+    private static String authorization;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        RSAKey signingKey = new RSAKeyGenerator(2048).keyID("test").generate();
+        jwksFile = Files.createTempFile("jwks", ".json");
+        Files.writeString(jwksFile, new JWKSet(signingKey.toPublicJWK()).toString());
+        context = new SpringApplicationBuilder(FooApiTestApplication.class)
+                .profiles("test")
+                .properties("spring.main.banner-mode=off")
+                .run("--server.port=0", "--foo.security.jwt.jwk-set-uri=" + jwksFile.toUri(),
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.hikari.connection-timeout=1000",
+                        "--foo.outbox.relay.poll-interval=50ms", "--foo.changes.heartbeat-interval=200ms");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        apiUri = URI.create("http://localhost:" + port + "/api/v1/");
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("test")
+                        .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                        .claim("roles", List.of("USER"))
+                        .build());
+        jwt.sign(new RSASSASigner(signingKey));
+        authorization = "Bearer " + jwt.serialize();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    static void stopApplication() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (jwksFile != null) {
+            Files.deleteIfExists(jwksFile);
+        }
+    }
+
+    @Test
+    void openChangeStreams_shouldNotHoldPooledConnections() throws Exception {
+        HttpResponse<String> created = client.send(request("foos")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"streamed\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, created.statusCode(), created::body);
+        long id = new ObjectMapper().readTree(created.body()).path("id").asLong();
+        // Une modification publiée : since=0 consulte alors la base (plus ancien seq retenu) à l'abonnement
+        FooOutboxRepository outbox = context.getBean(FooOutboxRepository.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outbox.findMaxSeq() == 0) {
+            assertTrue(System.nanoTime() < deadline, "Change not published within 10 s");
+            Thread.sleep(20);
+        }
+
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < POOL_SIZE + 2; i++) {
+                HttpResponse<InputStream> stream = client.send(request("foos/changes?since=0").build(),
+                        HttpResponse.BodyHandlers.ofInputStream());
+                streams.add(stream.body());
+                assertEquals(200, stream.statusCode());
+            }
+
+            HttpResponse<String> response = client.send(request("foos/" + id).timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), response::body);
+        } finally {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    private static HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(apiUri.resolve(path)).header("Authorization", authorization);
+    }
+}
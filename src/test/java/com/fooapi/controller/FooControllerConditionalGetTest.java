@@ -0,0 +1,142 @@
+package com.fooapi.controller;
+
+import controller.FooController;
+import dto.FooResponseDTO;
+import exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import service.FooAsyncCreateService;
+import service.FooService;
+import service.idempotency.IdempotencyGuard;
+import service.outbox.FooChangeFeed;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class FooControllerConditionalGetTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Mock
+    private FooService fooService;
+
+    @Mock
+    private FooAsyncCreateService fooAsyncCreateService;
+
+    @Mock
+    private FooChangeFeed fooChangeFeed;
+
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FooController(fooService, fooAsyncCreateService, fooChangeFeed, idempotencyGuard))
+                .setControllerAdvice(new GlobalExceptionHandler(Duration.ofSeconds(10)))
+                .build();
+    }
+
+    @Test
+    void getFooById_shouldReturnVersionAsStrongETag() throws Exception {
+        when(fooService.getFooById(1L)).thenReturn(new FooResponseDTO(1L, "Test Foo", 2L));
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.version", is(2)));
+        verify(fooService, never()).getFooVersion(any());
+    }
+
+    @Test
+    void getFooById_whenIfNoneMatchIsCurrent_shouldReturn304WithoutLoadingFoo() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        verify(fooService, never()).getFooById(any());
+    }
+
+    @Test
+    void getFooById_whenIfNoneMatchIsStale_shouldReturnCurrentRepresentation() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(3L);
+        when(fooService.getFooById(1L)).thenReturn(new FooResponseDTO(1L, "Updated Foo", 3L));
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name", is("Updated Foo")));
+    }
+
+    @Test
+    void getFooById_asCbor_shouldReturnARepresentationSpecificETag() throws Exception {
+        when(fooService.getFooById(1L)).thenReturn(new FooResponseDTO(1L, "Test Foo", 2L));
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void getFooById_asCbor_whenIfNoneMatchIsCurrent_shouldReturn304WithoutLoadingFoo() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"2-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(fooService, never()).getFooById(any());
+    }
+
+    @Test
+    void getFooById_asSmile_whenIfNoneMatchIsCurrent_shouldReturn304WithoutLoadingFoo() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, "\"2-smile\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-smile\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(fooService, never()).getFooById(any());
+    }
+
+    @Test
+    void getFooById_asSmile_whenIfNoneMatchIsTheJsonETag_shouldReturnTheSmileRepresentation() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(2L);
+        when(fooService.getFooById(1L)).thenReturn(new FooResponseDTO(1L, "Test Foo", 2L));
+
+        // Même version, autre représentation : les octets en cache côté client ne sont pas du Smile
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L).accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-smile\""));
+    }
+
+    @Test
+    void getFooById_whenJsonIsPreferred_shouldReturnTheJsonETag() throws Exception {
+        when(fooService.getFooVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/v1/foos/{id}", 1L)
+                        .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+}
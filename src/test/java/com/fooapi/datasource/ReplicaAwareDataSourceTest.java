@@ -0,0 +1,134 @@
+package com.fooapi.datasource;
+
+import datasource.ReadYourWritesFilter;
+import datasource.ReplicaAwareDataSource;
+import datasource.ReplicaPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Deux bases H2 embarquées jouent le primaire et le réplica ; chacune contient une ligne différente
+class ReplicaAwareDataSourceTest {
+
+    private JdbcDataSource primary;
+    private JdbcDataSource replica;
+    private ReplicaAwareDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (seconds DOUBLE); INSERT INTO replica_lag VALUES (0)");
+        ReplicaPool replicaPool = new ReplicaPool(primary, List.of(replica), ReplicaPool.Balancing.ROUND_ROBIN,
+                Duration.ofSeconds(1), "SELECT seconds FROM replica_lag", Duration.ZERO, new SimpleMeterRegistry());
+        dataSource = new ReplicaAwareDataSource(primary, replicaPool);
+        dataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactions_shouldReadFromReplica_andOthersFromPrimary() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+        assertEquals("primary", readWriteTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void connectionWithCredentials_shouldBeOpenedOnReplica() throws Exception {
+        try (Connection connection = dataSource.replicaPool().getConnection("sa", "");
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT role FROM node")) {
+            assertTrue(resultSet.next());
+            assertEquals("replica", resultSet.getString(1));
+        }
+    }
+
+    @Test
+    void laggingReplica_shouldBeEjectedThenReadmitted() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 5");
+        dataSource.replicaPool().checkHealth();
+        assertEquals(0, dataSource.replicaPool().healthyReplicas());
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 0");
+        dataSource.replicaPool().checkHealth();
+        assertEquals("replica", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void unmeasuredLag_shouldEjectTheReplica() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = NULL");
+        dataSource.replicaPool().checkHealth();
+
+        assertEquals(0, dataSource.replicaPool().healthyReplicas());
+        assertEquals("primary", readOnlyTransaction.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void replicasWithoutLagQuery_shouldBeRejectedAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaPool(primary, List.of(replica),
+                ReplicaPool.Balancing.ROUND_ROBIN, Duration.ofSeconds(1), "", Duration.ZERO, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void readYourWritesFilter_shouldKeepReadsOnPrimaryAfterAWrite() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        AtomicReference<String> readFrom = new AtomicReference<>();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/foos"), writeResponse, new MockFilterChain());
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(cookie);
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/foos/1");
+        read.setCookies(cookie);
+        filter.doFilter(read, new MockHttpServletResponse(),
+                (request, response) -> readFrom.set(readOnlyTransaction.execute(status -> whoAmI())));
+        assertEquals("primary", readFrom.get());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/foos/1"), new MockHttpServletResponse(),
+                (request, response) -> readFrom.set(readOnlyTransaction.execute(status -> whoAmI())));
+        assertEquals("replica", readFrom.get());
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT role FROM node", String.class);
+    }
+
+    private static JdbcDataSource h2(String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE node (role VARCHAR(16)); INSERT INTO node VALUES ('" + role + "')");
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fooapi.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dto.ErrorResponseDTO;
+import exception.FooNotFoundException;
+import exception.GlobalExceptionHandler;
+import exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(Duration.ofSeconds(10));
+
+    @Test
+    void handleResourceNotFoundException_shouldWriteEscapedErrorJsonReadableAsErrorResponseDTO() throws Exception {
+        FooNotFoundException ex = new FooNotFoundException("name", "Foo \"quoted\" \\ \n");
+
+        ResponseEntity<byte[]> response = handler.handleResourceNotFoundException(ex, request("/api/v1/foos/by-name/x"));
+
+        assertEquals(404, response.getStatusCode().value());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        ErrorResponseDTO body = objectMapper.readValue(response.getBody(), ErrorResponseDTO.class);
+        assertEquals(404, body.status());
+        assertEquals("Not Found", body.error());
+        assertEquals("Foo not found with name: Foo \"quoted\" \\ \n", body.message());
+        assertEquals("uri=/api/v1/foos/by-name/x", body.path());
+        assertTrue(body.timestamp().isAfter(LocalDateTime.now().minusMinutes(1)));
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    void handleTooManyRequestsException_shouldKeepRetryAfterHeader() throws Exception {
+        ResponseEntity<byte[]> response = handler.handleTooManyRequestsException(
+                new TooManyRequestsException("Rate limit exceeded", 3), request("/api/v1/foos/1"));
+
+        assertEquals(429, response.getStatusCode().value());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Rate limit exceeded", objectMapper.readValue(response.getBody(), ErrorResponseDTO.class).message());
+    }
+
+    private static ServletWebRequest request(String uri) {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", uri));
+    }
+}
@@ -0,0 +1,42 @@
+package com.fooapi.metrics;
+
+import entity.Foo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mapper.FooMapper;
+import metrics.LayerTimingAspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayerTimingAspectTest {
+
+    private FooMapper proxiedMapper(SimpleMeterRegistry registry, double mapperSampleRate) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(FooMapper.INSTANCE);
+        factory.addAspect(new LayerTimingAspect(registry, 1.0, mapperSampleRate));
+        return factory.getProxy();
+    }
+
+    @Test
+    void mapperCall_whenFullySampled_shouldRecordTimerPerMethodAndOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FooMapper mapper = proxiedMapper(registry, 1.0);
+
+        mapper.toResponseDTO(new Foo(1L, "Foo"));
+        mapper.toResponseDTO(new Foo(2L, "Bar"));
+
+        assertEquals(2, registry.get("foo.mapper")
+                .tag("method", "toResponseDTO")
+                .tag("outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void mapperCall_whenSampleRateIsZero_shouldNotRecord() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FooMapper mapper = proxiedMapper(registry, 0.0);
+
+        assertEquals("Foo", mapper.toResponseDTO(new Foo(1L, "Foo")).name());
+        assertNull(registry.find("foo.mapper").timer());
+    }
+}
@@ -0,0 +1,73 @@
+package com.fooapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import ratelimit.AdaptiveConcurrencyLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 5, THRESHOLD, 0.5, now::get);
+
+    @Test
+    void tryAcquire_shouldRejectBeyondTheLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.inFlight());
+    }
+
+    @Test
+    void release_shouldIncreaseWhenBusyAndFastAndBackOffWhenSlowOrOverloaded() {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(THRESHOLD / 2, false);
+        assertEquals(5, limiter.limit());
+        limiter.release(THRESHOLD / 2, false);
+        assertEquals(5, limiter.limit()); // plafond max-limit
+
+        now.addAndGet(THRESHOLD * 2);
+        limiter.release(THRESHOLD * 2, false);
+        assertEquals(2, limiter.limit());
+        now.addAndGet(THRESHOLD);
+        limiter.release(THRESHOLD / 2, true);
+        assertEquals(2, limiter.limit()); // plancher min-limit
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void release_whenConcurrentResponsesAreSlow_shouldBackOffOncePerWindow() {
+        AdaptiveConcurrencyLimiter wide = new AdaptiveConcurrencyLimiter(40, 1, 100, THRESHOLD, 0.5, now::get);
+        for (int i = 0; i < 4; i++) {
+            wide.tryAcquire();
+        }
+        now.addAndGet(THRESHOLD * 2);
+        for (int i = 0; i < 4; i++) {
+            wide.release(THRESHOLD * 2, i % 2 == 0);
+        }
+        assertEquals(20, wide.limit()); // une baisse, pas quatre
+
+        // Requête partie après la baisse : nouvelle fenêtre
+        wide.tryAcquire();
+        now.addAndGet(THRESHOLD * 3);
+        wide.release(THRESHOLD * 2, false);
+        assertEquals(10, wide.limit());
+    }
+
+    @Test
+    void release_whenLimitIsMostlyUnused_shouldNotGrowIt() {
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD / 2, false);
+
+        assertEquals(4, limiter.limit());
+    }
+}
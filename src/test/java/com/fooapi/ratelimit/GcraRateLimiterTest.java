@@ -0,0 +1,51 @@
+package com.fooapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import ratelimit.GcraRateLimiter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    @Test
+    void tryAcquire_shouldAdmitBurstThenReportWaitUntilNextToken() {
+        GcraRateLimiter limiter = new GcraRateLimiter(1, 3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("alice"));
+        }
+        long waitNanos = limiter.tryAcquire("alice");
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(900) && waitNanos <= TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    void tryAcquire_underContention_shouldAdmitExactlyTheBurst() throws Exception {
+        GcraRateLimiter limiter = new GcraRateLimiter(0.001, 100, 100);
+        AtomicInteger admitted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("alice") == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(100, admitted.get());
+    }
+}
@@ -0,0 +1,142 @@
+package com.fooapi.security;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import exception.UnauthorizedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import security.JwkSetSource;
+import security.JwtVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String ISSUER = "https://auth.example.com";
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RSAKey signingKey;
+    private Path jwksFile;
+    private JwkSetSource jwkSetSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        jwksFile = tempDir.resolve("jwks.json");
+        writeJwks(signingKey);
+        jwkSetSource = new JwkSetSource(jwksFile.toUri().toString(), Duration.ofMinutes(10), Duration.ZERO);
+        jwkSetSource.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwkSetSource.close();
+    }
+
+    @Test
+    void authenticate_shouldMapSubjectAndRolesAndReuseTheVerifiedTokenFromCache() throws Exception {
+        JwtVerifier verifier = verifier(100);
+        String token = token(signingKey, ISSUER, Instant.now().plusSeconds(300), List.of("USER", "ROLE_ADMIN"));
+
+        Authentication first = verifier.authenticate(token);
+        Authentication second = verifier.authenticate(token);
+
+        assertEquals("alice", first.getName());
+        assertTrue(first.isAuthenticated());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), first.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(first, second);
+        assertEquals(1, authentications("verified"));
+        assertEquals(1, authentications("cached"));
+    }
+
+    @Test
+    void authenticate_withCacheDisabled_shouldVerifyEveryTime() throws Exception {
+        JwtVerifier verifier = verifier(0);
+        String token = token(signingKey, ISSUER, Instant.now().plusSeconds(300), List.of("USER"));
+
+        assertNotSame(verifier.authenticate(token), verifier.authenticate(token));
+        assertEquals(2, authentications("verified"));
+    }
+
+    @Test
+    void authenticate_shouldRejectForgedExpiredOrForeignTokens() throws Exception {
+        JwtVerifier verifier = verifier(100);
+        RSAKey forgedKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        Instant inFiveMinutes = Instant.now().plusSeconds(300);
+
+        assertThrows(UnauthorizedException.class, () -> verifier.authenticate(token(forgedKey, ISSUER, inFiveMinutes, List.of("USER"))));
+        assertThrows(UnauthorizedException.class, () -> verifier.authenticate(token(signingKey, ISSUER, Instant.now().minusSeconds(60), List.of("USER"))));
+        assertThrows(UnauthorizedException.class, () -> verifier.authenticate(token(signingKey, "https://other.example.com", inFiveMinutes, List.of("USER"))));
+        assertThrows(UnauthorizedException.class, () -> verifier.authenticate("not-a-jwt"));
+        assertEquals(4, authentications("rejected"));
+    }
+
+    @Test
+    void authenticate_afterKeyRemovalFromJwks_shouldRejectPreviouslyCachedToken() throws Exception {
+        JwtVerifier verifier = verifier(100);
+        String token = token(signingKey, ISSUER, Instant.now().plusSeconds(300), List.of("USER"));
+        verifier.authenticate(token);
+
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        writeJwks(rotatedKey);
+        jwkSetSource.refresh();
+
+        assertThrows(UnauthorizedException.class, () -> verifier.authenticate(token));
+        assertEquals("alice", verifier.authenticate(token(rotatedKey, ISSUER, Instant.now().plusSeconds(300), List.of("USER"))).getName());
+    }
+
+    @Test
+    void jwkSetSource_shouldRejectPlainHttpLocation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new JwkSetSource("http://auth.example.com/.well-known/jwks.json", Duration.ofMinutes(10), Duration.ZERO));
+    }
+
+    private JwtVerifier verifier(long cacheMaximumSize) {
+        return new JwtVerifier(jwkSetSource, ISSUER, "", "roles", Duration.ofSeconds(5), cacheMaximumSize,
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    private double authentications(String outcome) {
+        return meterRegistry.get("foo.security.jwt.authentications").tag("outcome", outcome).counter().count();
+    }
+
+    private void writeJwks(RSAKey key) throws Exception {
+        Files.writeString(jwksFile, new JWKSet(key.toPublicJWK()).toString());
+    }
+
+    private static String token(RSAKey key, String issuer, Instant expiresAt, List<String> roles) throws Exception {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("alice")
+                        .issuer(issuer)
+                        .expirationTime(Date.from(expiresAt))
+                        .claim("roles", roles)
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -1,18 +1,52 @@
 package com.fooapi.service;
 
+import datasource.ReadYourWritesFilter;
+import dto.FooBatchItemResultDTO;
+import dto.FooBatchResponseDTO;
+import dto.FooMultiGetResponseDTO;
+import dto.FooPageResponseDTO;
+import dto.FooPatchRequestDTO;
+import dto.FooRequestDTO;
 import dto.FooResponseDTO;
+import dto.FooSearchHitDTO;
 import entity.Foo;
+import exception.BadRequestException;
+import exception.PreconditionFailedException;
 import exception.ResourceNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 import mapper.FooMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import repository.FooRepository;
+import service.coalescing.FooLoadCoalescer;
+import service.concurrency.DbConcurrencyLimiter;
+import service.event.FooChangedEvent;
+import service.cache.FooCache;
 import service.impl.FooServiceImpl;
+import service.pagination.KeysetCursor;
+import service.search.FooNameIndex;
+import service.search.FooSearchIndex;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +61,27 @@ class FooServiceTest {
     @Mock
     private FooMapper fooMapper;
 
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private FooCache fooCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private FooLoadCoalescer fooLoadCoalescer = new FooLoadCoalescer(new SimpleMeterRegistry(), Duration.ZERO, 128);
+
+    @Mock
+    private FooSearchIndex fooSearchIndex;
+
+    @Spy
+    private DbConcurrencyLimiter dbConcurrencyLimiter = new DbConcurrencyLimiter(8, Duration.ofSeconds(1), 1, new SimpleMeterRegistry());
+
     @InjectMocks
     private FooServiceImpl fooService;
 
@@ -46,6 +101,7 @@ class FooServiceTest {
         assertEquals(expectedResponse.name(), actualResponse.name());
         verify(fooRepository).findById(fooId);
         verify(fooMapper).toResponseDTO(fooEntity);
+        verify(fooCache).put(eq(expectedResponse), anyLong());
     }
 
     @Test
@@ -56,5 +112,265 @@ class FooServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> fooService.getFooById(fooId));
         verify(fooRepository).findById(fooId);
         verifyNoInteractions(fooMapper); // Ou verify(fooMapper, never()).toResponseDTO(any());
+        verify(fooCache).putMissing(eq(fooId), anyLong());
+    }
+
+    @Test
+    void getFooById_whenFooIsCached_shouldNotQueryRepository() {
+        Long fooId = 1L;
+        FooResponseDTO cached = new FooResponseDTO(fooId, "Cached Foo");
+        when(fooCache.getIfPresent(fooId)).thenReturn(cached);
+
+        assertSame(cached, fooService.getFooById(fooId));
+        verifyNoInteractions(fooRepository, fooMapper);
+    }
+
+    @Test
+    void getFooById_whenFooIsCachedAsMissing_shouldThrowWithoutQueryingRepository() {
+        Long fooId = 1L;
+        when(fooCache.isKnownMissing(fooId)).thenReturn(true);
+
+        assertThrows(ResourceNotFoundException.class, () -> fooService.getFooById(fooId));
+        verifyNoInteractions(fooRepository);
+    }
+
+    @Test
+    void getFooById_withinReadYourWritesWindow_shouldBypassCacheAndCoalescer() throws Exception {
+        Long fooId = 1L;
+        Foo fooEntity = new Foo(fooId, "Renamed Foo");
+        FooResponseDTO expectedResponse = new FooResponseDTO(fooId, "Renamed Foo");
+        when(fooRepository.findById(fooId)).thenReturn(Optional.of(fooEntity));
+        when(fooMapper.toResponseDTO(fooEntity)).thenReturn(expectedResponse);
+
+        // Une requête d'écriture place le thread dans la fenêtre ReadYourWrites
+        AtomicReference<FooResponseDTO> actualResponse = new AtomicReference<>();
+        new ReadYourWritesFilter(Duration.ofSeconds(5)).doFilter(new MockHttpServletRequest("POST", "/api/v1/foos"),
+                new MockHttpServletResponse(), (request, response) -> actualResponse.set(fooService.getFooById(fooId)));
+
+        assertEquals(expectedResponse, actualResponse.get());
+        verify(fooCache, never()).getIfPresent(any());
+        verify(fooCache, never()).isKnownMissing(any());
+        verify(fooLoadCoalescer, never()).load(any(), any());
+        verify(fooRepository).findById(fooId);
+    }
+
+    @Test
+    void getFooVersion_whenFooIsCached_shouldNotQueryRepository() {
+        when(fooCache.getIfPresent(1L)).thenReturn(new FooResponseDTO(1L, "Cached Foo", 3L));
+
+        assertEquals(3L, fooService.getFooVersion(1L));
+        verifyNoInteractions(fooRepository);
+    }
+
+    @Test
+    void getFooVersion_whenNotCached_shouldReadOnlyTheVersionColumn() {
+        when(fooRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertEquals(5L, fooService.getFooVersion(1L));
+        verify(fooRepository, never()).findById(any());
+        verifyNoInteractions(fooMapper);
+    }
+
+    @Test
+    void getFooVersion_whenFooDoesNotExist_shouldThrowAndCacheMissingId() {
+        when(fooRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> fooService.getFooVersion(1L));
+        verify(fooCache).putMissing(eq(1L), anyLong());
+    }
+
+    @Test
+    void updateFoo_withIfMatch_shouldIssueSingleUpdateWithoutReadingTheFoo() {
+        when(fooRepository.updateName(1L, "Renamed Foo", "renamed foo", 3L)).thenReturn(1);
+
+        FooResponseDTO updated = fooService.updateFoo(1L, new FooRequestDTO("Renamed Foo"), 3L);
+
+        assertEquals(new FooResponseDTO(1L, "Renamed Foo", 4L), updated);
+        verify(fooRepository, never()).findById(any());
+        verify(fooRepository, never()).findVersionById(any());
+        verify(eventPublisher).publishEvent(new FooChangedEvent(1L, FooChangedEvent.Type.UPDATED, "Renamed Foo", 4L));
+    }
+
+    @Test
+    void updateFoo_whenVersionChanged_shouldThrowPreconditionFailedException() {
+        when(fooRepository.updateName(1L, "Renamed Foo", "renamed foo", 3L)).thenReturn(0);
+        when(fooRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertThrows(PreconditionFailedException.class, () -> fooService.updateFoo(1L, new FooRequestDTO("Renamed Foo"), 3L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patchFoo_withoutChangedFields_shouldNotWrite() {
+        when(fooCache.getIfPresent(1L)).thenReturn(new FooResponseDTO(1L, "Cached Foo", 3L));
+
+        assertEquals(3L, fooService.patchFoo(1L, new FooPatchRequestDTO(null), 3L).version());
+        assertThrows(PreconditionFailedException.class, () -> fooService.patchFoo(1L, new FooPatchRequestDTO(null), 2L));
+        verify(fooRepository, never()).updateName(any(), any(), any(), any());
+    }
+
+    @Test
+    void deleteFoo_whenFooDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(fooRepository.deleteByIdAndVersion(1L, 3L)).thenReturn(0);
+        when(fooRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> fooService.deleteFoo(1L, 3L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void getFoosByIds_shouldQueryOnlyUncachedIdsInChunksAndPreserveRequestOrder() {
+        ReflectionTestUtils.setField(fooService, "multiGetMaxIds", 10);
+        ReflectionTestUtils.setField(fooService, "multiGetChunkSize", 2);
+        FooResponseDTO cached = new FooResponseDTO(3L, "Three");
+        when(fooCache.getIfPresent(any())).thenAnswer(invocation -> invocation.getArgument(0).equals(3L) ? cached : null);
+        when(fooCache.isKnownMissing(any())).thenAnswer(invocation -> invocation.getArgument(0).equals(5L));
+        when(fooRepository.findAllByIdIn(List.of(4L, 1L))).thenReturn(List.of(new FooResponseDTO(1L, "One")));
+        when(fooRepository.findAllByIdIn(List.of(2L))).thenReturn(List.of(new FooResponseDTO(2L, "Two")));
+
+        FooMultiGetResponseDTO result = fooService.getFoosByIds(List.of(4L, 3L, 1L, 5L, 3L, 2L));
+
+        assertEquals(List.of(3L, 1L, 2L), result.items().stream().map(FooResponseDTO::id).toList());
+        assertEquals(List.of(4L, 5L), result.missingIds());
+        verify(fooCache).putMissing(eq(4L), anyLong());
+        verify(fooCache, never()).putMissing(eq(5L), anyLong());
+    }
+
+    @Test
+    void getFoosByIds_whenTooManyIds_shouldThrowBadRequestException() {
+        ReflectionTestUtils.setField(fooService, "multiGetMaxIds", 2);
+
+        assertThrows(BadRequestException.class, () -> fooService.getFoosByIds(List.of(1L, 2L, 3L)));
+        verifyNoInteractions(fooRepository);
+    }
+
+    @Test
+    void createFoos_shouldPersistValidItemsInChunksAndReportInvalidOnes() {
+        ReflectionTestUtils.setField(fooService, "batchMaxSize", 10);
+        ReflectionTestUtils.setField(fooService, "batchChunkSize", 2);
+        FooRequestDTO invalid = new FooRequestDTO("A");
+        List<FooRequestDTO> requests = List.of(new FooRequestDTO("Foo 1"), invalid, new FooRequestDTO("Foo 2"), new FooRequestDTO("Foo 3"));
+
+        ConstraintViolation<FooRequestDTO> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("name");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("Name must be between 2 and 50 characters");
+        when(validator.validate(any(FooRequestDTO.class))).thenReturn(Set.of());
+        when(validator.validate(invalid)).thenReturn(Set.of(violation));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(fooMapper.toEntity(any(FooRequestDTO.class))).thenAnswer(invocation -> new Foo(null, invocation.<FooRequestDTO>getArgument(0).name()));
+        when(fooRepository.persistAll(anyList())).thenAnswer(invocation -> {
+            List<Foo> foos = invocation.getArgument(0);
+            foos.forEach(foo -> foo.setId((long) foo.getName().hashCode()));
+            return foos;
+        });
+        when(fooMapper.toResponseDTO(any(Foo.class))).thenAnswer(invocation -> {
+            Foo foo = invocation.getArgument(0);
+            return new FooResponseDTO(foo.getId(), foo.getName());
+        });
+
+        FooBatchResponseDTO response = fooService.createFoos(requests);
+
+        assertEquals(3, response.created());
+        assertEquals(1, response.failed());
+        assertEquals(FooBatchItemResultDTO.Status.CREATED, response.results().get(0).status());
+        assertEquals(FooBatchItemResultDTO.Status.INVALID, response.results().get(1).status());
+        assertEquals("name: Name must be between 2 and 50 characters", response.results().get(1).error());
+        assertEquals("Foo 3", response.results().get(3).foo().name());
+        verify(fooRepository, times(2)).persistAll(anyList()); // 3 éléments valides, chunks de 2
+    }
+
+    @Test
+    void createFoos_whenBatchTooLarge_shouldThrowBadRequestException() {
+        ReflectionTestUtils.setField(fooService, "batchMaxSize", 1);
+        List<FooRequestDTO> requests = List.of(new FooRequestDTO("Foo 1"), new FooRequestDTO("Foo 2"));
+
+        assertThrows(BadRequestException.class, () -> fooService.createFoos(requests));
+        verifyNoInteractions(fooRepository);
+    }
+
+    @Test
+    void listFoos_whenMoreRowsThanPageSize_shouldReturnCursorToNextPage() {
+        ReflectionTestUtils.setField(fooService, "maxPageSize", 100);
+        when(fooRepository.findPageAfter(10L, Limit.of(3)))
+                .thenReturn(List.of(new FooResponseDTO(11L, "Foo 11"), new FooResponseDTO(12L, "Foo 12"), new FooResponseDTO(13L, "Foo 13")));
+
+        FooPageResponseDTO page = fooService.listFoos(KeysetCursor.encode(10L), 2, null);
+
+        assertEquals(2, page.items().size());
+        assertTrue(page.hasMore());
+        assertEquals(12L, KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void listFoos_withNamePrefix_shouldEscapeLikeWildcards() {
+        ReflectionTestUtils.setField(fooService, "defaultPageSize", 20);
+        when(fooRepository.findPageAfterWithNameLike(0L, "50!%!_off%", Limit.of(21))).thenReturn(List.of());
+
+        FooPageResponseDTO page = fooService.listFoos(null, null, "50%_off");
+
+        assertTrue(page.items().isEmpty());
+        assertFalse(page.hasMore());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getFooByName_shouldIgnoreOtherCaseVariantsAndCacheTheId() {
+        when(fooRepository.findByNameKey("foo", Limit.of(100)))
+                .thenReturn(List.of(new FooResponseDTO(1L, "FOO"), new FooResponseDTO(2L, "Foo")));
+
+        FooResponseDTO foo = fooService.getFooByName("Foo", false);
+
+        assertEquals(2L, foo.id());
+        verify(fooCache).putIdByName("Foo", false, 2L);
+    }
+
+    @Test
+    void getFooByName_whenCachedIdWasRenamed_shouldInvalidateAndQueryRepository() {
+        when(fooCache.getIdByName("Foo", true)).thenReturn(1L);
+        when(fooCache.getIfPresent(1L)).thenReturn(new FooResponseDTO(1L, "Bar"));
+        when(fooRepository.findByNameKey("foo", Limit.of(100))).thenReturn(List.of(new FooResponseDTO(3L, "FOO")));
+
+        assertEquals(3L, fooService.getFooByName("Foo", true).id());
+        verify(fooCache).invalidateName("Foo");
+    }
+
+    @Test
+    void getFooByName_whenNoExactMatch_shouldThrowResourceNotFoundException() {
+        when(fooRepository.findByNameKey("foo", Limit.of(100))).thenReturn(List.of(new FooResponseDTO(1L, "FOO")));
+
+        assertThrows(ResourceNotFoundException.class, () -> fooService.getFooByName("Foo", false));
+    }
+
+    @Test
+    void findFoosByNamePrefix_shouldMatchLowercasedEscapedPrefix() {
+        ReflectionTestUtils.setField(fooService, "maxPageSize", 100);
+        when(fooRepository.findByNameKeyLike("ab!_c%", Limit.of(100))).thenReturn(List.of());
+
+        assertTrue(fooService.findFoosByNamePrefix("AB_c", 500).isEmpty());
+    }
+
+    @Test
+    void searchFoos_shouldStripQueryAndCapSize() {
+        ReflectionTestUtils.setField(fooService, "maxPageSize", 100);
+        when(fooSearchIndex.search("foo", 100)).thenReturn(List.of(new FooNameIndex.Hit(7L, "Foo", 2.0)));
+
+        assertEquals(List.of(new FooSearchHitDTO(7L, "Foo", 2.0)), fooService.searchFoos("  foo ", 500));
+    }
+
+    @Test
+    void searchFoos_withBlankQuery_shouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> fooService.searchFoos(" ", null));
+        verifyNoInteractions(fooSearchIndex);
+    }
+
+    @Test
+    void listFoos_withInvalidCursor_shouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> fooService.listFoos("not-a-cursor", 10, null));
+        verifyNoInteractions(fooRepository);
     }
 }
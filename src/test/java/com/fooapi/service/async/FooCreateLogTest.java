@@ -0,0 +1,94 @@
+package com.fooapi.service.async;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.async.FooCreateLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FooCreateLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_afterReopen_shouldReturnEntriesAfterCheckpointInOrder() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 4096, false)) {
+            assertTrue(createLog.recover().isEmpty());
+            FooCreateLog.Entry committed = createLog.append(first, "Foo 1");
+            createLog.append(second, "Fôo 2");
+            createLog.append(third, "Foo 3");
+            createLog.checkpoint(committed.endPosition());
+        }
+
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 4096, false)) {
+            List<FooCreateLog.Entry> recovered = createLog.recover();
+
+            assertEquals(List.of(second, third), recovered.stream().map(FooCreateLog.Entry::trackingId).toList());
+            assertEquals("Fôo 2", recovered.get(0).name());
+        }
+    }
+
+    @Test
+    void append_whenLogWrapsAround_shouldKeepEntriesRecoverable() throws IOException {
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 256, false)) {
+            createLog.recover();
+            // Remplit puis libère le journal plusieurs fois pour forcer des retours au début du fichier
+            for (int i = 0; i < 20; i++) {
+                FooCreateLog.Entry entry = createLog.append(UUID.randomUUID(), "Foo " + i);
+                assertNotNull(entry);
+                createLog.checkpoint(entry.endPosition());
+            }
+            createLog.append(UUID.randomUUID(), "Pending A");
+            createLog.append(UUID.randomUUID(), "Pending B");
+        }
+
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 256, false)) {
+            assertEquals(List.of("Pending A", "Pending B"), createLog.recover().stream().map(FooCreateLog.Entry::name).toList());
+        }
+    }
+
+    @Test
+    void append_whenUncheckpointedEntriesFillTheLog_shouldReturnNull() throws IOException {
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 128, false)) {
+            createLog.recover();
+            int appended = 0;
+            while (createLog.append(UUID.randomUUID(), "Foo " + appended) != null) {
+                appended++;
+            }
+
+            assertTrue(appended > 0);
+            assertTrue(createLog.usedBytes() <= createLog.capacity());
+        }
+    }
+
+    @Test
+    void recover_whenLastRecordIsCorrupted_shouldStopBeforeIt() throws IOException {
+        UUID intact = UUID.randomUUID();
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 4096, false)) {
+            createLog.recover();
+            FooCreateLog.Entry entry = createLog.append(intact, "Intact");
+            createLog.append(UUID.randomUUID(), "Torn");
+            // Simule une écriture interrompue : un octet du nom du second enregistrement est altéré
+            try (FileChannel channel = FileChannel.open(directory.resolve("foo-create.log"), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{'X'}), entry.endPosition() + 8 + 16);
+            }
+        }
+
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 4096, false)) {
+            assertEquals(List.of(intact), createLog.recover().stream().map(FooCreateLog.Entry::trackingId).toList());
+            assertNotNull(createLog.append(UUID.randomUUID(), "After recovery"));
+        }
+    }
+}
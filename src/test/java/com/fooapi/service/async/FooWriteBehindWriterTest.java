@@ -0,0 +1,203 @@
+package com.fooapi.service.async;
+
+import dto.FooAsyncCreateStatusDTO;
+import dto.FooResponseDTO;
+import entity.Foo;
+import entity.FooAsyncCreation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mapper.FooMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import repository.FooAsyncCreationRepository;
+import repository.FooRepository;
+import service.async.FooCreateLog;
+import service.async.FooWriteBehindWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class FooWriteBehindWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final FooRepository fooRepository = mock(FooRepository.class);
+    private final FooAsyncCreationRepository fooAsyncCreationRepository = mock(FooAsyncCreationRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final AtomicLong ids = new AtomicLong();
+    // Taille de chaque lot passé à persistAll, dans l'ordre des appels
+    private final List<Integer> persistedBatches = new CopyOnWriteArrayList<>();
+    private FooWriteBehindWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void pendingCreationsAreWrittenInBatches() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(fooRepository.persistAll(anyList())).thenAnswer(invocation -> {
+            List<Foo> foos = invocation.getArgument(0);
+            if (persistedBatches.isEmpty()) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await();
+            }
+            return persisted(foos);
+        });
+        writer = start(2);
+
+        UUID first = writer.submit("Foo 0").trackingId();
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        // Le premier lot est en cours : les suivantes s'accumulent et partent par lots de batch-size
+        List<UUID> others = List.of(writer.submit("Foo 1").trackingId(), writer.submit("Foo 2").trackingId(),
+                writer.submit("Foo 3").trackingId(), writer.submit("Foo 4").trackingId());
+        releaseFirstBatch.countDown();
+
+        awaitStatus(others.get(3), FooAsyncCreateStatusDTO.Status.COMMITTED);
+        assertEquals(List.of(1, 2, 2), persistedBatches);
+        assertEquals("Foo 0", writer.status(first).foo().name());
+        for (UUID trackingId : others) {
+            assertNotNull(writer.status(trackingId).foo().id());
+        }
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void transientFailureIsRetriedWithoutFailingTheCreation() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        when(fooRepository.persistAll(anyList())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new TransientDataAccessResourceException("Database unavailable");
+            }
+            return persisted(invocation.getArgument(0));
+        });
+        writer = start(10);
+
+        UUID trackingId = writer.submit("Foo").trackingId();
+
+        awaitStatus(trackingId, FooAsyncCreateStatusDTO.Status.COMMITTED);
+        assertEquals(2, attempts.get());
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void permanentFailureMarksOnlyTheFailingCreationAsFailed() throws Exception {
+        when(fooRepository.persistAll(anyList())).thenAnswer(invocation -> {
+            List<Foo> foos = invocation.getArgument(0);
+            if (foos.stream().anyMatch(foo -> foo.getName().equals("Duplicate"))) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return persisted(foos);
+        });
+        writer = start(10);
+
+        UUID before = writer.submit("Foo 1").trackingId();
+        UUID failing = writer.submit("Duplicate").trackingId();
+        UUID after = writer.submit("Foo 2").trackingId();
+
+        awaitStatus(after, FooAsyncCreateStatusDTO.Status.COMMITTED);
+        assertEquals(FooAsyncCreateStatusDTO.Status.COMMITTED, writer.status(before).status());
+        FooAsyncCreateStatusDTO failed = writer.status(failing);
+        assertEquals(FooAsyncCreateStatusDTO.Status.FAILED, failed.status());
+        assertEquals("Duplicate entry", failed.error());
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void replayedCreationsAlreadyWrittenBeforeTheRestartAreNotCreatedAgain() throws Exception {
+        // Arrêt entre le commit et l'avancée du checkpoint : les deux demandes sont encore dans le journal
+        UUID written = UUID.randomUUID();
+        UUID notWritten = UUID.randomUUID();
+        try (FooCreateLog createLog = FooCreateLog.open(directory, 64 * 1024, false)) {
+            createLog.append(written, "Written");
+            createLog.append(notWritten, "Not written");
+        }
+        when(fooAsyncCreationRepository.findAllById(anyList()))
+                .thenReturn(List.of(FooAsyncCreation.committed(written, 7L, Instant.now())));
+        when(fooRepository.findAllByIdIn(List.of(7L))).thenReturn(List.of(new FooResponseDTO(7L, "Written", 0L)));
+        List<String> created = new CopyOnWriteArrayList<>();
+        when(fooRepository.persistAll(anyList())).thenAnswer(invocation -> {
+            List<Foo> foos = invocation.getArgument(0);
+            foos.forEach(foo -> created.add(foo.getName()));
+            return persisted(foos);
+        });
+        writer = start(10);
+
+        awaitStatus(notWritten, FooAsyncCreateStatusDTO.Status.COMMITTED);
+        assertEquals(List.of("Not written"), created);
+        assertEquals(7L, writer.status(written).foo().id());
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void statusOfACreationWrittenBeforeTheRestartIsReadFromTheDatabase() throws Exception {
+        UUID trackingId = UUID.randomUUID();
+        when(fooAsyncCreationRepository.findById(trackingId))
+                .thenReturn(Optional.of(FooAsyncCreation.committed(trackingId, 7L, Instant.now())));
+        when(fooRepository.findAllByIdIn(List.of(7L))).thenReturn(List.of(new FooResponseDTO(7L, "Foo", 0L)));
+        writer = start(10);
+
+        assertNull(writer.status(trackingId));
+        FooAsyncCreateStatusDTO status = writer.recordedStatus(trackingId);
+
+        assertEquals(FooAsyncCreateStatusDTO.Status.COMMITTED, status.status());
+        assertEquals("Foo", status.foo().name());
+        assertNull(writer.recordedStatus(UUID.randomUUID()));
+    }
+
+    private FooWriteBehindWriter start(int batchSize) throws IOException {
+        FooWriteBehindWriter started = new FooWriteBehindWriter(fooRepository, fooAsyncCreationRepository, FooMapper.INSTANCE, transactionTemplate,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), directory, DataSize.ofKilobytes(64),
+                false, 100, batchSize, Duration.ofMillis(10), Duration.ofMinutes(1));
+        started.start();
+        return started;
+    }
+
+    private List<Foo> persisted(List<Foo> foos) {
+        foos.forEach(foo -> foo.setId(ids.incrementAndGet()));
+        persistedBatches.add(foos.size());
+        return foos;
+    }
+
+    private void awaitStatus(UUID trackingId, FooAsyncCreateStatusDTO.Status expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.status(trackingId).status() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, writer.status(trackingId).status());
+    }
+}
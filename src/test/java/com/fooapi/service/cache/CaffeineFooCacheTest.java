@@ -0,0 +1,130 @@
+package com.fooapi.service.cache;
+
+import dto.FooResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.cache.CaffeineFooCache;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineFooCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CaffeineFooCache fooCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fooCache = new CaffeineFooCache(100, Duration.ofMinutes(1), 100, Duration.ofSeconds(5), 100, meterRegistry);
+    }
+
+    @Test
+    void put_shouldMakeFooAvailableAndClearMissingMarker() {
+        fooCache.putMissing(1L, fooCache.loadToken());
+        assertTrue(fooCache.isKnownMissing(1L));
+
+        FooResponseDTO foo = new FooResponseDTO(1L, "Foo");
+        fooCache.put(foo, fooCache.loadToken());
+
+        assertSame(foo, fooCache.getIfPresent(1L));
+        assertFalse(fooCache.isKnownMissing(1L));
+    }
+
+    @Test
+    void invalidate_shouldRemoveFooAndMissingMarker() {
+        fooCache.put(new FooResponseDTO(1L, "Foo"), fooCache.loadToken());
+        fooCache.putMissing(2L, fooCache.loadToken());
+
+        fooCache.invalidate(1L);
+        fooCache.invalidate(2L);
+
+        assertNull(fooCache.getIfPresent(1L));
+        assertFalse(fooCache.isKnownMissing(2L));
+    }
+
+    @Test
+    void idsByName_shouldBeInvalidatedByNameOrById() {
+        fooCache.putIdByName("Foo", false, 1L);
+        fooCache.putIdByName("Foo", true, 1L);
+        fooCache.putIdByName("Bar", false, 2L);
+
+        assertEquals(1L, fooCache.getIdByName("Foo", false));
+        assertEquals(1L, fooCache.getIdByName("FOO", true));
+        assertNull(fooCache.getIdByName("FOO", false));
+
+        fooCache.invalidateName("FOO");
+        assertNull(fooCache.getIdByName("Foo", true));
+        assertEquals(1L, fooCache.getIdByName("Foo", false));
+
+        fooCache.invalidateNamesOf(1L);
+        assertNull(fooCache.getIdByName("Foo", false));
+        assertEquals(2L, fooCache.getIdByName("Bar", false));
+    }
+
+    @Test
+    void invalidateNamesOf_shouldKeepNamesReassignedToAnotherId() {
+        fooCache.putIdByName("Foo", false, 1L);
+        fooCache.putIdByName("Foo", true, 1L);
+        fooCache.putIdByName("Bar", false, 2L);
+        // "Foo" désigne désormais le Foo 3 : l'index inverse du Foo 1 garde une clé périmée
+        fooCache.putIdByName("Foo", false, 3L);
+
+        fooCache.invalidateNamesOf(List.of(1L, 2L));
+
+        assertEquals(3L, fooCache.getIdByName("Foo", false));
+        assertNull(fooCache.getIdByName("foo", true));
+        assertNull(fooCache.getIdByName("Bar", false));
+        fooCache.invalidateNamesOf(3L);
+        assertNull(fooCache.getIdByName("Foo", false));
+    }
+
+    @Test
+    void put_whenInvalidatedSinceLoadStarted_shouldBeIgnored() {
+        long loadToken = fooCache.loadToken();
+        // Écriture validée (et invalidation) pendant la lecture en base
+        fooCache.invalidate(1L);
+
+        fooCache.put(new FooResponseDTO(1L, "Stale", 0L), loadToken);
+        fooCache.putMissing(1L, loadToken);
+
+        assertNull(fooCache.getIfPresent(1L));
+        assertFalse(fooCache.isKnownMissing(1L));
+        FooResponseDTO fresh = new FooResponseDTO(1L, "Fresh", 1L);
+        fooCache.put(fresh, fooCache.loadToken());
+        assertSame(fresh, fooCache.getIfPresent(1L));
+    }
+
+    @Test
+    void put_shouldKeepNewerCachedVersion() {
+        FooResponseDTO newer = new FooResponseDTO(1L, "Newer", 2L);
+        fooCache.put(newer, fooCache.loadToken());
+
+        fooCache.put(new FooResponseDTO(1L, "Older", 1L), fooCache.loadToken());
+
+        assertSame(newer, fooCache.getIfPresent(1L));
+    }
+
+    @Test
+    void put_whenEverythingWasInvalidatedSinceLoadStarted_shouldBeIgnored() {
+        long loadToken = fooCache.loadToken();
+        fooCache.invalidateAll();
+
+        fooCache.put(new FooResponseDTO(2L, "Stale", 0L), loadToken);
+
+        assertNull(fooCache.getIfPresent(2L));
+    }
+
+    @Test
+    void lookups_shouldBeExportedAsCacheMetrics() {
+        fooCache.put(new FooResponseDTO(1L, "Foo"), fooCache.loadToken());
+        fooCache.getIfPresent(1L);
+        fooCache.getIfPresent(2L);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "foo.byId").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "foo.byId").tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,136 @@
+package com.fooapi.service.cache.coherence;
+
+import datasource.ReplicaAwareDataSource;
+import dto.FooResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import service.cache.CaffeineFooCache;
+import service.cache.coherence.FooCacheCoherence;
+import service.cache.coherence.FooInvalidationMessage;
+import service.cache.coherence.FooInvalidationTransport;
+import service.cache.coherence.LoopbackFooInvalidationTransport;
+import service.coalescing.FooLoadCoalescer;
+import service.event.FooChangedEvent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FooCacheCoherenceTest {
+
+    private final LoopbackFooInvalidationTransport.Group group = new LoopbackFooInvalidationTransport.Group();
+    private final List<FooInvalidationMessage> broadcast = new CopyOnWriteArrayList<>();
+    private LoopbackFooInvalidationTransport observer;
+    private FooLoadCoalescer fooLoadCoalescer;
+    private FooCacheCoherence writer;
+    private CaffeineFooCache peerCache;
+    private FooCacheCoherence peer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        observer = new LoopbackFooInvalidationTransport(group);
+        observer.start(buffer -> broadcast.add(FooInvalidationMessage.decode(buffer)));
+        fooLoadCoalescer = mock(FooLoadCoalescer.class);
+        writer = node(new CaffeineFooCache(100, Duration.ofMinutes(1), 100, Duration.ofSeconds(5), 100, new SimpleMeterRegistry()));
+        peerCache = new CaffeineFooCache(100, Duration.ofMinutes(1), 100, Duration.ofSeconds(5), 100, new SimpleMeterRegistry());
+        peer = node(peerCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        observer.close();
+    }
+
+    @Test
+    void writeInvalidatesOlderVersionsOnPeers() {
+        peerCache.put(new FooResponseDTO(1L, "Foo", 0L), peerCache.loadToken());
+        peerCache.putIdByName("Foo", false, 1L);
+        peerCache.put(new FooResponseDTO(2L, "Bar", 5L), peerCache.loadToken());
+        peerCache.putMissing(3L, peerCache.loadToken());
+
+        writer.onFooChanged(new FooChangedEvent(1L, FooChangedEvent.Type.UPDATED, "Renamed", 1L));
+        // Le pair a déjà rechargé cette version : l'entrée est gardée
+        writer.onFooChanged(new FooChangedEvent(2L, FooChangedEvent.Type.UPDATED, "Bar", 5L));
+        writer.onFooChanged(new FooChangedEvent(3L, FooChangedEvent.Type.CREATED, "Baz", 0L));
+        assertEquals(3, writer.flush());
+
+        assertNull(peerCache.getIfPresent(1L));
+        assertNull(peerCache.getIdByName("Foo", false));
+        assertNotNull(peerCache.getIfPresent(2L));
+        assertFalse(peerCache.isKnownMissing(3L));
+        verify(fooLoadCoalescer).forget(1L);
+    }
+
+    @Test
+    void writesAreCoalescedPerIdAndDeleteWins() {
+        writer.onFooChanged(new FooChangedEvent(1L, FooChangedEvent.Type.CREATED, "Foo", 0L));
+        writer.onFooChanged(new FooChangedEvent(1L, FooChangedEvent.Type.UPDATED, "Renamed", 1L));
+        writer.onFooChanged(new FooChangedEvent(1L, FooChangedEvent.Type.DELETED, null, null));
+        writer.onFooChanged(new FooChangedEvent(2L, FooChangedEvent.Type.CREATED, "Bar", 0L));
+        writer.onFooChanged(new FooChangedEvent(2L, FooChangedEvent.Type.UPDATED, "Baz", 1L));
+        writer.flush();
+
+        assertEquals(1, broadcast.size());
+        FooInvalidationMessage message = broadcast.get(0);
+        assertEquals(2, message.size());
+        for (int i = 0; i < message.size(); i++) {
+            long expected = message.ids()[i] == 1L ? FooInvalidationMessage.UNKNOWN_VERSION : 1L;
+            assertEquals(expected, message.versions()[i]);
+        }
+        assertEquals(0, writer.flush());
+    }
+
+    @Test
+    void lostMessageFlushesPeerCache() {
+        LoopbackFooInvalidationTransport other = new LoopbackFooInvalidationTransport(group);
+        other.send(new FooInvalidationMessage(42L, 1, 0, new long[0], new long[0]).encode());
+        peerCache.put(new FooResponseDTO(1L, "Foo", 0L), peerCache.loadToken());
+
+        other.send(new FooInvalidationMessage(42L, 3, 0, new long[]{2L}, new long[]{1L}).encode());
+
+        assertNull(peerCache.getIfPresent(1L));
+    }
+
+    @Test
+    void firstMessageFromAlreadyRunningPeerDoesNotFlushCache() {
+        LoopbackFooInvalidationTransport other = new LoopbackFooInvalidationTransport(group);
+        peerCache.put(new FooResponseDTO(1L, "Foo", 0L), peerCache.loadToken());
+
+        other.send(new FooInvalidationMessage(42L, 1000, 0, new long[]{2L}, new long[]{1L}).encode());
+
+        assertNotNull(peerCache.getIfPresent(1L));
+    }
+
+    @Test
+    void silentPeerFlushesCacheAfterTimeout() throws InterruptedException {
+        LoopbackFooInvalidationTransport other = new LoopbackFooInvalidationTransport(group);
+        other.send(new FooInvalidationMessage(42L, 1, 0, new long[0], new long[0]).encode());
+        peerCache.put(new FooResponseDTO(1L, "Foo", 0L), peerCache.loadToken());
+
+        peer.expirePeers();
+        assertNotNull(peerCache.getIfPresent(1L));
+        Thread.sleep(60);
+        peer.expirePeers();
+
+        assertNull(peerCache.getIfPresent(1L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private FooCacheCoherence node(CaffeineFooCache fooCache) throws IOException {
+        ObjectProvider<ReplicaAwareDataSource> noReplicas = mock(ObjectProvider.class);
+        ObjectProvider<FooInvalidationTransport> transport = mock(ObjectProvider.class);
+        when(transport.getIfAvailable()).thenReturn(new LoopbackFooInvalidationTransport(group));
+        FooCacheCoherence node = new FooCacheCoherence(fooCache, fooLoadCoalescer, noReplicas, transport, new SimpleMeterRegistry(),
+                Duration.ofHours(1), 80, Duration.ofHours(1), Duration.ofMillis(50));
+        // flush-interval d'une heure : les tests appellent flush() eux-mêmes
+        node.start();
+        return node;
+    }
+}
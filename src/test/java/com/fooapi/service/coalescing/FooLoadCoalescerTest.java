@@ -0,0 +1,100 @@
+package com.fooapi.service.coalescing;
+
+import dto.FooResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import service.coalescing.FooLoadCoalescer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FooLoadCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void load_whenSameIdIsInFlight_shouldShareOneLoad() throws Exception {
+        FooLoadCoalescer coalescer = new FooLoadCoalescer(meterRegistry, Duration.ZERO, 128);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Function<List<Long>, Map<Long, FooResponseDTO>> loader = ids -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Map.of(1L, new FooResponseDTO(1L, "Foo"));
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<FooResponseDTO> first = executor.submit(() -> coalescer.load(1L, loader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<FooResponseDTO>> others = List.of(
+                    executor.submit(() -> coalescer.load(1L, loader)),
+                    executor.submit(() -> coalescer.load(1L, loader)));
+            while (meterRegistry.get("foo.coalescing.requests").tag("outcome", "shared").counter().count() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("Foo", first.get(5, TimeUnit.SECONDS).name());
+            for (Future<FooResponseDTO> other : others) {
+                assertEquals("Foo", other.get(5, TimeUnit.SECONDS).name());
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void load_whenDistinctIdsArriveWithinWindow_shouldLoadThemInOneBatch() throws Exception {
+        FooLoadCoalescer coalescer = new FooLoadCoalescer(meterRegistry, Duration.ofMillis(500), 128);
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        Function<List<Long>, Map<Long, FooResponseDTO>> loader = ids -> {
+            batches.add(ids);
+            return ids.stream().filter(id -> id != 3L)
+                    .collect(Collectors.toMap(id -> id, id -> new FooResponseDTO(id, "Foo " + id)));
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<FooResponseDTO> one = executor.submit(() -> coalescer.load(1L, loader));
+            Future<FooResponseDTO> two = executor.submit(() -> coalescer.load(2L, loader));
+            Future<FooResponseDTO> three = executor.submit(() -> coalescer.load(3L, loader));
+
+            assertEquals("Foo 1", one.get(5, TimeUnit.SECONDS).name());
+            assertEquals("Foo 2", two.get(5, TimeUnit.SECONDS).name());
+            assertNull(three.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(3, meterRegistry.get("foo.coalescing.window.delay").timer().count());
+    }
+
+    @Test
+    void load_whenLoaderFails_shouldPropagateAndNotKeepTheFailedLoad() {
+        FooLoadCoalescer coalescer = new FooLoadCoalescer(meterRegistry, Duration.ZERO, 128);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.load(1L, ids -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals("Foo", coalescer.load(1L, ids -> Map.of(1L, new FooResponseDTO(1L, "Foo"))).name());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fooapi.service.concurrency;
+
+import exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import service.concurrency.DbConcurrencyLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbConcurrencyLimiterTest {
+
+    @Test
+    void call_whenLimitReached_shouldRejectAfterTimeout() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, Duration.ofMillis(50), 1, new SimpleMeterRegistry());
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> holder = executor.submit(() -> limiter.call(() -> {
+                holding.countDown();
+                release.await();
+                return null;
+            }));
+            holding.await();
+
+            assertEquals(1, limiter.inFlight());
+            assertThrows(ServiceUnavailableException.class, () -> limiter.call(() -> "rejected"));
+
+            release.countDown();
+            holder.get();
+        }
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void call_whenNested_shouldUseSinglePermit() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, Duration.ofMillis(50), 1, new SimpleMeterRegistry());
+
+        String result = limiter.call(() -> limiter.call(() -> "nested"));
+
+        assertEquals("nested", result);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void callExport_shouldUseItsOwnBudgetAndRejectWithoutWaiting() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, Duration.ofSeconds(5), 1, new SimpleMeterRegistry());
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> export = executor.submit(() -> limiter.callExport(() -> {
+                exporting.countDown();
+                release.await();
+                return null;
+            }));
+            exporting.await();
+
+            assertEquals(0, limiter.inFlight());
+            assertEquals("short", limiter.call(() -> "short"));
+            assertThrows(ServiceUnavailableException.class, () -> limiter.callExport(() -> "rejected"));
+
+            release.countDown();
+            export.get();
+        }
+        assertEquals("export", limiter.callExport(() -> "export"));
+    }
+}
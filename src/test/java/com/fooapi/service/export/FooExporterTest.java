@@ -0,0 +1,78 @@
+package com.fooapi.service.export;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import dto.ExportFormat;
+import dto.FooResponseDTO;
+import org.junit.jupiter.api.Test;
+import service.export.FooExporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FooExporterTest {
+
+    private final FooExporter fooExporter = new FooExporter(new ObjectMapper());
+
+    @Test
+    void export_asNdjson_shouldWriteOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = fooExporter.export(Stream.of(new FooResponseDTO(1L, "Foo 1"), new FooResponseDTO(2L, "Foo 2")), ExportFormat.NDJSON, out);
+
+        assertEquals(2, rows);
+        assertEquals("{\"id\":1,\"name\":\"Foo 1\"}\n{\"id\":2,\"name\":\"Foo 2\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_asCsv_shouldQuoteSpecialCharacters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        fooExporter.export(Stream.of(new FooResponseDTO(1L, "Plain"), new FooResponseDTO(2L, "Say \"hi\", Foo")), ExportFormat.CSV, out);
+
+        assertEquals("id,name\n1,Plain\n2,\"Say \"\"hi\"\", Foo\"\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_asCborSequence_shouldBeReadableValueByValueAndSmallerThanNdjson() throws IOException {
+        List<FooResponseDTO> foos = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new FooResponseDTO(id, "Foo " + id, 0L))
+                .toList();
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        fooExporter.export(foos.stream(), ExportFormat.CBOR, cbor);
+        fooExporter.export(foos.stream(), ExportFormat.NDJSON, ndjson);
+
+        try (MappingIterator<FooResponseDTO> values = new CBORMapper().readerFor(FooResponseDTO.class).readValues(cbor.toByteArray())) {
+            assertEquals(foos, values.readAll());
+        }
+        assertTrue(cbor.size() < ndjson.size());
+    }
+
+    @Test
+    void export_whenClientDisconnects_shouldStopConsumingTheStream() {
+        AtomicBoolean exhausted = new AtomicBoolean();
+        Stream<FooResponseDTO> foos = LongStream.rangeClosed(1, 1_000_000)
+                .mapToObj(id -> new FooResponseDTO(id, "Foo " + id))
+                .onClose(() -> exhausted.set(true));
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> fooExporter.export(foos, ExportFormat.NDJSON, brokenPipe));
+        assertFalse(exhausted.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.fooapi.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dto.FooRequestDTO;
+import dto.FooResponseDTO;
+import exception.ConflictException;
+import exception.UnprocessableEntityException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import service.idempotency.IdempotencyGuard;
+import service.idempotency.InMemoryIdempotencyStore;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyGuardTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofHours(1), 1024 * 1024, meterRegistry);
+        guard = new IdempotencyGuard(store, new ObjectMapper(), meterRegistry, Duration.ofMillis(300));
+    }
+
+    @Test
+    void retryReturnsStoredResponseWithoutExecutingAgain() {
+        FooRequestDTO request = new FooRequestDTO("Foo");
+
+        ResponseEntity<FooResponseDTO> first = guard.execute("key-1", "createFoo", request, FooResponseDTO.class, create(1L));
+        ResponseEntity<FooResponseDTO> retry = guard.execute("key-1", "createFoo", request, FooResponseDTO.class, create(2L));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyGuard.IDEMPOTENT_REPLAYED));
+        assertNull(first.getHeaders().getFirst(IdempotencyGuard.IDEMPOTENT_REPLAYED));
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() {
+        guard.execute("key-1", "createFoo", new FooRequestDTO("Foo"), FooResponseDTO.class, create(1L));
+
+        assertThrows(UnprocessableEntityException.class,
+                () -> guard.execute("key-1", "createFoo", new FooRequestDTO("Bar"), FooResponseDTO.class, create(2L)));
+        // Même clé pour une autre opération : indépendante
+        guard.execute("key-1", "createFooAsync", new FooRequestDTO("Bar"), FooResponseDTO.class, create(3L));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForFirstRequest() throws Exception {
+        FooRequestDTO request = new FooRequestDTO("Foo");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<FooResponseDTO>> first = CompletableFuture.supplyAsync(() ->
+                guard.execute("key-1", "createFoo", request, FooResponseDTO.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return create(1L).get();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<FooResponseDTO>> duplicate = CompletableFuture.supplyAsync(() ->
+                guard.execute("key-1", "createFoo", request, FooResponseDTO.class, create(2L)));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateGivesUpWhenFirstRequestOutlastsWaitTimeout() throws Exception {
+        FooRequestDTO request = new FooRequestDTO("Foo");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<FooResponseDTO>> first = CompletableFuture.supplyAsync(() ->
+                guard.execute("key-1", "createFoo", request, FooResponseDTO.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return create(1L).get();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ConflictException.class,
+                () -> guard.execute("key-1", "createFoo", request, FooResponseDTO.class, create(2L)));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedRequestReleasesKey() {
+        FooRequestDTO request = new FooRequestDTO("Foo");
+
+        assertThrows(IllegalStateException.class, () -> guard.execute("key-1", "createFoo", request, FooResponseDTO.class, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        ResponseEntity<FooResponseDTO> retry = guard.execute("key-1", "createFoo", request, FooResponseDTO.class, create(1L));
+
+        assertEquals(1L, retry.getBody().id());
+        assertEquals(1, executions.get());
+    }
+
+    private Supplier<ResponseEntity<FooResponseDTO>> create(long id) {
+        return () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(new FooResponseDTO(id, "Foo", 0L), HttpStatus.CREATED);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fooapi.service.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import service.migration.BackfillGatedMigrationStrategy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackfillGatedMigrationStrategyTest {
+
+    private final BackfillGatedMigrationStrategy strategy = new BackfillGatedMigrationStrategy(Map.of("3", "foos.version"));
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void migrate_shouldStopBeforeAMigrationWhoseBackfillIsNotCompleted() {
+        strategy.migrate(flyway());
+
+        assertEquals("2", flyway().info().current().getVersion().getVersion());
+    }
+
+    @Test
+    void migrate_onceTheBackfillIsCompleted_shouldApplyTheRemainingMigrations() {
+        strategy.migrate(flyway());
+        jdbcTemplate.update("INSERT INTO backfill_completions (name, completed_at, rows_updated) VALUES ('foos.version', CURRENT_TIMESTAMP, 0)");
+
+        strategy.migrate(flyway());
+
+        assertEquals("4", flyway().info().current().getVersion().getVersion());
+        assertEquals(0, flyway().info().pending().length);
+    }
+
+    @Test
+    void migrate_whenTheFirstPendingMigrationIsGated_shouldApplyNothing() {
+        new BackfillGatedMigrationStrategy(Map.of("1", "foos.version")).migrate(flyway());
+
+        assertNull(flyway().info().current());
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/gated").load();
+    }
+}
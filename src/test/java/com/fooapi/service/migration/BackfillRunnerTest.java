@@ -0,0 +1,102 @@
+package com.fooapi.service.migration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import service.migration.Backfill;
+import service.migration.BackfillRunner;
+import service.migration.FooVersionBackfill;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BackfillRunnerTest {
+
+    private static final String LAG_QUERY = "SELECT 0.0";
+
+    private JdbcTemplate jdbcTemplate;
+    private final RecordingBackfill backfill = new RecordingBackfill(2500L);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = spy(new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")));
+        jdbcTemplate.execute("CREATE TABLE backfill_completions (name VARCHAR(100) PRIMARY KEY, "
+                + "completed_at TIMESTAMP(6) NOT NULL, rows_updated BIGINT NOT NULL)");
+    }
+
+    @Test
+    void run_whenLagQueryFailsTransiently_shouldRetryAndRecordCompletion() {
+        doThrow(new TransientDataAccessResourceException("Replica unreachable"))
+                .doCallRealMethod()
+                .when(jdbcTemplate).queryForObject(eq(LAG_QUERY), eq(Double.class));
+
+        runner().run(backfill);
+
+        assertEquals(List.of("]0, 1000]", "]1000, 2000]", "]2000, 2500]"), backfill.chunks);
+        assertEquals(2500L, jdbcTemplate.queryForObject(
+                "SELECT rows_updated FROM backfill_completions WHERE name = 'test'", Long.class));
+    }
+
+    @Test
+    void run_whenAlreadyCompleted_shouldNotScanTheTableAgain() {
+        runner().run(backfill);
+        assertEquals(3, backfill.chunks.size());
+        backfill.chunks.clear();
+
+        runner().run(backfill);
+
+        assertTrue(backfill.chunks.isEmpty());
+    }
+
+    @Test
+    void fooVersionBackfill_shouldStartNullVersionsAtZeroAndKeepTheOthers() {
+        jdbcTemplate.execute("CREATE TABLE foos (id BIGINT PRIMARY KEY, name VARCHAR(255), version BIGINT)");
+        jdbcTemplate.update("INSERT INTO foos (id, name, version) VALUES (1, 'a', NULL), (2, 'b', 3), (1500, 'c', NULL)");
+
+        runner().run(new FooVersionBackfill(jdbcTemplate));
+
+        assertEquals(List.of(0L, 3L, 0L), jdbcTemplate.queryForList("SELECT version FROM foos ORDER BY id", Long.class));
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT rows_updated FROM backfill_completions WHERE name = 'foos.version'", Long.class));
+    }
+
+    private BackfillRunner runner() {
+        return new BackfillRunner(jdbcTemplate, List.of(backfill), new SimpleMeterRegistry(), true,
+                1000, 100, 1000, Duration.ofSeconds(1), 1.0, Duration.ofSeconds(2), Duration.ofMillis(1), LAG_QUERY);
+    }
+
+    private static final class RecordingBackfill implements Backfill {
+
+        private final Long maxId;
+        private final List<String> chunks = new CopyOnWriteArrayList<>();
+
+        private RecordingBackfill(Long maxId) {
+            this.maxId = maxId;
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public Long maxId() {
+            return maxId;
+        }
+
+        @Override
+        public int backfill(long fromId, long toId) {
+            chunks.add("]" + fromId + ", " + toId + "]");
+            return (int) (toId - fromId);
+        }
+    }
+}
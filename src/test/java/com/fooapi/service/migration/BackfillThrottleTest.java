@@ -0,0 +1,42 @@
+package com.fooapi.service.migration;
+
+import org.junit.jupiter.api.Test;
+import service.migration.BackfillThrottle;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackfillThrottleTest {
+
+    private final BackfillThrottle throttle = new BackfillThrottle(1000, 100, 1200,
+            Duration.ofMillis(100), 0.25, Duration.ofSeconds(2));
+
+    @Test
+    void afterChunk_shouldGrowFastChunksAndHalveSlowOnes() {
+        throttle.afterChunk(Duration.ofMillis(10));
+        assertEquals(1100, throttle.chunkSize());
+        throttle.afterChunk(Duration.ofMillis(10));
+        throttle.afterChunk(Duration.ofMillis(10));
+        assertEquals(1200, throttle.chunkSize());
+
+        throttle.afterChunk(Duration.ofMillis(80));
+        assertEquals(1200, throttle.chunkSize());
+        throttle.afterChunk(Duration.ofMillis(300));
+        assertEquals(600, throttle.chunkSize());
+    }
+
+    @Test
+    void afterChunk_shouldPauseToRespectDutyCycle() {
+        assertEquals(Duration.ofMillis(120), throttle.afterChunk(Duration.ofMillis(40)));
+    }
+
+    @Test
+    void replicationLagging_shouldWaitAndShrinkChunksAboveMaxLag() {
+        assertFalse(throttle.replicationLagging(Duration.ofSeconds(1)));
+        assertEquals(1000, throttle.chunkSize());
+
+        assertTrue(throttle.replicationLagging(Duration.ofSeconds(5)));
+        assertEquals(500, throttle.chunkSize());
+    }
+}
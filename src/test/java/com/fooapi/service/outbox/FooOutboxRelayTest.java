@@ -0,0 +1,134 @@
+package com.fooapi.service.outbox;
+
+import dto.FooChangeDTO;
+import entity.FooOutboxEvent;
+import exception.GoneException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FooOutboxRepository;
+import service.outbox.FooChangeFeed;
+import service.outbox.FooChangeSink;
+import service.outbox.FooOutboxRelay;
+import service.outbox.InMemoryFooChangeSink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FooOutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private FooOutboxRepository fooOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<FooChangeSink> sinkProvider;
+
+    private FooChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new FooChangeFeed(fooOutboxRepository, new SimpleMeterRegistry(), true,
+                Duration.ofSeconds(1), 4, Duration.ofSeconds(15), Duration.ofMinutes(30), 10);
+    }
+
+    private FooOutboxRelay relay(int batchSize) {
+        return new FooOutboxRelay(fooOutboxRepository, transactionManager, sinkProvider, feed, new SimpleMeterRegistry(),
+                true, true, batchSize, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    private static FooOutboxEvent event(long fooId) {
+        return new FooOutboxEvent(fooId, "CREATED", "Foo " + fooId, 0L, NOW);
+    }
+
+    @Test
+    void publishBatch_shouldAssignConsecutiveSeqsAfterLastPublishedAndFeedSinkAndStream() {
+        InMemoryFooChangeSink sink = new InMemoryFooChangeSink(100);
+        when(sinkProvider.getIfAvailable()).thenReturn(sink);
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(41L);
+        FooOutboxEvent first = event(1);
+        FooOutboxEvent second = event(2);
+        when(fooOutboxRepository.findUnpublished(Limit.of(10))).thenReturn(List.of(first, second));
+
+        assertEquals(2, relay(10).publishBatch());
+
+        assertEquals(42L, first.getSeq());
+        assertEquals(43L, second.getSeq());
+        assertEquals(List.of(new FooChangeDTO(42, 1L, "CREATED", "Foo 1", 0L, NOW), new FooChangeDTO(43, 2L, "CREATED", "Foo 2", 0L, NOW)),
+                sink.published());
+        assertEquals(43L, feed.latestSeq());
+    }
+
+    @Test
+    void publishBatch_shouldPublishChangesOfTheSameFooInVersionOrder() {
+        InMemoryFooChangeSink sink = new InMemoryFooChangeSink(100);
+        when(sinkProvider.getIfAvailable()).thenReturn(sink);
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(0L);
+        // Deux instances, deux blocs d'ids : la version 2 du Foo 1 a reçu un id plus petit que la version 1
+        FooOutboxEvent secondRename = new FooOutboxEvent(10L, 1L, "UPDATED", "c", 2L, NOW, null);
+        FooOutboxEvent other = new FooOutboxEvent(20L, 2L, "CREATED", "b", 0L, NOW, null);
+        FooOutboxEvent firstRename = new FooOutboxEvent(60L, 1L, "UPDATED", "a", 1L, NOW, null);
+        when(fooOutboxRepository.findUnpublished(Limit.of(10))).thenReturn(List.of(secondRename, other, firstRename));
+
+        assertEquals(3, relay(10).publishBatch());
+
+        assertEquals(List.of(new FooChangeDTO(1, 1L, "UPDATED", "a", 1L, NOW), new FooChangeDTO(2, 2L, "CREATED", "b", 0L, NOW),
+                new FooChangeDTO(3, 1L, "UPDATED", "c", 2L, NOW)), sink.published());
+    }
+
+    @Test
+    void publishBatch_whenSinkFails_shouldRollBackAndNotAdvance() throws IOException {
+        FooChangeSink sink = mock(FooChangeSink.class);
+        doThrow(new IOException("broker down")).when(sink).publish(any());
+        when(sinkProvider.getIfAvailable()).thenReturn(sink);
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(0L);
+        when(fooOutboxRepository.findUnpublished(Limit.of(10))).thenReturn(List.of(event(1)));
+
+        assertThrows(RuntimeException.class, () -> relay(10).publishBatch());
+
+        verify(transactionManager).rollback(any());
+        assertEquals(0L, feed.latestSeq());
+    }
+
+    @Test
+    void subscribe_whenChangesAfterSinceWerePurged_shouldThrowGoneException() {
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(100L);
+        when(fooOutboxRepository.findMinSeq()).thenReturn(50L);
+
+        assertThrows(GoneException.class, () -> feed.subscribe(10L));
+    }
+
+    @Test
+    void append_shouldKeepOnlyTheLastBufferSizeChanges() {
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(0L);
+        List<FooChangeDTO> changes = List.of(
+                new FooChangeDTO(1, 1L, "CREATED", "a", 0L, NOW), new FooChangeDTO(2, 2L, "CREATED", "b", 0L, NOW),
+                new FooChangeDTO(3, 1L, "UPDATED", "c", 1L, NOW), new FooChangeDTO(4, 2L, "DELETED", null, null, NOW),
+                new FooChangeDTO(5, 3L, "CREATED", "d", 0L, NOW), new FooChangeDTO(6, 3L, "UPDATED", "e", 1L, NOW));
+
+        feed.append(changes);
+
+        assertEquals(6L, feed.latestSeq());
+        assertEquals(changes.subList(3, 6), feed.changesAfter(3, 10));
+        // Déjà sorties du tampon de 4 : relues en base
+        when(fooOutboxRepository.findPublishedAfter(1, Limit.of(2))).thenReturn(changes.subList(1, 3));
+        assertEquals(changes.subList(1, 3), feed.changesAfter(1, 2));
+    }
+}
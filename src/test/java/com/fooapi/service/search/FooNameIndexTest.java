@@ -0,0 +1,68 @@
+package com.fooapi.service.search;
+
+import org.junit.jupiter.api.Test;
+import service.search.FooNameIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FooNameIndexTest {
+
+    private static List<Long> ids(List<FooNameIndex.Hit> hits) {
+        return hits.stream().map(FooNameIndex.Hit::id).toList();
+    }
+
+    @Test
+    void search_shouldRankContainingNamesBeforeSimilarOnes() {
+        FooNameIndex index = new FooNameIndex();
+        index.put(1, "Blue Widget");
+        index.put(2, "Widget");
+        index.put(3, "Widgte"); // faute de frappe : ne contient pas "widget" mais lui ressemble
+        index.put(4, "Gadget");
+
+        List<FooNameIndex.Hit> hits = index.search("WIDGET", 10, 0.3);
+
+        assertEquals(List.of(2L, 1L, 3L), ids(hits));
+        assertEquals(2.0, hits.get(0).score());
+        assertTrue(hits.get(2).score() < 1.0);
+    }
+
+    @Test
+    void search_shouldFindSubstringsInsideWordsAndKeepTopK() {
+        FooNameIndex index = new FooNameIndex();
+        for (long id = 1; id <= 500; id++) {
+            index.put(id, "Foo " + id);
+        }
+
+        assertEquals(List.of(123L), ids(index.search("123", 10, 0.3)));
+        // À score égal, le plus petit id d'abord
+        assertEquals(List.of(1L, 2L, 3L), ids(index.search("foo", 3, 0.3)));
+    }
+
+    @Test
+    void putAndRemove_shouldKeepIndexConsistentAcrossCompactions() {
+        FooNameIndex index = new FooNameIndex();
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, "Alpha " + id);
+        }
+        // Renommages et suppressions : les emplacements libérés déclenchent des compactages
+        for (long id = 1; id <= 3000; id++) {
+            if (id % 2 == 0) {
+                index.remove(id);
+            } else {
+                index.put(id, "Beta " + id);
+            }
+        }
+
+        assertEquals(1500, index.size());
+        assertTrue(index.search("alpha", 10, 0.3).isEmpty());
+        assertEquals(List.of(2999L), ids(index.search("beta 2999", 1, 0.3)));
+        assertTrue(index.search("beta 2998", 10, 0.3).stream().noneMatch(hit -> hit.id() == 2998L));
+        index.put(2998, "Beta 2998");
+        assertEquals(List.of(2998L), ids(index.search("beta 2998", 1, 0.3)));
+        // Trigrammes retirés au compactage, puis de nouveau indexés
+        index.put(5000, "Alpha 5000");
+        assertEquals(List.of(5000L), ids(index.search("alpha", 10, 0.3)));
+    }
+}
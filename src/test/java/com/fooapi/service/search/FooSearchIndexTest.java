@@ -0,0 +1,87 @@
+package com.fooapi.service.search;
+
+import dto.FooChangeDTO;
+import dto.FooResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import repository.FooOutboxRepository;
+import repository.FooRepository;
+import service.outbox.FooChangeFeed;
+import service.search.FooNameIndex;
+import service.search.FooSearchIndex;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FooSearchIndexTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private FooRepository fooRepository;
+
+    @Mock
+    private FooOutboxRepository fooOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FooChangeFeed feed;
+    private FooSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Relais sur une autre instance : le tampon n'est alimenté ici que par append
+        feed = new FooChangeFeed(fooOutboxRepository, new SimpleMeterRegistry(), true,
+                Duration.ofMillis(10), 16, Duration.ofSeconds(15), Duration.ofMinutes(30), 10);
+        searchIndex = new FooSearchIndex(fooRepository, transactionManager, feed, new SimpleMeterRegistry(),
+                0.3, Duration.ofMillis(10), true, Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.stop();
+    }
+
+    @Test
+    void changesPublishedByOtherInstances_shouldReachTheIndex() throws Exception {
+        when(fooOutboxRepository.findMaxSeq()).thenReturn(10L);
+        when(fooRepository.streamAll()).thenReturn(Stream.of(new FooResponseDTO(1L, "Local Foo", 0L)));
+
+        searchIndex.start();
+        awaitTrue(searchIndex::isReady);
+        assertEquals(List.of(1L), ids(searchIndex.search("local", 10)));
+
+        feed.append(List.of(
+                new FooChangeDTO(11, 2L, "CREATED", "Remote Foo", 0L, NOW),
+                new FooChangeDTO(12, 1L, "DELETED", null, null, NOW)));
+
+        awaitTrue(() -> ids(searchIndex.search("foo", 10)).equals(List.of(2L)));
+    }
+
+    private static List<Long> ids(List<FooNameIndex.Hit> hits) {
+        return hits.stream().map(FooNameIndex.Hit::id).toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+}
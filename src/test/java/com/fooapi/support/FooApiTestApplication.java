@@ -0,0 +1,15 @@
+package com.fooapi.support;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Point d'entrée Spring Boot utilisable depuis les packages de test : FooApiApplication étant dans le
+ * package par défaut, elle ne peut pas être importée. Utilisée par les benchmarks JMH (profil Maven jmh).
+ */
+@SpringBootApplication(scanBasePackages = {"config", "controller", "diagnostics", "exception", "mapper", "metrics", "service"})
+@EnableJpaRepositories(basePackages = "repository")
+@EntityScan(basePackages = "entity")
+public class FooApiTestApplication {
+}
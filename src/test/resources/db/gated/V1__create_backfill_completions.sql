@@ -0,0 +1 @@
+CREATE TABLE backfill_completions (name VARCHAR(100) PRIMARY KEY, completed_at TIMESTAMP(6) NOT NULL, rows_updated BIGINT NOT NULL);
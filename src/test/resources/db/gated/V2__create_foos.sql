@@ -0,0 +1 @@
+CREATE TABLE foos (id BIGINT PRIMARY KEY, version BIGINT);
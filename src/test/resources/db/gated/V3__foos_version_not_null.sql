@@ -0,0 +1 @@
+ALTER TABLE foos ALTER COLUMN version SET NOT NULL;
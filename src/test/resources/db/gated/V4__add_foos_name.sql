@@ -0,0 +1 @@
+ALTER TABLE foos ADD COLUMN name VARCHAR(255);